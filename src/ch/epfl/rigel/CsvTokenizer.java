@@ -0,0 +1,262 @@
+package ch.epfl.rigel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Découpeur de fichiers CSV (encodés en ASCII) travaillant sur un tampon d'octets réutilisé.
+ * Chaque appel à nextLine avance d'une ligne et repère les bornes de ses champs, sans créer de chaînes :
+ * les nombres sont lus directement dans le tampon et une chaîne n'est construite que si on la demande avec string.
+ * Comme String.split, le découpage se fait sur chaque virgule, sans traitement particulier des guillemets ;
+ * un champ au-delà du dernier de la ligne est considéré comme vide.
+ */
+
+public final class CsvTokenizer implements Closeable {
+
+    private static final byte SEPARATOR = ',';
+    private static final int INITIAL_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Puissances de dix représentables exactement par un double.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Nombre maximal de chiffres significatifs pouvant être accumulés dans un long sans dépassement.
+    private static final int MAX_SIGNIFICANT_DIGITS = 18;
+
+    private final InputStream inputStream;
+    private byte[] buffer;
+    private int limit;
+    private int lineEnd;
+    private int nextLineStart;
+    private boolean endOfStream;
+
+    /**
+     * Bornes des champs de la ligne courante : le champ i commence à fieldStarts[i] et s'arrête
+     * à la virgule située en fieldStarts[i + 1] - 1 (ou en lineEnd pour le dernier champ).
+     */
+    private int[] fieldStarts;
+    private int fieldCount;
+
+    /**
+     * Construit un découpeur lisant le flot donné.
+     *
+     * @param inputStream flot à découper (il est fermé par close)
+     */
+    public CsvTokenizer(InputStream inputStream) {
+        this.inputStream = inputStream;
+        buffer = new byte[INITIAL_BUFFER_SIZE];
+        fieldStarts = new int[64];
+    }
+
+    /**
+     * Avance à la ligne suivante et repère les bornes de ses champs.
+     *
+     * @return vrai si une ligne a été lue, faux si la fin du flot est atteinte
+     * @throws IOException en cas d'erreur de lecture
+     */
+    public boolean nextLine() throws IOException {
+        int lineStart = nextLineStart;
+        int i = lineStart;
+
+        // Recherche de la fin de ligne, en remplissant le tampon si nécessaire.
+        while (true) {
+            while (i < limit && buffer[i] != '\n') i++;
+            if (i < limit || endOfStream) break;
+
+            if (lineStart > 0) {
+                System.arraycopy(buffer, lineStart, buffer, 0, limit - lineStart);
+                i -= lineStart;
+                limit -= lineStart;
+                lineStart = 0;
+            }
+            if (limit == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+
+            int read = inputStream.read(buffer, limit, buffer.length - limit);
+            if (read < 0) endOfStream = true;
+            else limit += read;
+        }
+
+        if (lineStart == limit) {
+            nextLineStart = limit;
+            fieldCount = 0;
+            return false;
+        }
+
+        nextLineStart = (i < limit) ? i + 1 : limit;
+        lineEnd = (i > lineStart && buffer[i - 1] == '\r') ? i - 1 : i;
+
+        // Repérage du début de chaque champ.
+        fieldCount = 0;
+        addFieldStart(lineStart);
+        for (int j = lineStart; j < lineEnd; j++) {
+            if (buffer[j] == SEPARATOR) addFieldStart(j + 1);
+        }
+        return true;
+    }
+
+    /**
+     * @return le nombre de champs de la ligne courante.
+     */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @param field index du champ (en commençant à 0)
+     * @return vrai ssi le champ donné de la ligne courante est vide (ou absent).
+     */
+    public boolean isEmpty(int field) {
+        return fieldStart(field) == fieldEnd(field);
+    }
+
+    /**
+     * @param field index du champ
+     * @param value valeur à comparer, en ASCII
+     * @return vrai ssi le champ donné de la ligne courante est égal à value, sans construire de chaîne.
+     */
+    public boolean fieldEquals(int field, String value) {
+        int start = fieldStart(field);
+        if (fieldEnd(field) - start != value.length()) return false;
+        for (int i = 0; i < value.length(); i++) {
+            if (buffer[start + i] != value.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param field index du champ
+     * @return le contenu du champ donné de la ligne courante, sous forme de nouvelle chaîne.
+     */
+    public String string(int field) {
+        int start = fieldStart(field);
+        return new String(buffer, start, fieldEnd(field) - start, US_ASCII);
+    }
+
+    /**
+     * Lit un entier décimal directement dans le tampon.
+     *
+     * @param field index du champ
+     * @return l'entier contenu dans le champ donné de la ligne courante.
+     * @throws NumberFormatException si le champ ne contient pas un entier
+     */
+    public int parseInt(int field) {
+        int start = fieldStart(field);
+        int end = fieldEnd(field);
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            i++;
+        }
+        if (i == end) throw new NumberFormatException(string(field));
+
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) throw new NumberFormatException(string(field));
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) throw new NumberFormatException(string(field));
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) throw new NumberFormatException(string(field));
+        return (int) value;
+    }
+
+    /**
+     * Lit un nombre décimal (éventuellement avec exposant) directement dans le tampon.
+     * Le résultat est exact lorsque le nombre a au plus 15 chiffres significatifs et une petite puissance de dix,
+     * ce qui est le cas des magnitudes et indices de couleur ; au-delà, il peut différer d'une unité
+     * de la dernière décimale binaire du résultat de Double.parseDouble.
+     * Les formes inhabituelles (NaN, Infinity, notation hexadécimale...) sont déléguées à Double.parseDouble.
+     *
+     * @param field index du champ
+     * @return le nombre contenu dans le champ donné de la ligne courante.
+     * @throws NumberFormatException si le champ ne contient pas un nombre
+     */
+    public double parseDouble(int field) {
+        int start = fieldStart(field);
+        int end = fieldEnd(field);
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+            negative = buffer[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean hasDigits = false;
+        boolean inFraction = false;
+
+        for (; i < end; i++) {
+            byte b = buffer[i];
+            if (b >= '0' && b <= '9') {
+                hasDigits = true;
+                if (significantDigits < MAX_SIGNIFICANT_DIGITS) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (mantissa != 0) significantDigits++;
+                    if (inFraction) exponent--;
+                } else if (!inFraction) {
+                    exponent++;
+                }
+            } else if (b == '.' && !inFraction) {
+                inFraction = true;
+            } else {
+                break;
+            }
+        }
+
+        if (i < end && hasDigits && (buffer[i] == 'e' || buffer[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (buffer[i] == '-' || buffer[i] == '+')) {
+                negativeExponent = buffer[i] == '-';
+                i++;
+            }
+            int explicitExponent = 0;
+            int exponentStart = i;
+            for (; i < end && buffer[i] >= '0' && buffer[i] <= '9' && explicitExponent < 10_000; i++)
+                explicitExponent = explicitExponent * 10 + (buffer[i] - '0');
+            if (i == exponentStart) return Double.parseDouble(string(field));
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (!hasDigits || i != end) return Double.parseDouble(string(field));
+
+        double value;
+        if (mantissa == 0) value = 0;
+        else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) value = mantissa * POWERS_OF_TEN[exponent];
+        else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) value = mantissa / POWERS_OF_TEN[-exponent];
+        else return Double.parseDouble(string(field));
+
+        return negative ? -value : value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+    }
+
+    // Méthodes privées donnant les bornes d'un champ, un champ absent étant vide.
+    private int fieldStart(int field) {
+        return (field < fieldCount) ? fieldStarts[field] : lineEnd;
+    }
+
+    private int fieldEnd(int field) {
+        return (field + 1 < fieldCount) ? fieldStarts[field + 1] - 1 : lineEnd;
+    }
+
+    private void addFieldStart(int start) {
+        if (fieldCount == fieldStarts.length) fieldStarts = Arrays.copyOf(fieldStarts, fieldStarts.length * 2);
+        fieldStarts[fieldCount++] = start;
+    }
+}
@@ -1,13 +1,10 @@
 package ch.epfl.rigel.astronomy;
 
+import ch.epfl.rigel.CsvTokenizer;
 import ch.epfl.rigel.math.Angle;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-
-import static java.nio.charset.StandardCharsets.US_ASCII;
 
 /**
  * Enum représentant un chargeur de catalogue contenant les satellites artificiels.
@@ -20,48 +17,22 @@ public enum ArtificialSatelliteDatabaseLoader implements ArtificialSatelliteCata
 
     @Override
     public void load(InputStream inputStream, ArtificialSatelliteCatalogue.Builder builder) throws IOException {
-        try (BufferedReader in = new BufferedReader(new InputStreamReader(inputStream, US_ASCII))) {
-            String line;
-            String[] splittedLine;
-            String country;
-            double lon;
-
-            in.readLine();
+        try (CsvTokenizer in = new CsvTokenizer(inputStream)) {
 
+            in.nextLine();
 
-            while ((line = in.readLine()) != null) {
 
-                splittedLine = line.split(",");
+            while (in.nextLine()) {
 
+                // La classe d'orbite peut se trouver dans les colonnes 7 à 10 (selon le décalage de la ligne), la longitude étant deux colonnes plus loin.
+                for (int orbitClass = 7; orbitClass <= 10; orbitClass++) {
+                    if (in.fieldEquals(orbitClass, "GEO") && !in.isEmpty(orbitClass + 2)) {
 
-                if (splittedLine[7].equals("GEO") && !((splittedLine[9]).isEmpty())) {
-
-                    lon = Math.abs(Double.parseDouble(splittedLine[9]));
-                    country = splittedLine[1];
-                    builder.addSatellite(new ArtificialSatellite(country, Angle.ofDeg(lon)));
+                        double lon = Math.abs(in.parseDouble(orbitClass + 2));
+                        builder.addSatellite(new ArtificialSatellite(in.string(1), Angle.ofDeg(lon)));
+                    }
                 }
 
-                if (splittedLine[8].equals("GEO") && !((splittedLine[10]).isEmpty())) {
-
-                    lon = Math.abs(Double.parseDouble(splittedLine[10]));
-                    country = splittedLine[1];
-                    builder.addSatellite(new ArtificialSatellite(country, Angle.ofDeg(lon)));
-                }
-
-                if (splittedLine[9].equals("GEO") && !((splittedLine[11]).isEmpty())) {
-
-                    lon = Math.abs(Double.parseDouble(splittedLine[11]));
-                    country = splittedLine[1];
-                    builder.addSatellite(new ArtificialSatellite(country, Angle.ofDeg(lon)));
-                }
-                if (splittedLine[10].equals("GEO") && !((splittedLine[12]).isEmpty())) {
-
-                    lon = Math.abs(Double.parseDouble(splittedLine[12]));
-                    country = splittedLine[1];
-                    builder.addSatellite(new ArtificialSatellite(country, Angle.ofDeg(lon)));
-                }
-
-
             }
 
 
@@ -69,4 +40,3 @@ public enum ArtificialSatelliteDatabaseLoader implements ArtificialSatelliteCata
 
     }
 }
-
@@ -5,9 +5,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import static java.nio.charset.StandardCharsets.US_ASCII;
 
@@ -36,10 +34,8 @@ public enum AsterismLoader implements StarCatalogue.Loader {
 
             String line;
 
-            Map < Integer, Star > idStarMap = new HashMap <>();
-            for (Star star : builder.stars()) {
-                idStarMap.put(star.hipparcosId(), star);
-            }
+            List < Star > stars = builder.stars();
+            HipparcosIndex hipparcosIndex = builder.hipparcosIndex();
 
             while ((line = in.readLine()) != null) {
                 String[] splittedLine = line.split(",");
@@ -47,12 +43,13 @@ public enum AsterismLoader implements StarCatalogue.Loader {
                 List < Star > asterismStars = new ArrayList <>();
 
                 // Cette boucle for ajoute les étoiles déjà contenues dans le builder à la List définie au dessus si elles appartiennent à un asterisme
-                // Pour contrôler cette éventuelle appartenance, on regarde si l'Hipparcos ID provenant de l'input stream est une key de la map définie plus haut
+                // Pour contrôler cette éventuelle appartenance, on cherche l'Hipparcos ID provenant de l'input stream dans la table définie plus haut
                 // Cette List sert ensuite à la construction d'un astérisme (après la boucle)
 
                 for (String s : splittedLine) {
-                    if (idStarMap.containsKey(Integer.parseInt(s)))
-                        asterismStars.add(idStarMap.get(Integer.parseInt(s)));
+                    int index = hipparcosIndex.indexOf(Integer.parseInt(s));
+                    if (index >= 0)
+                        asterismStars.add(stars.get(index));
                 }
                 builder.addAsterism(new Asterism(asterismStars));
             }
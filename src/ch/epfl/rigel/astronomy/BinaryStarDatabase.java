@@ -0,0 +1,97 @@
+package ch.epfl.rigel.astronomy;
+
+import java.io.IOException;
+
+/**
+ * Décrit le format binaire en colonnes d'un instantané du catalogue d'étoiles.
+ * Le fichier commence par un en-tête de quatre entiers (signature, version, nombre d'étoiles, taille du réservoir de noms),
+ * suivi des colonnes dans cet ordre : ascensions droites et déclinaisons (double), numéros Hipparcos (int),
+ * magnitudes et indices de couleur (float), décalages des noms (int, un de plus que le nombre d'étoiles)
+ * et enfin le réservoir de noms encodés en UTF-8.
+ * Les colonnes de double étant placées en premier, chaque colonne est alignée sur la taille de ses éléments.
+ */
+
+final class BinaryStarDatabase {
+
+    /**
+     * Signature ("RGLS") et version du format.
+     */
+    static final int MAGIC = 0x52474C53;
+    static final int VERSION = 1;
+
+    /**
+     * Taille de l'en-tête en octets.
+     */
+    static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+    private BinaryStarDatabase() {
+    }
+
+    /**
+     * @param count nombre d'étoiles
+     * @return la position (en octets) de la colonne des ascensions droites.
+     */
+    static int raOffset(int count) {
+        return HEADER_SIZE;
+    }
+
+    /**
+     * @param count nombre d'étoiles
+     * @return la position (en octets) de la colonne des déclinaisons.
+     */
+    static int decOffset(int count) {
+        return raOffset(count) + count * Double.BYTES;
+    }
+
+    /**
+     * @param count nombre d'étoiles
+     * @return la position (en octets) de la colonne des numéros Hipparcos.
+     */
+    static int hipOffset(int count) {
+        return decOffset(count) + count * Double.BYTES;
+    }
+
+    /**
+     * @param count nombre d'étoiles
+     * @return la position (en octets) de la colonne des magnitudes.
+     */
+    static int magnitudeOffset(int count) {
+        return hipOffset(count) + count * Integer.BYTES;
+    }
+
+    /**
+     * @param count nombre d'étoiles
+     * @return la position (en octets) de la colonne des indices de couleur.
+     */
+    static int colorIndexOffset(int count) {
+        return magnitudeOffset(count) + count * Float.BYTES;
+    }
+
+    /**
+     * @param count nombre d'étoiles
+     * @return la position (en octets) de la colonne des décalages des noms.
+     */
+    static int nameOffsetsOffset(int count) {
+        return colorIndexOffset(count) + count * Float.BYTES;
+    }
+
+    /**
+     * @param count nombre d'étoiles
+     * @return la position (en octets) du réservoir de noms.
+     */
+    static int namePoolOffset(int count) {
+        return nameOffsetsOffset(count) + (count + 1) * Integer.BYTES;
+    }
+
+    /**
+     * Vérifie la signature et la version lues dans l'en-tête.
+     *
+     * @param magic   signature lue
+     * @param version version lue
+     * @throws IOException si le flot ne contient pas un instantané dans la version attendue.
+     */
+    static void checkHeader(int magic, int version) throws IOException {
+        if (magic != MAGIC || version != VERSION)
+            throw new IOException("Format d'instantané d'étoiles inconnu");
+    }
+}
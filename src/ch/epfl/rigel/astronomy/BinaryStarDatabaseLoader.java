@@ -0,0 +1,66 @@
+package ch.epfl.rigel.astronomy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Type énuméré public et immuable représentant un chargeur d'instantané binaire du catalogue d'étoiles
+ * (voir BinaryStarDatabaseWriter pour sa création à partir des données HYG).
+ * Contrairement au chargeur HYG, les colonnes sont lues d'un bloc dans des tableaux de types primitifs,
+ * sans découpage ni analyse de lignes, puis passées telles quelles au bâtisseur : aucune étoile n'est construite au chargement,
+ * et les noms ne sont décodés qu'à la construction de leur étoile.
+ */
+
+public enum BinaryStarDatabaseLoader implements StarCatalogue.Loader {
+
+    INSTANCE;
+
+    /**
+     * Redéfintion de la méthode abstraite load de l'interface StarCatalogue.Loader.
+     *
+     * @param inputStream Source de données (ici un instantané binaire des étoiles)
+     * @param builder
+     * @throws IOException si le flot ne contient pas un instantané valide
+     * @throws IllegalArgumentException si l'une des valeurs de l'instantané est invalide pour une étoile
+     */
+
+    @Override
+    public void load(InputStream inputStream, StarCatalogue.Builder builder) throws IOException {
+        ByteBuffer buffer;
+        try (InputStream in = inputStream) {
+            buffer = ByteBuffer.wrap(in.readAllBytes());
+        }
+
+        BinaryStarDatabase.checkHeader(buffer.getInt(), buffer.getInt());
+        int count = buffer.getInt();
+        int poolLength = buffer.getInt();
+
+        // Lecture en bloc de chaque colonne.
+        double[] ra = new double[count];
+        double[] dec = new double[count];
+        int[] hipparcosIds = new int[count];
+        float[] magnitudes = new float[count];
+        float[] colorIndices = new float[count];
+        int[] nameOffsets = new int[count + 1];
+
+        buffer.position(BinaryStarDatabase.raOffset(count));
+        buffer.asDoubleBuffer().get(ra);
+        buffer.position(BinaryStarDatabase.decOffset(count));
+        buffer.asDoubleBuffer().get(dec);
+        buffer.position(BinaryStarDatabase.hipOffset(count));
+        buffer.asIntBuffer().get(hipparcosIds);
+        buffer.position(BinaryStarDatabase.magnitudeOffset(count));
+        buffer.asFloatBuffer().get(magnitudes);
+        buffer.position(BinaryStarDatabase.colorIndexOffset(count));
+        buffer.asFloatBuffer().get(colorIndices);
+        buffer.position(BinaryStarDatabase.nameOffsetsOffset(count));
+        buffer.asIntBuffer().get(nameOffsets);
+
+        byte[] pool = buffer.array();
+        int poolStart = BinaryStarDatabase.namePoolOffset(count);
+        if (poolStart + poolLength > pool.length) throw new IOException("Instantané d'étoiles tronqué");
+
+        builder.addStars(new ColumnStarData(hipparcosIds, ra, dec, magnitudes, colorIndices, pool, poolStart, nameOffsets));
+    }
+}
@@ -0,0 +1,80 @@
+package ch.epfl.rigel.astronomy;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Classe non instanciable permettant d'écrire un instantané binaire du catalogue d'étoiles,
+ * relu ensuite par BinaryStarDatabaseLoader.
+ * Sa méthode main convertit une fois pour toutes le fichier HYG au format CSV :
+ * java ch.epfl.rigel.astronomy.BinaryStarDatabaseWriter hygdata_v3.csv hygdata_v3.bin
+ */
+
+public final class BinaryStarDatabaseWriter {
+
+    private BinaryStarDatabaseWriter() {
+    }
+
+    /**
+     * Écrit l'instantané binaire des étoiles données dans le flot de sortie.
+     *
+     * @param stars        les étoiles, dans l'ordre où elles seront rechargées
+     * @param outputStream flot de sortie (il n'est pas fermé)
+     * @throws IOException en cas d'erreur d'écriture
+     */
+
+    public static void write(List < Star > stars, OutputStream outputStream) throws IOException {
+        int count = stars.size();
+
+        // Construction du réservoir de noms et de leurs décalages.
+        ByteArrayOutputStream pool = new ByteArrayOutputStream();
+        int[] nameOffsets = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            byte[] name = stars.get(i).name().getBytes(UTF_8);
+            pool.write(name, 0, name.length);
+            nameOffsets[i + 1] = pool.size();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryStarDatabase.namePoolOffset(count) + pool.size());
+        buffer.putInt(BinaryStarDatabase.MAGIC)
+                .putInt(BinaryStarDatabase.VERSION)
+                .putInt(count)
+                .putInt(pool.size());
+
+        for (Star star : stars) buffer.putDouble(star.equatorialPos().ra());
+        for (Star star : stars) buffer.putDouble(star.equatorialPos().dec());
+        for (Star star : stars) buffer.putInt(star.hipparcosId());
+        for (Star star : stars) buffer.putFloat((float) star.magnitude());
+        for (Star star : stars) buffer.putFloat(star.colorIndex());
+        for (int offset : nameOffsets) buffer.putInt(offset);
+        buffer.put(pool.toByteArray());
+
+        outputStream.write(buffer.array());
+    }
+
+    /**
+     * Convertit un fichier HYG au format CSV en instantané binaire.
+     *
+     * @param args chemin du fichier HYG puis chemin de l'instantané à écrire
+     * @throws IOException en cas d'erreur de lecture ou d'écriture
+     */
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage : BinaryStarDatabaseWriter <hygdata_v3.csv> <hygdata_v3.bin>");
+            System.exit(1);
+        }
+
+        StarCatalogue.Builder builder = new StarCatalogue.Builder();
+        try (InputStream hygStream = new FileInputStream(args[0])) {
+            builder.loadFrom(hygStream, HygDatabaseLoader.INSTANCE);
+        }
+
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(args[1]))) {
+            write(builder.stars(), out);
+        }
+    }
+}
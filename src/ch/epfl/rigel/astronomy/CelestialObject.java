@@ -87,7 +87,17 @@ public class CelestialObject {
 
 
     public double magnitudeTransformation(double magnitude, StereographicProjection projection) {
+        return diameterForMagnitude(magnitude, projection);
+    }
 
+    /**
+     * Version statique de magnitudeTransformation, utilisable sur une colonne de magnitudes sans objet céleste.
+     *
+     * @param magnitude  magnitude de l'objet célèste
+     * @param projection projection stéréographique
+     * @return le diamètre de le plan de l'objet à dessiner.
+     */
+    public static double diameterForMagnitude(double magnitude, StereographicProjection projection) {
 
         double clippedMagnitude = MAGNITUDE_TO_BE_CLIPPED.clip(magnitude);
 
@@ -1,7 +1,10 @@
 package ch.epfl.rigel.astronomy;
 
+import ch.epfl.rigel.Preconditions;
 import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
 
+import java.util.stream.IntStream;
+
 /**
  * Représente un modèle d'objet céleste, c-à-d une manière de calculer les caractéristiques de cet objet à un instant donné.
  *
@@ -11,10 +14,60 @@ import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
  */
 public interface CelestialObjectModel< O > {
 
+    // Nombre d'instants calculés à la suite par une même tâche de atAll.
+    int SERIES_CHUNK_SIZE = 4096;
+
     /**
      * @param daysSinceJ2010                 correspondant au nombre de jours en entre le moment pour lequel on souhaite calculer le modèle et l'époque J2010
      * @param eclipticToEquatorialConversion correspondant à une conversion de coordonées
      * @return l'objet modélisé par le modèle pour le nombre (éventuellement négatif) de jours après l'époque J2010 donné, en utilisant la conversion donnée pour obtenir ses coordonnées équatoriales à partir de ses coordonnées écliptiques.
      */
     O at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion);
+
+    /**
+     * Écrit, à l'index donné de la série, les caractéristiques de l'objet modélisé pour le nombre de jours après l'époque J2010
+     * donné, sans créer d'objet.
+     *
+     * @param daysSinceJ2010                 nombre (éventuellement négatif) de jours après l'époque J2010
+     * @param eclipticToEquatorialConversion conversion des coordonnées écliptiques en coordonnées équatoriales à cet instant
+     * @param series                         série dans laquelle écrire
+     * @param index                          index de l'instant dans la série
+     */
+    void writeAt(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion, EphemerisSeries series, int index);
+
+    /**
+     * Calcule, en parallèle sur les instants, les caractéristiques de l'objet modélisé pour chacun des instants donnés.
+     * Une conversion de coordonnées n'est créée que lorsque l'obliquité de l'écliptique a changé (voir
+     * EclipticToEquatorialConversion.at), et aucun objet céleste n'est créé.
+     *
+     * @param daysSinceJ2010 nombres (éventuellement négatifs) de jours après l'époque J2010 des instants
+     * @return la série des caractéristiques de l'objet, dans l'ordre des instants.
+     */
+    default EphemerisSeries atAll(double[] daysSinceJ2010) {
+        EphemerisSeries series = new EphemerisSeries(daysSinceJ2010.length);
+        atAll(daysSinceJ2010, series);
+        return series;
+    }
+
+    /**
+     * Calcule, en parallèle sur les instants, les caractéristiques de l'objet modélisé pour chacun des instants donnés,
+     * et les écrit dans la série donnée (voir atAll(double[])).
+     *
+     * @param daysSinceJ2010 nombres (éventuellement négatifs) de jours après l'époque J2010 des instants
+     * @param series         série dans laquelle écrire
+     * @throws IllegalArgumentException si la série n'a pas autant d'éléments que d'instants
+     */
+    default void atAll(double[] daysSinceJ2010, EphemerisSeries series) {
+        Preconditions.checkArgument(series.size() == daysSinceJ2010.length);
+        int chunks = (daysSinceJ2010.length + SERIES_CHUNK_SIZE - 1) / SERIES_CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = chunk * SERIES_CHUNK_SIZE;
+            int to = Math.min(from + SERIES_CHUNK_SIZE, daysSinceJ2010.length);
+            EclipticToEquatorialConversion conversion = EclipticToEquatorialConversion.ofDaysSinceJ2010(daysSinceJ2010[from]);
+            for (int i = from; i < to; i++) {
+                conversion = conversion.at(daysSinceJ2010[i]);
+                writeAt(daysSinceJ2010[i], conversion, series, i);
+            }
+        });
+    }
 }
@@ -0,0 +1,276 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.Preconditions;
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.coordinates.EquatorialToHorizontalConversion;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import static ch.epfl.rigel.math.Angle.TAU;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Données d'étoiles en mémoire, rangées par colonnes dans des tableaux primitifs remplis une seule fois
+ * à la construction du catalogue, afin que les boucles de projection et de dessin parcourent des tableaux contigus.
+ * Construites à partir d'objets Star, elles conservent ces étoiles et les rendent telles quelles par star ; construites
+ * directement à partir de colonnes (voir BinaryStarDatabaseLoader), elles ne construisent chaque étoile, nom compris, qu'à
+ * la première demande.
+ */
+
+final class ColumnStarData implements StarData {
+
+    private final List < Star > stars;
+    private final int[] hipparcosIds;
+    private final double[] ra;
+    private final double[] dec;
+    private final float[] magnitudes;
+    private final float[] colorIndices;
+    private final int[] colorTemperatures;
+    private final int[] colorBuckets;
+
+    // Réserve des noms encodés en UTF-8 : le nom de l'étoile i occupe les octets d'index poolStart + nameOffsets[i]
+    // (compris) à poolStart + nameOffsets[i + 1] (exclu). Nulle si les étoiles ont été données à la construction.
+    private final byte[] namePool;
+    private final int poolStart;
+    private final int[] nameOffsets;
+
+    /**
+     * Vecteurs unitaires équatoriaux (cos(dec)cos(ra), cos(dec)sin(ra), sin(dec)) des étoiles, calculés une fois pour toutes
+     * afin que chaque projection n'ait plus qu'à leur appliquer une rotation (voir StereographicProjection.projectAll).
+     */
+    private final double[] unitX;
+    private final double[] unitY;
+    private final double[] unitZ;
+
+    /**
+     * Vues en lecture seule sur les tableaux, dupliquées à chaque demande.
+     */
+    private final DoubleBuffer raView;
+    private final DoubleBuffer decView;
+    private final FloatBuffer magnitudeView;
+    private final IntBuffer colorTemperatureView;
+    private final IntBuffer colorBucketView;
+    private final IntBuffer hipparcosIdView;
+
+    /**
+     * Remplit les colonnes à partir des étoiles données.
+     *
+     * @param stars liste (non modifiable) des étoiles
+     */
+    ColumnStarData(List < Star > stars) {
+        this(stars, stars.stream().mapToInt(Star::hipparcosId).toArray(),
+                stars.stream().mapToDouble(s -> s.equatorialPos().ra()).toArray(),
+                stars.stream().mapToDouble(s -> s.equatorialPos().dec()).toArray(),
+                floatColumn(stars, true), floatColumn(stars, false), null, 0, null);
+    }
+
+    /**
+     * Construit les données à partir de colonnes déjà décodées, qui sont reprises telles quelles (sans copie) ; les
+     * étoiles ne sont construites qu'à la demande, leur nom étant alors décodé de la réserve des noms.
+     *
+     * @param hipparcosIds numéros Hipparcos
+     * @param ra           ascensions droites (en radian)
+     * @param dec          déclinaisons (en radian)
+     * @param magnitudes   magnitudes
+     * @param colorIndices indices de couleur B-V
+     * @param namePool     réserve des noms, encodés en UTF-8
+     * @param poolStart    index du premier octet de la réserve dans namePool
+     * @param nameOffsets  positions (relatives à poolStart) des noms dans la réserve : le nom de l'étoile i s'étend de
+     *                     nameOffsets[i] (compris) à nameOffsets[i + 1] (exclu)
+     * @throws IllegalArgumentException si les colonnes n'ont pas toutes la même longueur, si les positions des noms sortent
+     *                                  de la réserve, ou si l'une des valeurs est invalide pour une étoile
+     */
+    ColumnStarData(int[] hipparcosIds, double[] ra, double[] dec, float[] magnitudes, float[] colorIndices,
+                   byte[] namePool, int poolStart, int[] nameOffsets) {
+        this(null, hipparcosIds, ra, dec, magnitudes, colorIndices, Objects.requireNonNull(namePool), poolStart, nameOffsets);
+        int count = hipparcosIds.length;
+        Preconditions.checkArgument(ra.length == count && dec.length == count && magnitudes.length == count
+                && colorIndices.length == count && nameOffsets.length == count + 1);
+        for (int i = 0; i < count; i++) {
+            // Mêmes restrictions que celles du constructeur de Star et de EquatorialCoordinates.of.
+            Preconditions.checkArgument(hipparcosIds[i] >= 0
+                    && ra[i] >= 0 && ra[i] < TAU && Math.abs(dec[i]) <= TAU / 4
+                    && colorIndices[i] >= -0.5 && colorIndices[i] <= 5.5
+                    && nameOffsets[i] >= 0 && nameOffsets[i] <= nameOffsets[i + 1]);
+        }
+        Preconditions.checkArgument(poolStart >= 0 && poolStart + nameOffsets[count] <= namePool.length);
+    }
+
+    // Constructeur privé commun : calcule les colonnes dérivées (températures, paliers et vecteurs unitaires).
+    private ColumnStarData(List < Star > stars, int[] hipparcosIds, double[] ra, double[] dec, float[] magnitudes,
+                           float[] colorIndices, byte[] namePool, int poolStart, int[] nameOffsets) {
+        this.stars = (stars != null) ? stars : new LazyStarList(hipparcosIds.length);
+        this.hipparcosIds = hipparcosIds;
+        this.ra = ra;
+        this.dec = dec;
+        this.magnitudes = magnitudes;
+        this.colorIndices = colorIndices;
+        this.namePool = namePool;
+        this.poolStart = poolStart;
+        this.nameOffsets = nameOffsets;
+
+        int count = hipparcosIds.length;
+        colorTemperatures = new int[count];
+        colorBuckets = new int[count];
+        unitX = new double[count];
+        unitY = new double[count];
+        unitZ = new double[count];
+
+        for (int i = 0; i < count; i++) {
+            colorTemperatures[i] = Star.colorTemperature(colorIndices[i]);
+            colorBuckets[i] = Star.colorBucket(colorTemperatures[i]);
+
+            double cosDec = Math.cos(dec[i]);
+            unitX[i] = cosDec * Math.cos(ra[i]);
+            unitY[i] = cosDec * Math.sin(ra[i]);
+            unitZ[i] = Math.sin(dec[i]);
+        }
+
+        raView = DoubleBuffer.wrap(ra).asReadOnlyBuffer();
+        decView = DoubleBuffer.wrap(dec).asReadOnlyBuffer();
+        magnitudeView = FloatBuffer.wrap(magnitudes).asReadOnlyBuffer();
+        colorTemperatureView = IntBuffer.wrap(colorTemperatures).asReadOnlyBuffer();
+        colorBucketView = IntBuffer.wrap(colorBuckets).asReadOnlyBuffer();
+        hipparcosIdView = IntBuffer.wrap(hipparcosIds).asReadOnlyBuffer();
+    }
+
+    /**
+     * @return la liste (non modifiable) des étoiles, d'origine ou construites à la demande.
+     */
+    List < Star > stars() {
+        return stars;
+    }
+
+    @Override
+    public int size() {
+        return ra.length;
+    }
+
+    @Override
+    public int hipparcosId(int index) {
+        return hipparcosIds[index];
+    }
+
+    @Override
+    public double ra(int index) {
+        return ra[index];
+    }
+
+    @Override
+    public double dec(int index) {
+        return dec[index];
+    }
+
+    @Override
+    public float magnitude(int index) {
+        return magnitudes[index];
+    }
+
+    @Override
+    public float colorIndex(int index) {
+        return colorIndices[index];
+    }
+
+    @Override
+    public int colorTemperature(int index) {
+        return colorTemperatures[index];
+    }
+
+    @Override
+    public int colorBucket(int index) {
+        return colorBuckets[index];
+    }
+
+    @Override
+    public Star star(int index) {
+        return stars.get(index);
+    }
+
+    @Override
+    public void projectPositions(EquatorialToHorizontalConversion conversion, StereographicProjection projection, double[] outXY) {
+        projection.projectAll(conversion, unitX, unitY, unitZ, outXY);
+    }
+
+    @Override
+    public void projectPositions(EquatorialToHorizontalConversion conversion, StereographicProjection projection, int[] indices, double[] outXY) {
+        projection.projectAll(conversion, unitX, unitY, unitZ, indices, outXY);
+    }
+
+    @Override
+    public DoubleBuffer raColumn() {
+        return raView.duplicate();
+    }
+
+    @Override
+    public DoubleBuffer decColumn() {
+        return decView.duplicate();
+    }
+
+    @Override
+    public FloatBuffer magnitudeColumn() {
+        return magnitudeView.duplicate();
+    }
+
+    @Override
+    public IntBuffer colorTemperatureColumn() {
+        return colorTemperatureView.duplicate();
+    }
+
+    @Override
+    public IntBuffer colorBucketColumn() {
+        return colorBucketView.duplicate();
+    }
+
+    @Override
+    public IntBuffer hipparcosIdColumn() {
+        return hipparcosIdView.duplicate();
+    }
+
+    // Colonne des magnitudes (si magnitude est vrai) ou des indices de couleur des étoiles données.
+    private static float[] floatColumn(List < Star > stars, boolean magnitude) {
+        float[] column = new float[stars.size()];
+        for (int i = 0; i < column.length; i++) {
+            Star star = stars.get(i);
+            column[i] = magnitude ? (float) star.magnitude() : star.colorIndex();
+        }
+        return column;
+    }
+
+    /**
+     * Liste non modifiable des étoiles construites à partir des colonnes, chacune à sa première demande.
+     * Les étoiles construites sont conservées, de sorte qu'une même étoile est ensuite toujours rendue ; deux fils peuvent
+     * construire la même étoile en même temps, mais ils construisent alors des étoiles identiques.
+     */
+    private final class LazyStarList extends AbstractList < Star > implements RandomAccess {
+
+        private final Star[] built;
+
+        private LazyStarList(int size) {
+            built = new Star[size];
+        }
+
+        @Override
+        public Star get(int index) {
+            Star star = built[index];
+            if (star == null) {
+                int start = poolStart + nameOffsets[index];
+                String name = new String(namePool, start, poolStart + nameOffsets[index + 1] - start, UTF_8);
+                star = new Star(hipparcosIds[index], name, EquatorialCoordinates.of(ra[index], dec[index]), magnitudes[index], colorIndices[index]);
+                built[index] = star;
+            }
+            return star;
+        }
+
+        @Override
+        public int size() {
+            return built.length;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.Preconditions;
+import ch.epfl.rigel.coordinates.EclipticCoordinates;
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.math.Angle;
+import ch.epfl.rigel.math.ChebyshevSeries;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache d'éphémérides du Soleil, de la Lune et des planètes : chaque objet est approché, sur des segments de temps de
+ * durée fixe, par des séries de Tchebychev de ses coordonnées équatoriales, de sa taille angulaire et de sa magnitude
+ * (de sa phase pour la Lune, de sa longitude écliptique pour le Soleil), ajustées sur les modèles analytiques.
+ * Une fois le segment d'un objet calculé, l'objet s'obtient pour tout instant du segment par l'évaluation de quelques
+ * polynômes, ce qui rend quasiment gratuites les animations accélérées.
+ * Un segment n'est calculé qu'à la deuxième demande d'un instant qu'il contient, la première étant satisfaite par le
+ * modèle analytique : une animation dont chaque pas dépasse la durée d'un segment (un jour par image, par exemple)
+ * n'ajuste ainsi pas de séries qui ne serviraient qu'une fois.
+ * Les segments les moins récemment utilisés sont évincés lorsque le cache est plein.
+ * Les écarts entre les valeurs données par le cache et celles des modèles restent inférieurs à POSITION_TOLERANCE et
+ * MAGNITUDE_TOLERANCE : l'erreur estimée de chaque série ajustée (voir ChebyshevSeries.errorBound) est comparée à ces
+ * tolérances, et un segment dont une série les dépasse est abandonné au profit du modèle analytique.
+ */
+
+public final class EphemerisCache {
+
+    /**
+     * Écart maximal entre les positions (ascension droite et déclinaison) données par le cache et celles des modèles
+     * analytiques : un dixième de seconde d'arc, les écarts mesurés étant de l'ordre du centième.
+     */
+    public static final double POSITION_TOLERANCE = Angle.ofArcsec(0.1);
+
+    /**
+     * Écart maximal entre les magnitudes des planètes données par le cache et celles des modèles, pour les magnitudes
+     * inférieures à 6 (au-delà, la planète, proche de sa conjonction inférieure, n'est de toute façon plus visible).
+     */
+    public static final double MAGNITUDE_TOLERANCE = 1e-3;
+
+    // Degré des séries, et durée (en jours) des segments : la Lune se déplace d'environ 13° par jour ; l'éclat de Mercure et
+    // de Vénus varie rapidement près de leur conjonction inférieure ; le Soleil et les autres planètes se déplacent de
+    // moins de 2° par jour.
+    private static final int DEGREE = 10;
+    private static final double MOON_SEGMENT_DAYS = 1;
+    private static final double INFERIOR_PLANET_SEGMENT_DAYS = 4;
+    private static final double SEGMENT_DAYS = 16;
+
+    // Segment marquant un segment demandé une seule fois, et donc pas encore calculé.
+    private static final Segment UNFITTED = new Segment(null, null);
+    // Segment marquant un segment dont les séries dépassent les tolérances, pour lequel le modèle analytique est utilisé.
+    private static final Segment ANALYTIC = new Segment(null, null);
+
+    // Éclat (voir brightnessOfMagnitude) d'une magnitude de 6, au-delà de laquelle MAGNITUDE_TOLERANCE ne s'applique pas.
+    private static final double FAINTEST_BRIGHTNESS = Math.pow(10, -0.8 * 6);
+
+    private static final int DEFAULT_CAPACITY = 256;
+
+    // Index des objets : le Soleil, la Lune, puis les planètes dans l'ordre de PlanetModel.ALL (la Terre comprise, bien
+    // qu'elle ne soit jamais calculée).
+    private static final int SUN = 0;
+    private static final int MOON = 1;
+    private static final int BODY_COUNT = 2 + PlanetModel.ALL.size();
+
+    // Index des séries d'un segment.
+    private static final int RA = 0;
+    private static final int DEC = 1;
+    private static final int ANGULAR_SIZE = 2;
+    private static final int EXTRA = 3;
+
+    private final Map < Long, Segment > segments;
+    private long fittedSegments;
+
+    /**
+     * Construit un cache d'éphémérides pouvant contenir 256 segments.
+     */
+    public EphemerisCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construit un cache d'éphémérides pouvant contenir le nombre de segments donné.
+     *
+     * @param capacity nombre maximal de segments
+     * @throws IllegalArgumentException si la capacité n'est pas strictement positive
+     */
+    public EphemerisCache(int capacity) {
+        Preconditions.checkArgument(capacity > 0);
+        segments = new LinkedHashMap <>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry < Long, Segment > eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @param daysSinceJ2010 nombre (éventuellement négatif) de jours après l'époque J2010
+     * @return le Soleil à cet instant.
+     */
+    public synchronized Sun sun(double daysSinceJ2010) {
+        Segment segment = segment(SUN, daysSinceJ2010);
+        if (segment == null) return SunModel.SUN.at(daysSinceJ2010, EclipticToEquatorialConversion.ofDaysSinceJ2010(daysSinceJ2010));
+        EclipticCoordinates eclipticPos = EclipticCoordinates.of(Angle.normalizePositive(segment.at(EXTRA, daysSinceJ2010)), 0);
+        return new Sun(eclipticPos, segment.equatorialPos(daysSinceJ2010), (float) segment.at(ANGULAR_SIZE, daysSinceJ2010),
+                (float) SunModel.meanAnomaly(daysSinceJ2010));
+    }
+
+    /**
+     * @param daysSinceJ2010 nombre (éventuellement négatif) de jours après l'époque J2010
+     * @return la Lune à cet instant.
+     */
+    public synchronized Moon moon(double daysSinceJ2010) {
+        Segment segment = segment(MOON, daysSinceJ2010);
+        if (segment == null) return MoonModel.MOON.at(daysSinceJ2010, EclipticToEquatorialConversion.ofDaysSinceJ2010(daysSinceJ2010));
+        double phase = Math.max(0, Math.min(1, segment.at(EXTRA, daysSinceJ2010)));
+        return new Moon(segment.equatorialPos(daysSinceJ2010), (float) segment.at(ANGULAR_SIZE, daysSinceJ2010), 0, (float) phase);
+    }
+
+    /**
+     * @param model          modèle d'une planète autre que la Terre
+     * @param daysSinceJ2010 nombre (éventuellement négatif) de jours après l'époque J2010
+     * @return la planète à cet instant.
+     * @throws IllegalArgumentException si le modèle est celui de la Terre
+     */
+    public synchronized Planet planet(PlanetModel model, double daysSinceJ2010) {
+        Preconditions.checkArgument(model != PlanetModel.EARTH);
+        Segment segment = segment(2 + model.ordinal(), daysSinceJ2010);
+        if (segment == null) return model.at(daysSinceJ2010, EclipticToEquatorialConversion.ofDaysSinceJ2010(daysSinceJ2010));
+        return new Planet(segment.name, segment.equatorialPos(daysSinceJ2010), (float) segment.at(ANGULAR_SIZE, daysSinceJ2010),
+                (float) magnitudeOfBrightness(segment.at(EXTRA, daysSinceJ2010)));
+    }
+
+    /**
+     * @param daysSinceJ2010 nombre (éventuellement négatif) de jours après l'époque J2010
+     * @return la liste immuable des planètes autres que la Terre à cet instant, dans l'ordre de PlanetModel.ALL.
+     */
+    public synchronized List < Planet > planets(double daysSinceJ2010) {
+        List < Planet > planets = new ArrayList <>(PlanetModel.ALL.size() - 1);
+        for (PlanetModel model : PlanetModel.ALL) {
+            if (model != PlanetModel.EARTH) planets.add(planet(model, daysSinceJ2010));
+        }
+        return List.copyOf(planets);
+    }
+
+    /**
+     * @return le nombre de segments actuellement dans le cache, y compris ceux qui n'ont été demandés qu'une fois.
+     */
+    public synchronized int size() {
+        return segments.size();
+    }
+
+    /**
+     * @return le nombre de segments calculés depuis la création du cache, y compris ceux qui en ont été évincés et ceux
+     * abandonnés au profit du modèle analytique.
+     */
+    synchronized long fittedSegments() {
+        return fittedSegments;
+    }
+
+    // Retourne le segment de l'objet d'index donné contenant l'instant donné, en le calculant s'il a déjà été demandé,
+    // ou null s'il est demandé pour la première fois ou si ses séries dépassent les tolérances.
+    private Segment segment(int body, double daysSinceJ2010) {
+        double duration = segmentDays(body);
+        long index = (long) Math.floor(daysSinceJ2010 / duration);
+        long key = index * BODY_COUNT + body;
+        Segment segment = segments.get(key);
+        if (segment == null) {
+            segments.put(key, UNFITTED);
+            return null;
+        }
+        if (segment == UNFITTED) {
+            segment = fit(body, index * duration, (index + 1) * duration);
+            fittedSegments++;
+            if (segment == null) segment = ANALYTIC;
+            segments.put(key, segment);
+        }
+        return (segment == ANALYTIC) ? null : segment;
+    }
+
+    private static double segmentDays(int body) {
+        if (body == MOON) return MOON_SEGMENT_DAYS;
+        if (body == 2 + PlanetModel.MERCURY.ordinal() || body == 2 + PlanetModel.VENUS.ordinal())
+            return INFERIOR_PLANET_SEGMENT_DAYS;
+        return SEGMENT_DAYS;
+    }
+
+    // Calcule les séries de l'objet d'index donné sur l'intervalle donné, en évaluant son modèle aux nœuds de Tchebychev,
+    // ou retourne null si l'erreur estimée de l'une d'elles dépasse sa tolérance.
+    private static Segment fit(int body, double start, double end) {
+        double[] nodes = ChebyshevSeries.nodes(start, end, DEGREE + 1);
+        double[][] samples = new double[EXTRA + 1][nodes.length];
+        String name = null;
+        for (int k = 0; k < nodes.length; k++) {
+            EclipticToEquatorialConversion conversion = EclipticToEquatorialConversion.ofDaysSinceJ2010(nodes[k]);
+            CelestialObject object;
+            if (body == SUN) {
+                Sun sun = SunModel.SUN.at(nodes[k], conversion);
+                samples[EXTRA][k] = sun.eclipticPos().lon();
+                object = sun;
+            } else if (body == MOON) {
+                Moon moon = MoonModel.MOON.at(nodes[k], conversion);
+                samples[EXTRA][k] = moon.phase();
+                object = moon;
+            } else {
+                object = PlanetModel.ALL.get(body - 2).at(nodes[k], conversion);
+                samples[EXTRA][k] = brightnessOfMagnitude(object.magnitude());
+            }
+            name = object.name();
+            samples[RA][k] = object.equatorialPos().ra();
+            samples[DEC][k] = object.equatorialPos().dec();
+            samples[ANGULAR_SIZE][k] = object.angularSize();
+        }
+
+        // Les angles, normalisés à [0, 2π[, sont rendus continus avant d'être approchés.
+        unwrap(samples[RA]);
+        if (body == SUN) unwrap(samples[EXTRA]);
+
+        ChebyshevSeries[] series = new ChebyshevSeries[samples.length];
+        for (int i = 0; i < samples.length; i++) series[i] = ChebyshevSeries.fit(start, end, samples[i]);
+
+        if (series[RA].errorBound() > POSITION_TOLERANCE || series[DEC].errorBound() > POSITION_TOLERANCE)
+            return null;
+        if (body == SUN && series[EXTRA].errorBound() > POSITION_TOLERANCE)
+            return null;
+        if (body != SUN && body != MOON && series[EXTRA].errorBound() > brightnessTolerance(samples[EXTRA]))
+            return null;
+        return new Segment(name, series);
+    }
+
+    // La magnitude d'une planète tend vers l'infini à sa conjonction inférieure, là où sa phase s'annule ; c'est donc
+    // son éclat 10^(-0.8 m), proportionnel à la phase divisé par le carré des distances, qui est approché.
+    private static double brightnessOfMagnitude(double magnitude) {
+        return Math.pow(10, -0.8 * magnitude);
+    }
+
+    // Écart d'éclat correspondant, au plus faible des éclats donnés (mais au moins FAINTEST_BRIGHTNESS), à un écart de
+    // magnitude de MAGNITUDE_TOLERANCE : la magnitude valant -1.25 log10(éclat), sa dérivée est -1.25 / (ln(10) éclat).
+    private static double brightnessTolerance(double[] brightnesses) {
+        double faintest = Double.POSITIVE_INFINITY;
+        for (double brightness : brightnesses) faintest = Math.min(faintest, brightness);
+        return Math.max(faintest, FAINTEST_BRIGHTNESS) * MAGNITUDE_TOLERANCE * Math.log(10) / 1.25;
+    }
+
+    private static double magnitudeOfBrightness(double brightness) {
+        return -1.25 * Math.log10(Math.max(brightness, Double.MIN_NORMAL));
+    }
+
+    private static void unwrap(double[] angles) {
+        for (int k = 1; k < angles.length; k++) {
+            double delta = angles[k] - angles[k - 1];
+            angles[k] -= Angle.TAU * Math.rint(delta / Angle.TAU);
+        }
+    }
+
+    /**
+     * Séries approchant un objet sur un segment de temps.
+     */
+    private static final class Segment {
+        private final String name;
+        private final ChebyshevSeries[] series;
+
+        private Segment(String name, ChebyshevSeries[] series) {
+            this.name = name;
+            this.series = series;
+        }
+
+        private double at(int index, double daysSinceJ2010) {
+            return series[index].at(daysSinceJ2010);
+        }
+
+        private EquatorialCoordinates equatorialPos(double daysSinceJ2010) {
+            return EquatorialCoordinates.of(Angle.normalizePositive(at(RA, daysSinceJ2010)), at(DEC, daysSinceJ2010));
+        }
+    }
+}
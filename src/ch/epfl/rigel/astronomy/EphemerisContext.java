@@ -0,0 +1,122 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Contexte de calcul des éphémérides pour un instant donné : les termes de l'orbite de la Terre et le Soleil y sont
+ * calculés une seule fois, puis réutilisés pour la Lune et chacune des planètes.
+ * Un contexte est immuable, et les modèles l'utilisent sans modifier d'état partagé ; plusieurs contextes peuvent donc
+ * être utilisés en parallèle (voir evaluateAll).
+ */
+
+public final class EphemerisContext {
+
+    private final double daysSinceJ2010;
+    private final EclipticToEquatorialConversion eclipticToEquatorialConversion;
+
+    // Rayon et longitude de la Terre dans le plan de son orbite.
+    private final double earthOrbitRadius;
+    private final double earthOrbitLongitude;
+
+    private final Sun sun;
+
+    /**
+     * Construit le contexte de l'instant donné.
+     *
+     * @param when l'instant
+     */
+    public EphemerisContext(ZonedDateTime when) {
+        this(Epoch.J2010.daysUntil(when), new EclipticToEquatorialConversion(when));
+    }
+
+    /**
+     * Construit le contexte de l'instant donné.
+     *
+     * @param daysSinceJ2010                 nombre (éventuellement négatif) de jours après l'époque J2010
+     * @param eclipticToEquatorialConversion conversion des coordonnées écliptiques en coordonnées équatoriales à cet instant
+     */
+    public EphemerisContext(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
+        this.daysSinceJ2010 = daysSinceJ2010;
+        this.eclipticToEquatorialConversion = eclipticToEquatorialConversion;
+        double earthTrueAnomaly = PlanetModel.EARTH.trueAnomaly(daysSinceJ2010);
+        earthOrbitRadius = PlanetModel.EARTH.orbitRadius(earthTrueAnomaly);
+        earthOrbitLongitude = PlanetModel.EARTH.orbitLongitude(earthTrueAnomaly);
+        sun = SunModel.SUN.at(daysSinceJ2010, eclipticToEquatorialConversion);
+    }
+
+    /**
+     * @return le nombre de jours après l'époque J2010.
+     */
+    public double daysSinceJ2010() {
+        return daysSinceJ2010;
+    }
+
+    /**
+     * @return la conversion des coordonnées écliptiques en coordonnées équatoriales.
+     */
+    public EclipticToEquatorialConversion eclipticToEquatorialConversion() {
+        return eclipticToEquatorialConversion;
+    }
+
+    /**
+     * @return le Soleil, calculé une seule fois.
+     */
+    public Sun sun() {
+        return sun;
+    }
+
+    /**
+     * @return la Lune, calculée à partir du Soleil du contexte.
+     */
+    public Moon moon() {
+        return MoonModel.MOON.at(this);
+    }
+
+    /**
+     * @param model le modèle d'une planète
+     * @return la planète, calculée à partir des termes de l'orbite de la Terre du contexte.
+     */
+    public Planet planet(PlanetModel model) {
+        return model.at(this);
+    }
+
+    /**
+     * @return la liste immuable des planètes autres que la Terre, dans l'ordre de PlanetModel.ALL.
+     */
+    public List < Planet > planets() {
+        List < Planet > planets = new ArrayList <>(PlanetModel.ALL.size() - 1);
+        for (PlanetModel model : PlanetModel.ALL) {
+            if (model != PlanetModel.EARTH) planets.add(model.at(this));
+        }
+        return List.copyOf(planets);
+    }
+
+    /**
+     * Calcule, en parallèle sur les instants, le résultat de la fonction donnée pour chacun des instants donnés.
+     * Par exemple, evaluateAll(instants, EphemerisContext::moon) retourne les Lunes de tous les instants.
+     *
+     * @param instants les instants
+     * @param bodies   fonction calculant les objets voulus à partir du contexte d'un instant
+     * @param <O>      type des objets calculés
+     * @return la liste des résultats, dans l'ordre des instants.
+     */
+    public static < O > List < O > evaluateAll(List < ZonedDateTime > instants, Function < EphemerisContext, O > bodies) {
+        return instants.parallelStream()
+                .map(when -> bodies.apply(new EphemerisContext(when)))
+                .collect(Collectors.toList());
+    }
+
+    double earthOrbitRadius() {
+        return earthOrbitRadius;
+    }
+
+    double earthOrbitLongitude() {
+        return earthOrbitLongitude;
+    }
+}
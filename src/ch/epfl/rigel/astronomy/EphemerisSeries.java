@@ -0,0 +1,65 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.Preconditions;
+
+/**
+ * Série temporelle des caractéristiques d'un objet céleste, stockées dans des tableaux de primitives : l'élément d'index i
+ * de chaque tableau correspond au i-ème instant de la série (voir CelestialObjectModel.atAll).
+ */
+
+public final class EphemerisSeries {
+
+    final double[] rightAscensions;
+    final double[] declinations;
+    final double[] angularSizes;
+    final double[] magnitudes;
+
+    /**
+     * Construit une série de la taille donnée, dont tous les éléments valent 0.
+     *
+     * @param size nombre d'instants de la série
+     * @throws IllegalArgumentException si la taille est négative
+     */
+    public EphemerisSeries(int size) {
+        Preconditions.checkArgument(size >= 0);
+        rightAscensions = new double[size];
+        declinations = new double[size];
+        angularSizes = new double[size];
+        magnitudes = new double[size];
+    }
+
+    /**
+     * @return le nombre d'instants de la série.
+     */
+    public int size() {
+        return rightAscensions.length;
+    }
+
+    /**
+     * @return le tableau (non copié) des ascensions droites, en radians.
+     */
+    public double[] rightAscensions() {
+        return rightAscensions;
+    }
+
+    /**
+     * @return le tableau (non copié) des déclinaisons, en radians.
+     */
+    public double[] declinations() {
+        return declinations;
+    }
+
+    /**
+     * @return le tableau (non copié) des tailles angulaires, en radians.
+     */
+    public double[] angularSizes() {
+        return angularSizes;
+    }
+
+    /**
+     * @return le tableau (non copié) des magnitudes.
+     */
+    public double[] magnitudes() {
+        return magnitudes;
+    }
+}
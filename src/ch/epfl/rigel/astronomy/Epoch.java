@@ -55,4 +55,15 @@ public enum Epoch {
     public double julianCenturiesUntil(ZonedDateTime when) {
         return zonedDateTime.until(when, MILLIS) / MILLI_SECONDS_PER_JULIAN_CENTURY;
     }
+
+    /**
+     * Retourne le nombre de jours entre l'époque à laquelle on l'applique et l'époque other.
+     *
+     * @param other
+     * @return un double correspondant à un nombre de jours.
+     */
+
+    public double daysUntil(Epoch other) {
+        return daysUntil(other.zonedDateTime);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package ch.epfl.rigel.astronomy;
+
+import java.util.Arrays;
+
+/**
+ * Table associative (à adressage ouvert) associant un numéro Hipparcos à l'index d'une étoile,
+ * stockée dans deux tableaux d'entiers afin d'éviter les objets Integer d'une Map.
+ * Si plusieurs étoiles ont le même numéro, seule la première ajoutée est retenue.
+ */
+
+final class HipparcosIndex {
+
+    private static final int NO_KEY = -1;
+
+    private final int[] keys;
+    private final int[] values;
+    private final int mask;
+    private final int shift;
+
+    /**
+     * Construit une table vide, capable de contenir le nombre d'étoiles donné.
+     *
+     * @param expectedSize nombre maximal d'étoiles à ajouter
+     */
+    HipparcosIndex(int expectedSize) {
+        // Capacité égale à une puissance de deux, la table étant remplie au plus aux trois quarts.
+        int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 4 / 3 + 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(capacity) + 1;
+        Arrays.fill(keys, NO_KEY);
+    }
+
+    /**
+     * Construit la table des étoiles données, en une seule passe.
+     *
+     * @param data les données des étoiles
+     * @return la table associant à chaque numéro Hipparcos l'index de la première étoile le portant.
+     */
+    static HipparcosIndex of(StarData data) {
+        HipparcosIndex index = new HipparcosIndex(data.size());
+        for (int i = 0; i < data.size(); i++) index.add(data.hipparcosId(i), i);
+        return index;
+    }
+
+    /**
+     * Associe l'index donné au numéro Hipparcos donné, s'il n'est pas déjà présent.
+     *
+     * @param hipparcosId numéro Hipparcos (positif ou nul)
+     * @param index       index de l'étoile
+     */
+    void add(int hipparcosId, int index) {
+        int slot = slot(hipparcosId);
+        if (keys[slot] == NO_KEY) {
+            keys[slot] = hipparcosId;
+            values[slot] = index;
+        }
+    }
+
+    /**
+     * @param hipparcosId numéro Hipparcos
+     * @return l'index de la première étoile portant ce numéro, ou -1 s'il n'y en a pas.
+     */
+    int indexOf(int hipparcosId) {
+        int slot = slot(hipparcosId);
+        return (keys[slot] == NO_KEY) ? -1 : values[slot];
+    }
+
+    // Méthode privée retournant la case contenant le numéro donné, ou la case vide où l'ajouter (sondage linéaire).
+    private int slot(int hipparcosId) {
+        int slot = (hipparcosId * 0x9E3779B9) >>> shift;
+        while (keys[slot] != NO_KEY && keys[slot] != hipparcosId) slot = (slot + 1) & mask;
+        return slot;
+    }
+}
@@ -1,13 +1,17 @@
 package ch.epfl.rigel.astronomy;
 
+import ch.epfl.rigel.CsvTokenizer;
 import ch.epfl.rigel.coordinates.EquatorialCoordinates;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-
-import static java.nio.charset.StandardCharsets.US_ASCII;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Type énuméré public et immuable représentant un chargeur de données HYG dans un catalogue.
@@ -18,9 +22,16 @@ import static java.nio.charset.StandardCharsets.US_ASCII;
 
 public enum HygDatabaseLoader implements StarCatalogue.Loader {
 
+    /**
+     * Chargeur lisant les lignes une à une, sur le fil d'exécution appelant.
+     */
+    INSTANCE,
 
-
-    INSTANCE;
+    /**
+     * Chargeur découpant le fichier en morceaux alignés sur les fins de ligne, analysés en parallèle sur le ForkJoinPool commun.
+     * Les étoiles sont ajoutées au bâtisseur dans l'ordre du fichier, les index des étoiles sont donc les mêmes qu'avec INSTANCE.
+     */
+    PARALLEL;
 
     /**
      * Définition de constantes correspondants aux numéros de colonne (en commençant de 0, on a donc soustrait 1 aux indices de l'énoncé) des données
@@ -36,67 +47,129 @@ public enum HygDatabaseLoader implements StarCatalogue.Loader {
     private final static int BAYER = 27;
     private final static int CON = 29;
 
+    /**
+     * Nombre de morceaux par cœur, afin d'équilibrer la charge entre les fils d'exécution.
+     */
+    private final static int CHUNKS_PER_CORE = 4;
+
     /**
      * Redéfintion de la méthode abstraite load de l'interface StarCatalogue.Loader.
-     * @param inputStream Source de données (ici les astérismes seront passés en argument)
+     * @param inputStream Source de données (ici les étoiles du catalogue HYG)
      * @param builder
      * @throws IOException
      */
 
     @Override
     public void load(InputStream inputStream, StarCatalogue.Builder builder) throws IOException {
-        try (BufferedReader in = new BufferedReader(new InputStreamReader(inputStream, US_ASCII))) {
-            String line;
-            String[] splittedLine;
-            int hipparcosId;
-            String proper;
-            String bayer;
-            double rarad;
-            double decrad;
-            float mag;
-            float ci;
+        if (this == PARALLEL) {
+            loadInParallel(inputStream, builder);
+            return;
+        }
 
+        try (CsvTokenizer in = new CsvTokenizer(inputStream)) {
             // Lecture de la première ligne dont on ne veut pas récupérer les données (elles contiennent les titres des colonnes)
-            in.readLine();
-
-            while ((line = in.readLine()) != null) {
-
-                // On découpe chaque ligne venant de inputStream par colonne
-                splittedLine = line.split(",", 37);
-
-                // On accède à l'Hypparcos ID dans le tableau de String splittedLine
-                // On l'initialise à 0 par défaut s'il n'est pas présent dans les données
-                if (splittedLine[HIP].isEmpty()) hipparcosId = 0;
-                else hipparcosId = Integer.parseInt(splittedLine[HIP]);
-
-                // Même chose ici pour le nom propre
-                // La valeur par défaut est différente
-                proper = splittedLine[PROPER];
-                if (splittedLine[PROPER].isEmpty()) {
-                    bayer = splittedLine[BAYER];
-                    if (splittedLine[BAYER].isEmpty()) bayer = "?";
-                    proper = bayer + " " + splittedLine[CON];
-                }
-
-                // On accède à l'ascension droite et à la déclinaison
-                // Pas besoin de définir un cas par défaut car elles sont toujours données
-                rarad = Double.parseDouble(splittedLine[RARAD]);
-                decrad = Double.parseDouble(splittedLine[DECRAD]);
-
-                // On accède à la magnitude dans le tableau de String splittedLine
-                // On l'initialise à 0 par défaut s'il n'est pas présent dans les données
-                if (splittedLine[MAG].isEmpty()) mag = 0;
-                else mag = (float) Double.parseDouble(splittedLine[MAG]);
-
-                // On accède à l'indice de couleur dans le tableau de String splittedLine
-                // On l'initialise à 0 par défaut s'il n'est pas présent dans les données
-                if (splittedLine[CI].isEmpty()) ci = 0;
-                else ci = (float) Double.parseDouble(splittedLine[CI]);
-
-                // Ces données sont enfin utilisées pour ajouter une nouvelle étoile au builder
-
-                builder.addStar(new Star(hipparcosId, proper, EquatorialCoordinates.of(rarad, decrad), mag, ci));
-            }
+            in.nextLine();
+            readStars(in, builder::addStar);
+        }
+    }
+
+    // Méthode privée lisant tout le flot puis analysant ses morceaux en parallèle.
+    private static void loadInParallel(InputStream inputStream, StarCatalogue.Builder builder) throws IOException {
+        byte[] data;
+        try (InputStream in = inputStream) {
+            data = in.readAllBytes();
+        }
+
+        // La première ligne contient les titres des colonnes.
+        int start = nextLineStart(data, 0);
+
+        // Découpage en morceaux dont chacun commence au début d'une ligne.
+        int chunkCount = Math.max(1, Runtime.getRuntime().availableProcessors() * CHUNKS_PER_CORE);
+        int[] bounds = new int[chunkCount + 1];
+        bounds[0] = start;
+        for (int i = 1; i < chunkCount; i++) {
+            int target = start + (int) ((long) (data.length - start) * i / chunkCount);
+            bounds[i] = Math.max(bounds[i - 1], nextLineStart(data, target));
+        }
+        bounds[chunkCount] = data.length;
+
+        // Analyse des morceaux en parallèle, les listes d'étoiles étant rassemblées dans l'ordre des morceaux.
+        List < List < Star > > chunks;
+        try {
+            chunks = IntStream.range(0, chunkCount)
+                    .parallel()
+                    .mapToObj(i -> readChunk(data, bounds[i], bounds[i + 1]))
+                    .collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        for (List < Star > chunk : chunks) {
+            for (Star star : chunk) builder.addStar(star);
+        }
+    }
+
+    // Méthode privée analysant les lignes comprises entre les positions from (inclue) et to (exclue).
+    private static List < Star > readChunk(byte[] data, int from, int to) {
+        List < Star > stars = new ArrayList <>();
+        try (CsvTokenizer in = new CsvTokenizer(new ByteArrayInputStream(data, from, to - from))) {
+            readStars(in, stars::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return stars;
+    }
+
+    // Méthode privée retournant la position du début de la ligne suivant la position donnée (ou la fin des données).
+    private static int nextLineStart(byte[] data, int position) {
+        int i = position;
+        while (i < data.length && data[i] != '\n') i++;
+        return Math.min(i + 1, data.length);
+    }
+
+    // Méthode privée lisant toutes les lignes restantes et passant chaque étoile construite au consommateur donné.
+    private static void readStars(CsvTokenizer in, Consumer < Star > stars) throws IOException {
+        int hipparcosId;
+        String proper;
+        String bayer;
+        double rarad;
+        double decrad;
+        float mag;
+        float ci;
+
+        // Le découpeur repère les colonnes de chaque ligne sans créer de chaînes : seules les 8 colonnes utiles sont lues
+        while (in.nextLine()) {
+
+            // On accède à l'Hypparcos ID
+            // On l'initialise à 0 par défaut s'il n'est pas présent dans les données
+            if (in.isEmpty(HIP)) hipparcosId = 0;
+            else hipparcosId = in.parseInt(HIP);
+
+            // Même chose ici pour le nom propre
+            // La valeur par défaut est différente
+            if (in.isEmpty(PROPER)) {
+                bayer = in.isEmpty(BAYER) ? "?" : in.string(BAYER);
+                proper = bayer + " " + in.string(CON);
+            } else proper = in.string(PROPER);
+
+            // On accède à l'ascension droite et à la déclinaison
+            // Pas besoin de définir un cas par défaut car elles sont toujours données
+            rarad = in.parseDouble(RARAD);
+            decrad = in.parseDouble(DECRAD);
+
+            // On accède à la magnitude
+            // On l'initialise à 0 par défaut s'il n'est pas présent dans les données
+            if (in.isEmpty(MAG)) mag = 0;
+            else mag = (float) in.parseDouble(MAG);
+
+            // On accède à l'indice de couleur
+            // On l'initialise à 0 par défaut s'il n'est pas présent dans les données
+            if (in.isEmpty(CI)) ci = 0;
+            else ci = (float) in.parseDouble(CI);
+
+            // Ces données sont enfin utilisées pour construire une nouvelle étoile
+
+            stars.accept(new Star(hipparcosId, proper, EquatorialCoordinates.of(rarad, decrad), mag, ci));
         }
     }
 
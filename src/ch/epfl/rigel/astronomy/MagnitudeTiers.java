@@ -0,0 +1,82 @@
+package ch.epfl.rigel.astronomy;
+
+import java.util.Arrays;
+
+/**
+ * Étoiles d'un catalogue triées par magnitude croissante (des plus brillantes aux plus faibles) et regroupées en paliers
+ * d'une magnitude de large : le palier k contient les étoiles dont la magnitude est dans [k, k + 1[.
+ * Les étoiles plus brillantes qu'une magnitude limite forment ainsi un préfixe de l'ordre de tri, et l'ensemble des étoiles
+ * retenues ne change que lorsque la magnitude limite franchit une valeur entière, ce qui évite que des étoiles apparaissent
+ * et disparaissent en continu lors d'un zoom.
+ */
+
+final class MagnitudeTiers {
+
+    /**
+     * Index des étoiles par magnitude croissante (les étoiles de même magnitude par index croissant, celles dont la magnitude
+     * n'est pas un nombre à la fin), et magnitudes correspondantes.
+     */
+    private final int[] byMagnitude;
+    private final float[] sortedMagnitudes;
+
+    /**
+     * Construit les paliers des étoiles données.
+     *
+     * @param data les données des étoiles
+     */
+    MagnitudeTiers(StarData data) {
+        int count = data.size();
+        // Tri d'entiers longs dont les 32 bits de poids fort ordonnent les magnitudes et les 32 bits de poids faible sont l'index.
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) keys[i] = ((long) sortableBits(data.magnitude(i)) << 32) | i;
+        Arrays.sort(keys);
+
+        byMagnitude = new int[count];
+        sortedMagnitudes = new float[count];
+        for (int k = 0; k < count; k++) {
+            byMagnitude[k] = (int) keys[k];
+            sortedMagnitudes[k] = data.magnitude(byMagnitude[k]);
+        }
+    }
+
+    /**
+     * @param limitingMagnitude magnitude limite
+     * @return la borne (exclue) des magnitudes des étoiles des paliers actifs pour la magnitude limite donnée, c.-à-d.
+     * des paliers contenant une magnitude inférieure ou égale à celle-ci ; l'infini si elle est infinie.
+     */
+    static double upperBound(double limitingMagnitude) {
+        return Math.floor(limitingMagnitude) + 1;
+    }
+
+    /**
+     * @param limitingMagnitude magnitude limite
+     * @return le nombre d'étoiles des paliers actifs pour la magnitude limite donnée, qui sont les étoiles d'index
+     * byMagnitude()[0] à byMagnitude()[activeCount - 1].
+     */
+    int activeCount(double limitingMagnitude) {
+        double bound = upperBound(limitingMagnitude);
+        if (bound == Double.POSITIVE_INFINITY) return byMagnitude.length;
+        // Recherche dichotomique de la première magnitude supérieure ou égale à la borne.
+        int low = 0, high = sortedMagnitudes.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedMagnitudes[middle] < bound) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * @return les index des étoiles par magnitude croissante (à ne pas modifier).
+     */
+    int[] byMagnitude() {
+        return byMagnitude;
+    }
+
+    // Méthode privée retournant un entier dont l'ordre (signé) est celui des magnitudes, les magnitudes non numériques en dernier.
+    private static int sortableBits(float magnitude) {
+        if (Float.isNaN(magnitude)) return Integer.MAX_VALUE;
+        int bits = Float.floatToIntBits(magnitude + 0f);
+        return (bits < 0) ? bits ^ Integer.MAX_VALUE : bits;
+    }
+}
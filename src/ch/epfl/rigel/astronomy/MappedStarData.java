@@ -0,0 +1,187 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.coordinates.EquatorialToHorizontalConversion;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Données d'étoiles lues directement dans un instantané binaire projeté en mémoire (voir BinaryStarDatabase).
+ * Aucune étoile n'est conservée dans le tas : les colonnes sont lues dans le fichier projeté
+ * et les objets Star ne sont construits qu'à la demande.
+ */
+
+final class MappedStarData implements StarData {
+
+    private final int count;
+    private final DoubleBuffer ra;
+    private final DoubleBuffer dec;
+    private final IntBuffer hipparcosIds;
+    private final FloatBuffer magnitudes;
+    private final FloatBuffer colorIndices;
+    private final IntBuffer nameOffsets;
+    private final ByteBuffer namePool;
+
+    // Colonnes des températures et des paliers de couleur, absentes du fichier et calculées à la première demande.
+    private volatile IntBuffer colorTemperatures;
+    private volatile IntBuffer colorBuckets;
+
+    /**
+     * Projette en mémoire l'instantané binaire donné.
+     *
+     * @param snapshot chemin de l'instantané
+     * @throws IOException si le fichier ne peut être projeté ou ne contient pas un instantané valide
+     */
+    MappedStarData(Path snapshot) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshot, READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        BinaryStarDatabase.checkHeader(buffer.getInt(), buffer.getInt());
+        count = buffer.getInt();
+        int poolLength = buffer.getInt();
+
+        int poolStart = BinaryStarDatabase.namePoolOffset(count);
+        if (poolStart + poolLength > buffer.capacity()) throw new IOException("Instantané d'étoiles tronqué");
+
+        ra = column(buffer, BinaryStarDatabase.raOffset(count)).asDoubleBuffer().limit(count);
+        dec = column(buffer, BinaryStarDatabase.decOffset(count)).asDoubleBuffer().limit(count);
+        hipparcosIds = column(buffer, BinaryStarDatabase.hipOffset(count)).asIntBuffer().limit(count);
+        magnitudes = column(buffer, BinaryStarDatabase.magnitudeOffset(count)).asFloatBuffer().limit(count);
+        colorIndices = column(buffer, BinaryStarDatabase.colorIndexOffset(count)).asFloatBuffer().limit(count);
+        nameOffsets = column(buffer, BinaryStarDatabase.nameOffsetsOffset(count)).asIntBuffer();
+        namePool = column(buffer, poolStart);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public int hipparcosId(int index) {
+        return hipparcosIds.get(index);
+    }
+
+    @Override
+    public double ra(int index) {
+        return ra.get(index);
+    }
+
+    @Override
+    public double dec(int index) {
+        return dec.get(index);
+    }
+
+    @Override
+    public float magnitude(int index) {
+        return magnitudes.get(index);
+    }
+
+    @Override
+    public float colorIndex(int index) {
+        return colorIndices.get(index);
+    }
+
+    @Override
+    public int colorTemperature(int index) {
+        return Star.colorTemperature(colorIndex(index));
+    }
+
+    @Override
+    public int colorBucket(int index) {
+        return Star.colorBucket(colorTemperature(index));
+    }
+
+    @Override
+    public Star star(int index) {
+        int start = nameOffsets.get(index);
+        byte[] name = new byte[nameOffsets.get(index + 1) - start];
+        namePool.duplicate().position(start).get(name);
+
+        return new Star(hipparcosId(index), new String(name, UTF_8), EquatorialCoordinates.of(ra(index), dec(index)), magnitude(index), colorIndex(index));
+    }
+
+    @Override
+    public void projectPositions(EquatorialToHorizontalConversion conversion, StereographicProjection projection, double[] outXY) {
+        projection.projectAll(conversion, ra, dec, outXY);
+    }
+
+    @Override
+    public void projectPositions(EquatorialToHorizontalConversion conversion, StereographicProjection projection, int[] indices, double[] outXY) {
+        // Les positions demandées sont rassemblées dans des tableaux, projetées en lot, puis replacées à leur index.
+        double[] selectedRa = new double[indices.length];
+        double[] selectedDec = new double[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            selectedRa[i] = ra(indices[i]);
+            selectedDec[i] = dec(indices[i]);
+        }
+        double[] selectedXY = new double[2 * indices.length];
+        projection.projectAll(conversion, selectedRa, selectedDec, selectedXY);
+        for (int i = 0; i < indices.length; i++) {
+            outXY[2 * indices[i]] = selectedXY[2 * i];
+            outXY[2 * indices[i] + 1] = selectedXY[2 * i + 1];
+        }
+    }
+
+    @Override
+    public DoubleBuffer raColumn() {
+        return ra.asReadOnlyBuffer();
+    }
+
+    @Override
+    public DoubleBuffer decColumn() {
+        return dec.asReadOnlyBuffer();
+    }
+
+    @Override
+    public FloatBuffer magnitudeColumn() {
+        return magnitudes.asReadOnlyBuffer();
+    }
+
+    @Override
+    public IntBuffer colorTemperatureColumn() {
+        IntBuffer temperatures = colorTemperatures;
+        if (temperatures == null) {
+            int[] values = new int[count];
+            for (int i = 0; i < count; i++) values[i] = colorTemperature(i);
+            temperatures = IntBuffer.wrap(values).asReadOnlyBuffer();
+            colorTemperatures = temperatures;
+        }
+        return temperatures.duplicate();
+    }
+
+    @Override
+    public IntBuffer colorBucketColumn() {
+        IntBuffer buckets = colorBuckets;
+        if (buckets == null) {
+            int[] values = new int[count];
+            for (int i = 0; i < count; i++) values[i] = colorBucket(i);
+            buckets = IntBuffer.wrap(values).asReadOnlyBuffer();
+            colorBuckets = buckets;
+        }
+        return buckets.duplicate();
+    }
+
+    @Override
+    public IntBuffer hipparcosIdColumn() {
+        return hipparcosIds.asReadOnlyBuffer();
+    }
+
+    // Méthode privée retournant une vue du tampon commençant à la position donnée.
+    private static ByteBuffer column(ByteBuffer buffer, int offset) {
+        return buffer.duplicate().position(offset).slice();
+    }
+}
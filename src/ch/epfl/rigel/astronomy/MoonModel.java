@@ -1,7 +1,7 @@
 package ch.epfl.rigel.astronomy;
 
-import ch.epfl.rigel.coordinates.EclipticCoordinates;
 import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
 import ch.epfl.rigel.math.Angle;
 
 import static java.lang.Math.*;
@@ -40,6 +40,16 @@ public enum MoonModel implements CelestialObjectModel < Moon > {
     // Taille angulaire de la Lune vue depuis la Terre à une distance égale au demi-grand axe de l'orbite
     private static final double THETA0 = Angle.ofDeg(0.5181);
 
+    // Indices des caractéristiques de la Lune dans le tableau rempli par compute, et taille de ce tableau.
+    private static final int RIGHT_ASCENSION = 0;
+    private static final int DECLINATION = 1;
+    private static final int ANGULAR_SIZE = 2;
+    private static final int PHASE = 3;
+    private static final int STATE_SIZE = 4;
+    // Tableau réutilisé par writeAt, un par fil d'exécution (atAll appelle writeAt depuis plusieurs fils), afin qu'aucun
+    // objet ne soit alloué par instant.
+    private static final ThreadLocal < double[] > WRITE_STATE = ThreadLocal.withInitial(() -> new double[STATE_SIZE]);
+
     /**
      * Cette méthode calcule plusieurs constantes nécessaires au calcul de la position ecliptique de la Lune à un moment donné
      * Les étapes sont détaillées.
@@ -51,6 +61,39 @@ public enum MoonModel implements CelestialObjectModel < Moon > {
 
     @Override
     public Moon at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
+        return at(new EphemerisContext(daysSinceJ2010, eclipticToEquatorialConversion));
+    }
+
+    /**
+     * @param context contexte de l'instant pour lequel on calcule la Lune, contenant le Soleil à cet instant.
+     * @return un nouvel objet Moon représentant la Lune à l'instant du contexte.
+     */
+    Moon at(EphemerisContext context) {
+        Sun sun = context.sun();
+        double[] state = new double[STATE_SIZE];
+        compute(context.daysSinceJ2010(), sun.meanAnomaly(), sun.eclipticPos().lon(), context.eclipticToEquatorialConversion(), state);
+        return new Moon(EquatorialCoordinates.of(state[RIGHT_ASCENSION], state[DECLINATION]), (float) state[ANGULAR_SIZE], 0, (float) state[PHASE]);
+    }
+
+    @Override
+    public void writeAt(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion, EphemerisSeries series, int index) {
+        // Le Soleil est calculé sans être créé, son anomalie moyenne étant arrondie comme dans Sun.
+        float sunMeanAnomaly = (float) SunModel.meanAnomaly(daysSinceJ2010);
+        double sunEclipticLongitude = SunModel.eclipticLongitude(SunModel.trueAnomaly(SunModel.meanAnomaly(daysSinceJ2010)));
+        double[] state = WRITE_STATE.get();
+        compute(daysSinceJ2010, sunMeanAnomaly, sunEclipticLongitude, eclipticToEquatorialConversion, state);
+        series.rightAscensions[index] = state[RIGHT_ASCENSION];
+        series.declinations[index] = state[DECLINATION];
+        series.angularSizes[index] = state[ANGULAR_SIZE];
+        series.magnitudes[index] = 0;
+    }
+
+    /**
+     * Calcule la Lune à partir de l'anomalie moyenne et de la longitude écliptique du Soleil au même instant, et écrit son
+     * ascension droite, sa déclinaison, sa taille angulaire et sa phase (arrondies comme dans Moon) aux indices
+     * RIGHT_ASCENSION, DECLINATION, ANGULAR_SIZE et PHASE du tableau donné. Aucun objet n'est alloué.
+     */
+    private void compute(double daysSinceJ2010, double sunMeanAnomaly, double sunEclipticLongitude, EclipticToEquatorialConversion eclipticToEquatorialConversion, double[] state) {
 
         // Calcul de la longitude orbitale moyenne de la Lune
         double meanOrbitalLongitude = daysSinceJ2010 * C1 + MEAN_LONGITUDE;
@@ -60,10 +103,9 @@ public enum MoonModel implements CelestialObjectModel < Moon > {
 
         // Calcul de plusieurs termes de correction
 
-        Sun sun = SunModel.SUN.at(daysSinceJ2010, eclipticToEquatorialConversion);
-        double sinMeanAnomaly = sin(sun.meanAnomaly());
+        double sinMeanAnomaly = sin(sunMeanAnomaly);
 
-        double evection = C3 * sin(2 * (meanOrbitalLongitude - sun.eclipticPos().lon()) - meanAnomaly);
+        double evection = C3 * sin(2 * (meanOrbitalLongitude - sunEclipticLongitude) - meanAnomaly);
 
         double yearEquationCorrection = C4 * sinMeanAnomaly;
         double correction3 = C5 * sinMeanAnomaly;
@@ -79,7 +121,7 @@ public enum MoonModel implements CelestialObjectModel < Moon > {
         double correctedOrbitalLongitude = meanOrbitalLongitude + evection + centreEquationCorrection - yearEquationCorrection + correction4;
 
         // Calcul du terme correcteur variation
-        double variation = C8 * sin(2 * (correctedOrbitalLongitude - sun.eclipticPos().lon()));
+        double variation = C8 * sin(2 * (correctedOrbitalLongitude - sunEclipticLongitude));
 
         // Finalement, calcul de la longitude orbitale vraie de la Lune
         double trueOrbitalLongitude = correctedOrbitalLongitude + variation;
@@ -87,7 +129,7 @@ public enum MoonModel implements CelestialObjectModel < Moon > {
 
         // Calculs des longitudes moyennes et corrigées du noeud ascendant
         double meanLongitudeNode = LONGITUDE_NODE - C9 * daysSinceJ2010;
-        double correctedLongitudeNode = meanLongitudeNode - C10 * sin(sun.meanAnomaly());
+        double correctedLongitudeNode = meanLongitudeNode - C10 * sinMeanAnomaly;
 
         // Calculs de la longitude et latitude ecliptique de la Lune
         double variable = sin(trueOrbitalLongitude - correctedLongitudeNode);
@@ -99,11 +141,12 @@ public enum MoonModel implements CelestialObjectModel < Moon > {
         float angularSize = (float) (THETA0 / distanceEarthMoon);
 
         // Calcul de la phase de la Lune
-        float moonPhase = (float) (1 - cos(trueOrbitalLongitude - sun.eclipticPos().lon())) / 2;
-
-        EclipticCoordinates coordinates = EclipticCoordinates.of(Angle.normalizePositive(eclipticLon), eclipticLat);
-
-        return new Moon(eclipticToEquatorialConversion.apply(coordinates), angularSize, 0, moonPhase);
+        float moonPhase = (float) (1 - cos(trueOrbitalLongitude - sunEclipticLongitude)) / 2;
 
+        double normalizedEclipticLon = Angle.normalizePositive(eclipticLon);
+        state[RIGHT_ASCENSION] = eclipticToEquatorialConversion.rightAscension(normalizedEclipticLon, eclipticLat);
+        state[DECLINATION] = eclipticToEquatorialConversion.declination(normalizedEclipticLon, eclipticLat);
+        state[ANGULAR_SIZE] = angularSize;
+        state[PHASE] = moonPhase;
     }
 }
\ No newline at end of file
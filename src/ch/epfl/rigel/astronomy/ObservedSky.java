@@ -1,10 +1,15 @@
 package ch.epfl.rigel.astronomy;
 
+import ch.epfl.rigel.Preconditions;
 import ch.epfl.rigel.coordinates.*;
+import ch.epfl.rigel.math.Angle;
 import ch.epfl.rigel.math.MathematicalCalculus;
 
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.stream.IntStream;
 
 /**
  * Classe représentant le "ciel" pour un instant donné c'est à dire,  un ensemble d'objets célèstes projetés dans le plan par une projection stéréographique.
@@ -45,13 +50,48 @@ public final class ObservedSky {
 
 
     /**
-     * Tableaux contenant les coordonnées projetées dans le plan  des différentes planètes et des étoiles.
+     * Tableaux contenant les coordonnées projetées dans le plan  des différentes planètes et des étoiles, écrits par ce ciel,
+     * et tableaux du ciel précédent, qui seront réutilisés par le ciel suivant (voir update).
      */
+    private final PositionBuffers positions;
+    private final PositionBuffers spare;
     private final double[] planetPositions;
     private final double[] starPositions;
     private final double [] satellitePosition;
     private final double [] ufosPosition;
-    private final Map < celestialObjects, CartesianCoordinates[] > map;
+
+    /**
+     * Index (par ordre croissant) des étoiles projetées ; les positions des autres étoiles valent NaN.
+     */
+    private final int[] visibleStarIndices;
+
+    // Fraction maximale de la sphère couverte par la zone visible pour que les étoiles hors de cette zone soient écartées.
+    private static final double MAX_CULLED_FRACTION = 0.5;
+
+    // Marge (en radian) ajoutée au rayon de la zone visible pour sélectionner les étoiles, afin que la sélection reste valable
+    // tant que le centre de la zone se déplace de moins que cette marge (voir update).
+    private static final double SELECTION_MARGIN = Angle.ofDeg(1);
+
+    // Écart maximal (en jours) entre l'instant d'observation et celui pour lequel le Soleil, la Lune et les planètes ont été
+    // calculés : une minute, soit un déplacement de la Lune d'une demi-minute d'arc au plus.
+    private static final double EPHEMERIS_TOLERANCE = 1.0 / (24 * 60);
+
+    /**
+     * Paramètres de ce ciel réutilisés par update : nombre de jours entre J2010 et l'instant pour lequel le Soleil, la Lune
+     * et les planètes ont été calculés, rayon de la zone visible, magnitude limite et cône ayant servi à sélectionner les étoiles.
+     */
+    private final double ephemerisDays;
+    private final double visibleRadius;
+    private final double limitingMagnitude;
+    private final VisibleCone selectionCone;
+
+    /**
+     * Index spatial des positions projetées des étoiles (voir objectClosestTo). La première recherche parcourt simplement
+     * les positions, ce qui est plus rapide que de construire l'index lorsque le ciel n'est interrogé qu'une fois
+     * (pendant une animation) ; l'index n'est construit qu'à partir de la deuxième recherche sur le même ciel.
+     */
+    private volatile PositionGrid starIndex;
+    private volatile boolean starsSearched;
 
     /**
      * Cordonnées du soleil et de la lune projetées dans le plan du soleil et de la lune.
@@ -69,6 +109,50 @@ public final class ObservedSky {
      */
 
     public ObservedSky(ZonedDateTime instantOfObservation, GeographicCoordinates positionOfObservation, StereographicProjection projection, StarCatalogue catalogue, ArtificialSatelliteCatalogue satelliteCatalogue, UFOCatalogue ufoCatalogue) {
+        this(instantOfObservation, positionOfObservation, projection, catalogue, satelliteCatalogue, ufoCatalogue, Math.PI);
+    }
+
+    /**
+     * Construit une photographie du ciel à un instant et un endroit d'observation donnés, en ne projetant que les étoiles,
+     * satellites et ovnis situés à une distance angulaire inférieure ou égale à visibleRadius du centre de projection
+     * (les étoiles des astérismes sont toujours projetées, afin que leurs traits restent complets).
+     * Les positions des objets écartés valent NaN.
+     *
+     * @param instantOfObservation  l'instant d'observation
+     * @param positionOfObservation position d'observation
+     * @param projection            projection à utiliser
+     * @param catalogue             ensemble contenant les étoiles et les astérismes
+     * @param visibleRadius         rayon angulaire (en radian) de la zone visible autour du centre de projection ;
+     *                              aucun objet n'est écarté s'il vaut au moins π
+     * @throws IllegalArgumentException si le rayon est négatif
+     */
+    public ObservedSky(ZonedDateTime instantOfObservation, GeographicCoordinates positionOfObservation, StereographicProjection projection, StarCatalogue catalogue, ArtificialSatelliteCatalogue satelliteCatalogue, UFOCatalogue ufoCatalogue, double visibleRadius) {
+        this(instantOfObservation, positionOfObservation, projection, catalogue, satelliteCatalogue, ufoCatalogue, visibleRadius, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Construit une photographie du ciel comme le constructeur précédent, en ne projetant de plus que les étoiles des paliers
+     * de magnitude actifs pour la magnitude limite donnée, c.-à-d. celles dont la magnitude est strictement inférieure à
+     * la partie entière de la magnitude limite plus un (voir MagnitudeTiers).
+     *
+     * @param instantOfObservation  l'instant d'observation
+     * @param positionOfObservation position d'observation
+     * @param projection            projection à utiliser
+     * @param catalogue             ensemble contenant les étoiles et les astérismes
+     * @param visibleRadius         rayon angulaire (en radian) de la zone visible autour du centre de projection ;
+     *                              aucun objet n'est écarté s'il vaut au moins π
+     * @param limitingMagnitude     magnitude limite des étoiles projetées ; aucune étoile n'est écartée si elle est infinie
+     * @throws IllegalArgumentException si le rayon est négatif ou si la magnitude limite n'est pas un nombre
+     */
+    public ObservedSky(ZonedDateTime instantOfObservation, GeographicCoordinates positionOfObservation, StereographicProjection projection, StarCatalogue catalogue, ArtificialSatelliteCatalogue satelliteCatalogue, UFOCatalogue ufoCatalogue, double visibleRadius, double limitingMagnitude) {
+        this(null, null, instantOfObservation, positionOfObservation, projection, catalogue, satelliteCatalogue, ufoCatalogue, visibleRadius, limitingMagnitude);
+    }
+
+    // Constructeur privé commun, réutilisant si possible les résultats du ciel previous (s'il n'est pas nul, voir update),
+    // et calculant le Soleil, la Lune et les planètes au moyen du cache ephemerides s'il n'est pas nul.
+    private ObservedSky(ObservedSky previous, EphemerisCache ephemerides, ZonedDateTime instantOfObservation, GeographicCoordinates positionOfObservation, StereographicProjection projection, StarCatalogue catalogue, ArtificialSatelliteCatalogue satelliteCatalogue, UFOCatalogue ufoCatalogue, double visibleRadius, double limitingMagnitude) {
+
+        Preconditions.checkArgument(visibleRadius >= 0 && !Double.isNaN(limitingMagnitude));
 
         this.catalogue = catalogue;
 
@@ -76,17 +160,45 @@ public final class ObservedSky {
 
         this.satelliteCatalogue = satelliteCatalogue;
 
+        this.visibleRadius = visibleRadius;
+
+        this.limitingMagnitude = limitingMagnitude;
+
         double daysSinceJ2010 = Epoch.J2010.daysUntil(instantOfObservation);
 
-         eclipticToEquatorialConversion = new EclipticToEquatorialConversion(instantOfObservation);
+        if (previous != null && Math.abs(daysSinceJ2010 - previous.ephemerisDays) <= EPHEMERIS_TOLERANCE) {
+            // Le Soleil, la Lune et les planètes du ciel précédent sont encore valables.
+            ephemerisDays = previous.ephemerisDays;
+            eclipticToEquatorialConversion = previous.eclipticToEquatorialConversion;
+            sun = previous.sun;
+            moon = previous.moon;
+            planets = previous.planets;
+        } else if (ephemerides != null) {
+            ephemerisDays = daysSinceJ2010;
+
+            eclipticToEquatorialConversion = new EclipticToEquatorialConversion(instantOfObservation);
+
+            sun = ephemerides.sun(daysSinceJ2010);
+
+            moon = ephemerides.moon(daysSinceJ2010);
+
+            planets = ephemerides.planets(daysSinceJ2010);
+        } else {
+            ephemerisDays = daysSinceJ2010;
 
-        // Modélisation du Soleil, de la Lune et des planètes au moment de l'observation.
+            eclipticToEquatorialConversion = new EclipticToEquatorialConversion(instantOfObservation);
 
-        sun = SunModel.SUN.at(daysSinceJ2010, eclipticToEquatorialConversion);
+            // Modélisation du Soleil, de la Lune et des planètes au moment de l'observation : les termes de l'orbite
+            // de la Terre et le Soleil ne sont calculés qu'une fois, pour la Lune et toutes les planètes.
 
-        moon = MoonModel.MOON.at(daysSinceJ2010, eclipticToEquatorialConversion);
+            EphemerisContext ephemeris = new EphemerisContext(daysSinceJ2010, eclipticToEquatorialConversion);
 
-        planets = listOfPlanetConstructor(daysSinceJ2010, eclipticToEquatorialConversion);
+            sun = ephemeris.sun();
+
+            moon = ephemeris.moon();
+
+            planets = ephemeris.planets();
+        }
 
 
         // Calculs des positions projetées de la Lune et du Soleil.
@@ -99,18 +211,77 @@ public final class ObservedSky {
 
         // Calculs des positions projetées des planètes et des étoiles.
 
-        planetPositions = planetPositionsConstructor(planets, equatorialToHorizontalConversion, projection);
+        // Les positions sont écrites dans les tableaux de l'avant-dernier ciel (s'il y en a), ceux du ciel précédent
+        // restant valables jusqu'au ciel suivant.
+        positions = PositionBuffers.reuse(previous == null ? null : previous.spare, catalogue.data().size(), planets.size(), satelliteCatalogue.satellites().size(), ufoCatalogue.UFOs().size());
+        spare = (previous == null) ? null : previous.positions;
+
+        planetPositions = planetPositionsConstructor(planets, positions.planets, equatorialToHorizontalConversion, projection);
+
+        // Zone visible : cône centré sur la direction équatoriale du centre de projection.
+        EquatorialCoordinates viewCenter = equatorialToHorizontalConversion.inverseApply(projection.center());
+        VisibleCone cone = new VisibleCone(viewCenter, visibleRadius);
+
+        // La sélection des étoiles du ciel précédent est réutilisée si elle a été faite pour le même rayon et la même
+        // magnitude limite, et que son cône (élargi de la marge) contient encore la zone visible.
+        if (previous != null && previous.visibleRadius == visibleRadius && previous.limitingMagnitude == limitingMagnitude
+                && previous.selectionCone.encloses(cone)) {
+            selectionCone = previous.selectionCone;
+            visibleStarIndices = previous.visibleStarIndices;
+        } else {
+            selectionCone = new VisibleCone(viewCenter, Math.min(Math.PI, visibleRadius + SELECTION_MARGIN));
+            visibleStarIndices = visibleStarIndicesConstructor(catalogue, selectionCone, limitingMagnitude);
+        }
 
-        starPositions = starsPositionsConstructor(catalogue, equatorialToHorizontalConversion, projection);
+        starPositions = starsPositionsConstructor(catalogue, visibleStarIndices, positions, equatorialToHorizontalConversion, projection);
 
-        satellitePosition = satellitePositionsConstructor(satelliteCatalogue, equatorialToHorizontalConversion, projection);
+        satellitePosition = satellitePositionsConstructor(satelliteCatalogue, positions.satellites, cone, equatorialToHorizontalConversion, projection);
 
-        ufosPosition = ufosPosition(ufoCatalogue, equatorialToHorizontalConversion, projection);
+        ufosPosition = ufosPosition(ufoCatalogue, positions.ufos, cone, equatorialToHorizontalConversion, projection);
 
-        // Création d'une table associative associant a un objet celeste, un tableau avec les coordonnées cartésiennes
-        map = celestialObjectsMapConstructor(starPositions, planetPositions, moonPosition, sunPosition);
 
+    }
 
+    /**
+     * Retourne une photographie du ciel pour les paramètres donnés (et les mêmes catalogues que ce ciel), calculée en
+     * réutilisant autant que possible les résultats de ce ciel :
+     * - le Soleil, la Lune et les planètes ne sont pas recalculés tant que l'instant d'observation reste à moins d'une minute
+     * de celui pour lequel ils l'ont été, en particulier lorsque seul le centre de projection change ;
+     * - la sélection des étoiles est conservée tant que le rayon de la zone visible et la magnitude limite ne changent pas
+     * et que son centre se déplace de moins d'un degré, ce qui est le cas lors d'un petit pas de temps : seule la rotation
+     * sidérale est alors appliquée aux étoiles ;
+     * - les positions sont écrites dans les tableaux du ciel à partir duquel ce ciel a été mis à jour, plutôt que dans des
+     * tableaux alloués à nouveau.
+     * Ce ciel reste donc valable (il peut par exemple être encore dessiné pendant que le nouveau est calculé), mais le ciel
+     * à partir duquel il a été mis à jour ne doit plus être utilisé ; update ne doit être appelée qu'une fois par ciel.
+     *
+     * @param instantOfObservation  l'instant d'observation
+     * @param positionOfObservation position d'observation
+     * @param projection            projection à utiliser
+     * @param visibleRadius         rayon angulaire (en radian) de la zone visible autour du centre de projection
+     * @param limitingMagnitude     magnitude limite des étoiles projetées
+     * @return le nouveau ciel.
+     * @throws IllegalArgumentException si le rayon est négatif ou si la magnitude limite n'est pas un nombre
+     */
+    public ObservedSky update(ZonedDateTime instantOfObservation, GeographicCoordinates positionOfObservation, StereographicProjection projection, double visibleRadius, double limitingMagnitude) {
+        return update(instantOfObservation, positionOfObservation, projection, visibleRadius, limitingMagnitude, null);
+    }
+
+    /**
+     * Retourne une photographie du ciel comme la méthode précédente, le Soleil, la Lune et les planètes étant, lorsqu'ils
+     * doivent être recalculés, obtenus du cache d'éphémérides donné plutôt que des modèles analytiques (voir EphemerisCache).
+     *
+     * @param instantOfObservation  l'instant d'observation
+     * @param positionOfObservation position d'observation
+     * @param projection            projection à utiliser
+     * @param visibleRadius         rayon angulaire (en radian) de la zone visible autour du centre de projection
+     * @param limitingMagnitude     magnitude limite des étoiles projetées
+     * @param ephemerides           cache d'éphémérides à utiliser, ou null pour utiliser les modèles analytiques
+     * @return le nouveau ciel.
+     * @throws IllegalArgumentException si le rayon est négatif ou si la magnitude limite n'est pas un nombre
+     */
+    public ObservedSky update(ZonedDateTime instantOfObservation, GeographicCoordinates positionOfObservation, StereographicProjection projection, double visibleRadius, double limitingMagnitude, EphemerisCache ephemerides) {
+        return new ObservedSky(this, ephemerides, instantOfObservation, positionOfObservation, projection, catalogue, satelliteCatalogue, ufoCatalogue, visibleRadius, limitingMagnitude);
     }
 
     /**
@@ -181,6 +352,34 @@ public final class ObservedSky {
         return catalogue.stars();
     }
 
+    /**
+     * @return la colonne (en lecture seule) des magnitudes des étoiles, dans l'ordre de stars().
+     */
+    public FloatBuffer starMagnitudes() {
+        return catalogue.magnitudeColumn();
+    }
+
+    /**
+     * @return la colonne (en lecture seule) des températures de couleur des étoiles, dans l'ordre de stars().
+     */
+    public IntBuffer starColorTemperatures() {
+        return catalogue.colorTemperatureColumn();
+    }
+
+    /**
+     * @return la colonne (en lecture seule) des paliers de couleur des étoiles, dans l'ordre de stars() (voir Star.colorBucket).
+     */
+    public IntBuffer starColorBuckets() {
+        return catalogue.colorBucketColumn();
+    }
+
+    /**
+     * @return les index, par ordre croissant, des étoiles projetées (les positions des autres étoiles valent NaN).
+     */
+    public int[] visibleStarIndices() {
+        return visibleStarIndices;
+    }
+
     /**
      * @return les coordonnées des étoiles.
      */
@@ -207,6 +406,15 @@ public final class ObservedSky {
 
     }
 
+    /**
+     * @return la vue (en lecture seule) des segments de tous les astérismes, sous forme de paires d'index d'étoiles
+     * (voir StarCatalogue.asterismSegments).
+     */
+
+    public IntBuffer asterismSegments() {
+        return catalogue.asterismSegments();
+    }
+
     /**
      * @param asterism un astérisme
      * @return la liste des index des étoiles d'un astérisme donné.
@@ -226,79 +434,67 @@ public final class ObservedSky {
 
     public Optional < CelestialObject > objectClosestTo(CartesianCoordinates point, double maxDistance) {
 
-        // L'objet le plus proche est initialisé à un optional nul.
-        Optional < CelestialObject > closestObject = Optional.empty();
-
-
-        double min = Double.POSITIVE_INFINITY;
-        double distance;
-
-        // Cette boucle détermine l'objet le plus proche parmis tous les objets celestes (voir enum)
-        for (celestialObjects c : celestialObjects.values()) {
-            int index = 0;
-            for (CartesianCoordinates coordinates : map.get(c)) {
-                distance = MathematicalCalculus.distanceBetween(point, coordinates);
-                if (distance < maxDistance && min > distance) {
-                    min = distance;
-                    switch (c) {
-                        case SUN:
-                            closestObject = Optional.of(sun);
-                            break;
-                        case MOON:
-                            closestObject = Optional.of(moon);
-                            break;
-                        case STAR:
-                            closestObject = Optional.of(stars().get(index));
-                            break;
-                        case PLANET:
-                            closestObject = Optional.of(planets().get(index));
-                            break;
-                        default:
-                            closestObject = Optional.empty();
-                    }
-                }
-                index++;
-            }
-        }
-
-        return closestObject;
-    }
+        // L'objet le plus proche n'est remplacé que par un objet strictement plus proche, dans l'ordre :
+        // Lune, Soleil, étoiles (trouvées grâce à l'index spatial), puis planètes.
+        CelestialObject closestObject = null;
+        double min = maxDistance;
 
-    /**
-     * Méthodes permettant d'alleger le constructeur de la classe.
-     */
-    private List < Planet > listOfPlanetConstructor(double daysSinceJ2010, EclipticToEquatorialConversion conversion) {
-        List < Planet > planets = new ArrayList <>();
-
-        Planet mercury = PlanetModel.MERCURY.at(daysSinceJ2010, conversion);
-        planets.add(mercury);
-
-        Planet venus = PlanetModel.VENUS.at(daysSinceJ2010, conversion);
-        planets.add(venus);
-
-        Planet mars = PlanetModel.MARS.at(daysSinceJ2010, conversion);
-        planets.add(mars);
-
-        Planet jupiter = PlanetModel.JUPITER.at(daysSinceJ2010, conversion);
-        planets.add(jupiter);
+        double distance = MathematicalCalculus.distanceBetween(point, moonPosition);
+        if (distance < min) {
+            min = distance;
+            closestObject = moon;
+        }
 
-        Planet saturn = PlanetModel.SATURN.at(daysSinceJ2010, conversion);
-        planets.add(saturn);
+        distance = MathematicalCalculus.distanceBetween(point, sunPosition);
+        if (distance < min) {
+            min = distance;
+            closestObject = sun;
+        }
 
-        Planet uranus = PlanetModel.URANUS.at(daysSinceJ2010, conversion);
-        planets.add(uranus);
+        int closestStar = closestStar(point, min);
+        if (closestStar >= 0) {
+            min = distanceToPosition(starPositions, closestStar, point);
+            closestObject = stars().get(closestStar);
+        }
 
-        Planet neptune = PlanetModel.NEPTUNE.at(daysSinceJ2010, conversion);
-        planets.add(neptune);
+        for (int i = 0; i < planets.size(); i++) {
+            distance = distanceToPosition(planetPositions, i, point);
+            if (distance < min) {
+                min = distance;
+                closestObject = planets.get(i);
+            }
+        }
 
-        return List.copyOf(planets);
+        return Optional.ofNullable(closestObject);
+    }
 
+    // Méthode privée retournant l'index de l'étoile la plus proche de point, ou -1, en construisant l'index spatial si nécessaire.
+    // Deux fils peuvent le construire en même temps, mais ils construisent alors le même index.
+    private int closestStar(CartesianCoordinates point, double maxDistance) {
+        PositionGrid index = starIndex;
+        if (index == null) {
+            if (!starsSearched) {
+                starsSearched = true;
+                return PositionGrid.nearestByScan(starPositions, point.x(), point.y(), maxDistance);
+            }
+            index = new PositionGrid(starPositions);
+            starIndex = index;
+        }
+        return index.nearest(point.x(), point.y(), maxDistance);
     }
 
+    // Méthode privée retournant la distance entre point et la position d'index donné du tableau positions.
+    private static double distanceToPosition(double[] positions, int index, CartesianCoordinates point) {
+        double dx = positions[2 * index] - point.x();
+        double dy = positions[2 * index + 1] - point.y();
+        return Math.sqrt(dx * dx + dy * dy);
+    }
 
-    private double[] planetPositionsConstructor(List < Planet > planets, EquatorialToHorizontalConversion equatorialToHorizontalConversion, StereographicProjection projection) {
+    /**
+     * Méthodes permettant d'alleger le constructeur de la classe.
+     */
+    private double[] planetPositionsConstructor(List < Planet > planets, double[] pPositions, EquatorialToHorizontalConversion equatorialToHorizontalConversion, StereographicProjection projection) {
         int i = 0;
-        double[] pPositions = new double[14];
         for (Planet planet : planets) {
             CartesianCoordinates coordinates = projection.apply(equatorialToHorizontalConversion.apply(planet.equatorialPos()));
             pPositions[i] = coordinates.x();
@@ -306,47 +502,96 @@ public final class ObservedSky {
             pPositions[i] = coordinates.y();
             ++i;
         }
-        return Arrays.copyOf(pPositions, pPositions.length);
+        return pPositions;
     }
 
 
-    private double[] starsPositionsConstructor(StarCatalogue catalogue, EquatorialToHorizontalConversion equatorialToHorizontalConversion, StereographicProjection projection) {
-        int j = 0;
-        double[] sPositions = new double[catalogue.stars().size() * 2];
-        List < Star > stars = catalogue.stars();
-        for (Star s : stars) {
-            CartesianCoordinates coordinates = projection.apply(equatorialToHorizontalConversion.apply(s.equatorialPos()));
-            sPositions[j] = coordinates.x();
-            ++j;
+    private int[] visibleStarIndicesConstructor(StarCatalogue catalogue, VisibleCone cone, double limitingMagnitude) {
+        StarData data = catalogue.data();
+        int count = data.size();
+        // Lorsque le cône couvre plus de la moitié de la sphère, l'écrémage coûterait plus qu'il ne ferait gagner.
+        boolean culled = cone.solidAngleFraction() <= MAX_CULLED_FRACTION;
+        double magnitudeBound = MagnitudeTiers.upperBound(limitingMagnitude);
+        if (!culled && magnitudeBound == Double.POSITIVE_INFINITY) return IntStream.range(0, count).toArray();
+
+        // Étoiles retenues et étoiles des astérismes, marquées dans un ensemble de bits dont le parcours donne directement
+        // les index par ordre croissant.
+        BitSet visible = new BitSet(count);
+        EquatorialCoordinates center = cone.center;
+        double cosDec = Math.cos(center.dec());
+        double x = cosDec * Math.cos(center.ra()), y = cosDec * Math.sin(center.ra()), z = Math.sin(center.dec());
+
+        if (magnitudeBound == Double.POSITIVE_INFINITY) {
+            catalogue.skyIndex().forEachWithin(x, y, z, cone.radius, visible::set);
+        } else {
+            MagnitudeTiers tiers = catalogue.magnitudeTiers();
+            int[] byMagnitude = tiers.byMagnitude();
+            int activeCount = tiers.activeCount(limitingMagnitude);
+            if (!culled) {
+                for (int k = 0; k < activeCount; k++) visible.set(byMagnitude[k]);
+            } else if (activeCount < cone.solidAngleFraction() * count) {
+                // Les paliers actifs comptent moins d'étoiles que le cône : on les parcourt en testant l'appartenance au cône.
+                for (int k = 0; k < activeCount; k++) {
+                    int index = byMagnitude[k];
+                    if (cone.contains(data.ra(index), data.dec(index))) visible.set(index);
+                }
+            } else {
+                catalogue.skyIndex().forEachWithin(x, y, z, cone.radius, index -> {
+                    if (data.magnitude(index) < magnitudeBound) visible.set(index);
+                });
+            }
+        }
+        for (int index : catalogue.asterismStarIndices()) visible.set(index);
+
+        int[] indices = new int[visible.cardinality()];
+        for (int i = 0, index = visible.nextSetBit(0); index >= 0; index = visible.nextSetBit(index + 1)) indices[i++] = index;
+        return indices;
+    }
+
+    private double[] starsPositionsConstructor(StarCatalogue catalogue, int[] visibleStarIndices, PositionBuffers buffers, EquatorialToHorizontalConversion equatorialToHorizontalConversion, StereographicProjection projection) {
 
-            sPositions[j] = coordinates.y();
-            ++j;
+        // Les positions sont projetées en lot directement depuis les colonnes du catalogue, sans objets intermédiaires.
+        StarData data = catalogue.data();
+        double[] sPositions = buffers.stars;
+        buffers.clearStarsExcept(visibleStarIndices);
+        if (visibleStarIndices.length == data.size()) {
+            data.projectPositions(equatorialToHorizontalConversion, projection, sPositions);
+        } else {
+            data.projectPositions(equatorialToHorizontalConversion, projection, visibleStarIndices, sPositions);
         }
 
-        return Arrays.copyOf(sPositions, sPositions.length);
+        return sPositions;
     }
-    private double [] satellitePositionsConstructor (ArtificialSatelliteCatalogue catalogue, EquatorialToHorizontalConversion equatorialToHorizontalConversion, StereographicProjection projection) {
+    private double [] satellitePositionsConstructor (ArtificialSatelliteCatalogue catalogue, double [] sPositions, VisibleCone cone, EquatorialToHorizontalConversion equatorialToHorizontalConversion, StereographicProjection projection) {
         int i= 0;
-        double [] sPositions = new double [catalogue.satellites().size() * 2];
         List <ArtificialSatellite> list = catalogue.satellites();
 
         for (ArtificialSatellite satellite: list) {
+            if (!cone.contains(satellite.coordinates())) {
+                sPositions [i++] = Double.NaN;
+                sPositions [i++] = Double.NaN;
+                continue;
+            }
             CartesianCoordinates coordinates = projection.apply(equatorialToHorizontalConversion.apply(satellite.coordinates()));
             sPositions [i] = coordinates.x();
             i++;
             sPositions [i] = coordinates.y();
             i++;
         }
-        return Arrays.copyOf(sPositions, sPositions.length);
+        return sPositions;
     }
 
-    private double [] ufosPosition (UFOCatalogue ufoCatalogue, EquatorialToHorizontalConversion equatorialToHorizontalConversion, StereographicProjection projection) {
+    private double [] ufosPosition (UFOCatalogue ufoCatalogue, double [] uPostions, VisibleCone cone, EquatorialToHorizontalConversion equatorialToHorizontalConversion, StereographicProjection projection) {
         int i = 0;
 
         List <UFO> ufos = ufoCatalogue.UFOs();
-        double [] uPostions = new double [ufos.size() * 2 ];
 
         for (UFO ufo: ufos) {
+            if (!cone.contains(ufo.coordinates())) {
+                uPostions [i++] = Double.NaN;
+                uPostions [i++] = Double.NaN;
+                continue;
+            }
 
             CartesianCoordinates coordinates = projection.apply(equatorialToHorizontalConversion.apply(ufo.coordinates()));
             uPostions [i] = coordinates.x();
@@ -354,39 +599,48 @@ public final class ObservedSky {
             uPostions [i] = coordinates.y();
             i++;
         }
-        return Arrays.copyOf(uPostions, uPostions.length);
+        return uPostions;
     }
 
+    /**
+     * Cône de la sphère céleste contenant la partie visible du ciel.
+     */
+    private static final class VisibleCone {
+        private final EquatorialCoordinates center;
+        private final double radius;
+        private final double cosRadius;
+
+        private VisibleCone(EquatorialCoordinates center, double radius) {
+            this.center = center;
+            this.radius = radius;
+            this.cosRadius = Math.cos(radius);
+        }
 
-
-    private Map < celestialObjects, CartesianCoordinates[] > celestialObjectsMapConstructor(double[] starPositions, double[] planetPositions, CartesianCoordinates moonPosition, CartesianCoordinates sunPosition) {
-        Map < celestialObjects, CartesianCoordinates[] > map = new HashMap <>();
-
-        CartesianCoordinates[] moonPos = {moonPosition};
-        map.put(celestialObjects.MOON, moonPos);
-
-        CartesianCoordinates[] sunPos = {sunPosition};
-        map.put(celestialObjects.SUN, sunPos);
-
-        CartesianCoordinates[] starPos = new CartesianCoordinates[starPositions.length / 2];
-        for (int i = 0; i < starPositions.length; i = i + 2) {
-            starPos[i / 2] = CartesianCoordinates.of(starPositions[i], starPositions[i + 1]);
+        private boolean coversSky() {
+            return radius >= Math.PI;
         }
-        map.put(celestialObjects.STAR, starPos);
 
-        CartesianCoordinates[] planetPos = new CartesianCoordinates[planetPositions.length / 2];
-        for (int i = 0; i < planetPositions.length; i = i + 2) {
-            planetPos[i / 2] = CartesianCoordinates.of(planetPositions[i], planetPositions[i + 1]);
+        private double solidAngleFraction() {
+            return (1 - cosRadius) / 2;
         }
-        map.put(celestialObjects.PLANET, planetPos);
 
-        return map;
-    }
+        // Vrai si ce cône contient entièrement le cône other.
+        private boolean encloses(VisibleCone other) {
+            if (coversSky()) return true;
+            double cosDistance = Math.sin(other.center.dec()) * Math.sin(center.dec())
+                    + Math.cos(other.center.dec()) * Math.cos(center.dec()) * Math.cos(other.center.ra() - center.ra());
+            return Math.acos(Math.max(-1, Math.min(1, cosDistance))) + other.radius <= radius;
+        }
 
-    private enum celestialObjects {
-        MOON, SUN, STAR, PLANET
+        private boolean contains(EquatorialCoordinates position) {
+            return contains(position.ra(), position.dec());
+        }
 
+        private boolean contains(double ra, double dec) {
+            if (coversSky()) return true;
+            double cosDistance = Math.sin(dec) * Math.sin(center.dec())
+                    + Math.cos(dec) * Math.cos(center.dec()) * Math.cos(ra - center.ra());
+            return cosDistance >= cosRadius;
+        }
     }
-
-
-}
\ No newline at end of file
+}
@@ -1,6 +1,5 @@
 package ch.epfl.rigel.astronomy;
 
-import ch.epfl.rigel.coordinates.EclipticCoordinates;
 import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
 import ch.epfl.rigel.coordinates.EquatorialCoordinates;
 import ch.epfl.rigel.math.Angle;
@@ -41,6 +40,15 @@ public enum  PlanetModel implements CelestialObjectModel < Planet > {
     private static final double TROPIC_YEAR = 365.242191;
     //Vitesse angulaire moyenne de la Terre
     private static final double EARTH_AVERAGE_ANGULAR_SPEED = Angle.TAU / TROPIC_YEAR;
+    // Indices des caractéristiques de la planète dans le tableau rempli par compute, et taille de ce tableau.
+    private static final int RIGHT_ASCENSION = 0;
+    private static final int DECLINATION = 1;
+    private static final int ANGULAR_SIZE = 2;
+    private static final int MAGNITUDE = 3;
+    private static final int STATE_SIZE = 4;
+    // Tableau réutilisé par writeAt, un par fil d'exécution (atAll appelle writeAt depuis plusieurs fils), afin qu'aucun
+    // objet ne soit alloué par instant.
+    private static final ThreadLocal < double[] > WRITE_STATE = ThreadLocal.withInitial(() -> new double[STATE_SIZE]);
 
     /**
      * Caractéristiques d'une planète la caractérisant et permettant de calculer son modèle.
@@ -57,8 +65,6 @@ public enum  PlanetModel implements CelestialObjectModel < Planet > {
     private final double angularSizeAt1UA;
     private final double magnitudeAt1UA;
 
-    private static double EARTH_MEAN_ANOMALY;
-
 
 
 
@@ -102,32 +108,53 @@ public enum  PlanetModel implements CelestialObjectModel < Planet > {
 
     @Override
     public Planet at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
+        // Seuls les termes de l'orbite de la Terre sont calculés, sans construire de contexte (qui calculerait aussi le Soleil).
+        double earthTrueAnomaly = EARTH.trueAnomaly(daysSinceJ2010);
+        return at(daysSinceJ2010, EARTH.orbitRadius(earthTrueAnomaly), EARTH.orbitLongitude(earthTrueAnomaly), eclipticToEquatorialConversion);
+    }
 
+    /**
+     * Calcule le modèle de la planète à partir de l'état héliocentrique de la Terre calculé une seule fois par le contexte.
+     * Aucun état partagé n'est modifié : cette méthode peut être appelée simultanément depuis plusieurs fils.
+     *
+     * @param context contexte de l'instant pour lequel on calcule le modèle, contenant les termes de l'orbite de la Terre.
+     * @return le modèle de la planète pour l'instant du contexte.
+     */
+    Planet at(EphemerisContext context) {
+        return at(context.daysSinceJ2010(), context.earthOrbitRadius(), context.earthOrbitLongitude(), context.eclipticToEquatorialConversion());
+    }
 
-        //Calcul de l'anomalie moyenne de la Terre.
-        EARTH_MEAN_ANOMALY = planetMeanAnomaly(daysSinceJ2010, EARTH.revolutionPeriod, EARTH.longitudeATJ2020, EARTH.perigeeLongitude);
-
-        //Calcul de l'anomalie vraie de la Terre.
-        double earthTrueAnomaly = planetTrueAnomaly(EARTH_MEAN_ANOMALY, EARTH.orbitExcentricity);
-
-        //Calcul du rayon de la Terre dans le plan de son orbite.
-        double earthRadiusOrbitPlan = planetRadiusOrbitPlan(EARTH.orbitSemiAxe, EARTH.orbitExcentricity, earthTrueAnomaly);
-
-        //Calcul de la longitude de la Terre dans le plan de son orbite.
-        double earthLongitudeOrbitPlan = earthTrueAnomaly + EARTH.perigeeLongitude;
+    // Méthode privée calculant la planète, le rayon et la longitude de la Terre dans le plan de son orbite étant donnés.
+    private Planet at(double daysSinceJ2010, double earthRadiusOrbitPlan, double earthLongitudeOrbitPlan, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
+        double[] state = new double[STATE_SIZE];
+        compute(daysSinceJ2010, earthRadiusOrbitPlan, earthLongitudeOrbitPlan, eclipticToEquatorialConversion, state);
+        return new Planet(name, EquatorialCoordinates.of(state[RIGHT_ASCENSION], state[DECLINATION]), (float) state[ANGULAR_SIZE], (float) state[MAGNITUDE]);
+    }
 
+    @Override
+    public void writeAt(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion, EphemerisSeries series, int index) {
+        double earthTrueAnomaly = EARTH.trueAnomaly(daysSinceJ2010);
+        double[] state = WRITE_STATE.get();
+        compute(daysSinceJ2010, EARTH.orbitRadius(earthTrueAnomaly), EARTH.orbitLongitude(earthTrueAnomaly), eclipticToEquatorialConversion, state);
+        series.rightAscensions[index] = state[RIGHT_ASCENSION];
+        series.declinations[index] = state[DECLINATION];
+        series.angularSizes[index] = state[ANGULAR_SIZE];
+        series.magnitudes[index] = state[MAGNITUDE];
+    }
 
-        //Calcul de l'anomalie moyenne de la planète.
-        double planetMeanAnomaly = planetMeanAnomaly(daysSinceJ2010, revolutionPeriod, longitudeATJ2020, perigeeLongitude);
+    // Méthode privée calculant la planète, le rayon et la longitude de la Terre dans le plan de son orbite étant donnés :
+    // son ascension droite, sa déclinaison, sa taille angulaire et sa magnitude sont écrites aux indices RIGHT_ASCENSION,
+    // DECLINATION, ANGULAR_SIZE et MAGNITUDE du tableau donné. Aucun objet n'est alloué.
+    private void compute(double daysSinceJ2010, double earthRadiusOrbitPlan, double earthLongitudeOrbitPlan, EclipticToEquatorialConversion eclipticToEquatorialConversion, double[] state) {
 
         //Calcul de l'anmoalie vrai de la planète.
-        double planetTrueAnomaly = planetTrueAnomaly(planetMeanAnomaly, orbitExcentricity);
+        double planetTrueAnomaly = trueAnomaly(daysSinceJ2010);
 
         //Calcul du rayon de la planète dans le plan de son orbite.
-        double planetRadiusOrbitPlan = planetRadiusOrbitPlan(orbitSemiAxe, orbitExcentricity, planetTrueAnomaly);
+        double planetRadiusOrbitPlan = orbitRadius(planetTrueAnomaly);
 
         //Calcul de la longitude de la planète dans le plan de son orbite.
-        double planetLongitudeOrbitPlan = planetTrueAnomaly + perigeeLongitude;
+        double planetLongitudeOrbitPlan = orbitLongitude(planetTrueAnomaly);
 
         //Calcul de la latitude éclitique héliocentrique.
         double planetEclipticHeliocentricLatitude = asin(sin(planetLongitudeOrbitPlan - nodeLongitude) * sin(orbitTilt));
@@ -147,37 +174,43 @@ public enum  PlanetModel implements CelestialObjectModel < Planet > {
 /**
  * Test si la planète est supérieur ou inférieur puis calcul des coordonnées ecliptiques et  equatoriales, puis de la taille angulaire et enfin de la magnitude afin de construire le modèle.
  */
+        double eclipticGeocentricLongitude;
         if (name.equals("Mercure") || name.equals("Vénus")) {
-
-            double eclipticGeocentricLongitude = Angle.normalizePositive(PI + earthLongitudeOrbitPlan + atan2(planetProjectedRadius * sin(earthLongitudeOrbitPlan - planetProjectedOrbitPlanLongitude), earthRadiusOrbitPlan - (planetProjectedRadius * cos(earthLongitudeOrbitPlan - planetProjectedOrbitPlanLongitude))));
-
-            return calcul(eclipticGeocentricLongitude, planetProjectedRadius, planetEclipticHeliocentricLatitude, planetProjectedOrbitPlanLongitude, planetLongitudeOrbitPlan, planetRadiusOrbitPlan, planetDistanceWithEarth, earthRadiusOrbitPlan, earthLongitudeOrbitPlan, eclipticToEquatorialConversion, angularSize);
-
-
+            eclipticGeocentricLongitude = Angle.normalizePositive(PI + earthLongitudeOrbitPlan + atan2(planetProjectedRadius * sin(earthLongitudeOrbitPlan - planetProjectedOrbitPlanLongitude), earthRadiusOrbitPlan - (planetProjectedRadius * cos(earthLongitudeOrbitPlan - planetProjectedOrbitPlanLongitude))));
         } else {
-            double eclipticGeocentricLongitude = Angle.normalizePositive(planetProjectedOrbitPlanLongitude + atan2(earthRadiusOrbitPlan * sin(planetProjectedOrbitPlanLongitude - earthLongitudeOrbitPlan), planetProjectedRadius - (earthRadiusOrbitPlan * cos(planetProjectedOrbitPlanLongitude - earthLongitudeOrbitPlan))));
-
-            return calcul(eclipticGeocentricLongitude, planetProjectedRadius, planetEclipticHeliocentricLatitude, planetProjectedOrbitPlanLongitude, planetLongitudeOrbitPlan, planetRadiusOrbitPlan, planetDistanceWithEarth, earthRadiusOrbitPlan, earthLongitudeOrbitPlan, eclipticToEquatorialConversion, angularSize);
-
-
+            eclipticGeocentricLongitude = Angle.normalizePositive(planetProjectedOrbitPlanLongitude + atan2(earthRadiusOrbitPlan * sin(planetProjectedOrbitPlanLongitude - earthLongitudeOrbitPlan), planetProjectedRadius - (earthRadiusOrbitPlan * cos(planetProjectedOrbitPlanLongitude - earthLongitudeOrbitPlan))));
         }
 
-
-    }
-
-    private Planet calcul(double eclipticGeocentricLongitude, double planetProjectedRadius, double planetEclipticHeliocentricLatitude, double planetProjectedOrbitPlanLongitude, double planetLongitudeOrbitPlan, double planetRadiusOrbitPlan, double planetDistanceWithEarth, double earthRadiusOrbitPlan, double earthLongitudeOrbitPlan, EclipticToEquatorialConversion eclipticToEquatorialConversion, double angularSize) {
-
         double eclipticGeocentricLatitude = planetEclipticGeocentricLatitude(planetProjectedRadius, planetEclipticHeliocentricLatitude, eclipticGeocentricLongitude, planetProjectedOrbitPlanLongitude, earthRadiusOrbitPlan, earthLongitudeOrbitPlan);
 
-        double magnitude = planetMagnitude(eclipticGeocentricLongitude, planetLongitudeOrbitPlan, planetRadiusOrbitPlan, planetDistanceWithEarth, magnitudeAt1UA);
-
-        EclipticCoordinates eclipticCoordinates = EclipticCoordinates.of(eclipticGeocentricLongitude, eclipticGeocentricLatitude);
-
-        EquatorialCoordinates equatorialCoordinates = eclipticToEquatorialConversion.apply(eclipticCoordinates);
+        state[RIGHT_ASCENSION] = eclipticToEquatorialConversion.rightAscension(eclipticGeocentricLongitude, eclipticGeocentricLatitude);
+        state[DECLINATION] = eclipticToEquatorialConversion.declination(eclipticGeocentricLongitude, eclipticGeocentricLatitude);
+        state[ANGULAR_SIZE] = angularSize;
+        state[MAGNITUDE] = planetMagnitude(eclipticGeocentricLongitude, planetLongitudeOrbitPlan, planetRadiusOrbitPlan, planetDistanceWithEarth, magnitudeAt1UA);
+    }
 
-        return new Planet(name, equatorialCoordinates, (float) angularSize, (float) magnitude);
+    /**
+     * @param daysSinceJ2010 nombre de jours séparant l'époque J2010 et l'instant donné.
+     * @return l'anomalie vraie de la planète à l'instant donné.
+     */
+    double trueAnomaly(double daysSinceJ2010) {
+        return planetTrueAnomaly(planetMeanAnomaly(daysSinceJ2010, revolutionPeriod, longitudeATJ2020, perigeeLongitude), orbitExcentricity);
+    }
 
+    /**
+     * @param trueAnomaly anomalie vraie de la planète.
+     * @return le rayon de la planète dans le plan de son orbite.
+     */
+    double orbitRadius(double trueAnomaly) {
+        return planetRadiusOrbitPlan(orbitSemiAxe, orbitExcentricity, trueAnomaly);
+    }
 
+    /**
+     * @param trueAnomaly anomalie vraie de la planète.
+     * @return la longitude de la planète dans le plan de son orbite.
+     */
+    double orbitLongitude(double trueAnomaly) {
+        return trueAnomaly + perigeeLongitude;
     }
 
     /**
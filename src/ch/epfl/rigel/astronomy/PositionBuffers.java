@@ -0,0 +1,68 @@
+package ch.epfl.rigel.astronomy;
+
+import java.util.Arrays;
+
+/**
+ * Tableaux des positions projetées des objets d'un ciel observé. Deux jeux de tableaux sont utilisés en alternance
+ * (voir ObservedSky.update) : un ciel écrit dans le jeu de l'avant-dernier ciel, tandis que le jeu du dernier ciel reste
+ * valable pour qui le dessine encore. Une animation n'alloue ainsi plus de tableaux de positions.
+ */
+
+final class PositionBuffers {
+
+    final double[] stars;
+    final double[] planets;
+    final double[] satellites;
+    final double[] ufos;
+
+    /**
+     * Index des étoiles dont la position a été écrite dans stars, les autres positions valant NaN ; nul tant que stars
+     * n'a pas été rempli.
+     */
+    int[] projectedStars;
+
+    private PositionBuffers(int starCount, int planetCount, int satelliteCount, int ufoCount) {
+        stars = new double[2 * starCount];
+        planets = new double[2 * planetCount];
+        satellites = new double[2 * satelliteCount];
+        ufos = new double[2 * ufoCount];
+    }
+
+    /**
+     * Retourne un jeu de tableaux pour le nombre d'objets donné : pooled s'il n'est pas nul et a les bonnes tailles,
+     * un nouveau jeu sinon.
+     *
+     * @param pooled         jeu de tableaux à réutiliser (peut être nul)
+     * @param starCount      nombre d'étoiles
+     * @param planetCount    nombre de planètes
+     * @param satelliteCount nombre de satellites
+     * @param ufoCount       nombre d'ovnis
+     * @return le jeu de tableaux à utiliser.
+     */
+    static PositionBuffers reuse(PositionBuffers pooled, int starCount, int planetCount, int satelliteCount, int ufoCount) {
+        if (pooled != null && pooled.stars.length == 2 * starCount && pooled.planets.length == 2 * planetCount
+                && pooled.satellites.length == 2 * satelliteCount && pooled.ufos.length == 2 * ufoCount)
+            return pooled;
+        return new PositionBuffers(starCount, planetCount, satelliteCount, ufoCount);
+    }
+
+    /**
+     * Prépare le tableau des étoiles à recevoir les positions des étoiles d'index donnés, en effaçant (NaN) les positions
+     * des étoiles précédemment écrites qui ne sont plus projetées.
+     *
+     * @param visibleStars index, par ordre croissant, des étoiles qui vont être projetées
+     */
+    void clearStarsExcept(int[] visibleStars) {
+        // Rien n'est à effacer si toutes les positions vont être écrites, ou si ce sont les mêmes étoiles que la dernière fois.
+        boolean allWritten = visibleStars.length == stars.length / 2;
+        if (!allWritten && projectedStars == null) {
+            Arrays.fill(stars, Double.NaN);
+        } else if (!allWritten && projectedStars != visibleStars) {
+            for (int index : projectedStars) {
+                stars[2 * index] = Double.NaN;
+                stars[2 * index + 1] = Double.NaN;
+            }
+        }
+        projectedStars = visibleStars;
+    }
+}
@@ -0,0 +1,168 @@
+package ch.epfl.rigel.astronomy;
+
+import java.util.Arrays;
+
+/**
+ * Grille uniforme sur des positions du plan, données sous la forme d'un tableau de coordonnées x et y entrelacées,
+ * permettant de trouver la position la plus proche d'un point donné en ne parcourant que les cases voisines de ce point.
+ * Les cases sont réparties par hachage dans un nombre fixe de paquets, remplis par un tri par dénombrement :
+ * la construction est linéaire et ne crée que trois tableaux d'entiers.
+ * Les positions dont une coordonnée n'est pas finie sont ignorées.
+ */
+
+final class PositionGrid {
+
+    // Les numéros de case sont bornés afin que les positions très éloignées (proches de l'antipode du centre de projection)
+    // restent représentables ; elles se retrouvent alors dans les cases extrêmes.
+    private static final double MAX_CELL = 1 << 20;
+
+    private final double[] positions;
+    private final double cellSize;
+    private final int mask;
+
+    /**
+     * Les index des positions du paquet b sont entries[bucketStarts[b]] à entries[bucketStarts[b + 1] - 1], par ordre croissant.
+     */
+    private final int[] bucketStarts;
+    private final int[] entries;
+
+    /**
+     * Construit la grille des positions données, qui ne doivent plus être modifiées ensuite.
+     * La taille des cases est choisie pour que, les étoiles étant réparties à peu près uniformément sur la sphère
+     * (la moitié d'entre elles se projetant alors dans le disque de rayon 1), chaque case en contienne environ une.
+     *
+     * @param positions coordonnées des positions : x en 2i et y en 2i + 1 pour la position d'index i
+     */
+    PositionGrid(double[] positions) {
+        this.positions = positions;
+        int count = positions.length / 2;
+        cellSize = Math.sqrt(2 * Math.PI / Math.max(1, count));
+
+        int bucketCount = Integer.highestOneBit(Math.max(1, count)) << 1;
+        mask = bucketCount - 1;
+
+        int[] buckets = new int[count];
+        bucketStarts = new int[bucketCount + 1];
+        for (int i = 0; i < count; i++) {
+            double x = positions[2 * i];
+            double y = positions[2 * i + 1];
+            if (Double.isFinite(x) && Double.isFinite(y)) {
+                buckets[i] = bucket(cell(x), cell(y));
+                bucketStarts[buckets[i] + 1]++;
+            } else {
+                buckets[i] = -1;
+            }
+        }
+        for (int b = 0; b < bucketCount; b++) bucketStarts[b + 1] += bucketStarts[b];
+
+        entries = new int[bucketStarts[bucketCount]];
+        int[] next = Arrays.copyOf(bucketStarts, bucketCount);
+        for (int i = 0; i < count; i++) {
+            if (buckets[i] >= 0) entries[next[buckets[i]]++] = i;
+        }
+    }
+
+    /**
+     * Cherche la position la plus proche du point (x, y), à une distance strictement inférieure à maxDistance.
+     * En cas d'égalité, la position de plus petit index est retournée.
+     *
+     * @param x           abscisse du point
+     * @param y           ordonnée du point
+     * @param maxDistance distance maximale
+     * @return l'index de la position la plus proche, ou -1 s'il n'y en a aucune à une distance inférieure à maxDistance.
+     */
+    int nearest(double x, double y, double maxDistance) {
+        if (!(maxDistance > 0)) return -1;
+
+        int minCellX = cell(x - maxDistance), maxCellX = cell(x + maxDistance);
+        int minCellY = cell(y - maxDistance), maxCellY = cell(y + maxDistance);
+
+        Nearest best = new Nearest(positions, x, y, maxDistance);
+        long cellCount = (long) (maxCellX - minCellX + 1) * (maxCellY - minCellY + 1);
+        if (cellCount > mask) {
+            // Le disque de recherche couvre plus de cases qu'il n'y a de paquets : on parcourt toutes les positions.
+            for (int entry : entries) best.offer(entry);
+        } else {
+            // Les cases sont parcourues par anneaux de plus en plus éloignés de la case du point : après l'anneau k,
+            // les positions restantes sont à une distance d'au moins k fois la taille d'une case, ce qui permet de s'arrêter
+            // dès que la meilleure position trouvée est plus proche. Un paquet pouvant contenir plusieurs des cases parcourues,
+            // il peut être parcouru plusieurs fois, sans conséquence.
+            int cellX = cell(x), cellY = cell(y);
+            int maxRing = Math.max(Math.max(cellX - minCellX, maxCellX - cellX), Math.max(cellY - minCellY, maxCellY - cellY));
+            for (int ring = 0; ring <= maxRing && (ring - 1) * cellSize <= best.distance; ring++) {
+                for (int cx = Math.max(minCellX, cellX - ring); cx <= Math.min(maxCellX, cellX + ring); cx++) {
+                    if (cx == cellX - ring || cx == cellX + ring) {
+                        // Côtés gauche et droit de l'anneau : toute la colonne.
+                        for (int cy = Math.max(minCellY, cellY - ring); cy <= Math.min(maxCellY, cellY + ring); cy++)
+                            offerBucket(best, bucket(cx, cy));
+                    } else {
+                        // Côtés bas et haut de l'anneau : les deux cases extrêmes de la colonne.
+                        if (cellY - ring >= minCellY) offerBucket(best, bucket(cx, cellY - ring));
+                        if (cellY + ring <= maxCellY) offerBucket(best, bucket(cx, cellY + ring));
+                    }
+                }
+            }
+        }
+        return best.index;
+    }
+
+    /**
+     * Comme nearest, mais en parcourant toutes les positions données, sans grille.
+     * Pour une seule recherche, c'est plus rapide que de construire la grille.
+     *
+     * @param positions   coordonnées des positions : x en 2i et y en 2i + 1 pour la position d'index i
+     * @param x           abscisse du point
+     * @param y           ordonnée du point
+     * @param maxDistance distance maximale
+     * @return l'index de la position la plus proche, ou -1 s'il n'y en a aucune à une distance inférieure à maxDistance.
+     */
+    static int nearestByScan(double[] positions, double x, double y, double maxDistance) {
+        Nearest best = new Nearest(positions, x, y, maxDistance);
+        for (int i = 0; i < positions.length / 2; i++) best.offer(i);
+        return best.index;
+    }
+
+    // Méthode privée proposant toutes les positions du paquet donné.
+    private void offerBucket(Nearest best, int b) {
+        for (int e = bucketStarts[b]; e < bucketStarts[b + 1]; e++) best.offer(entries[e]);
+    }
+
+    // Méthode privée retournant le numéro (borné) de la case contenant la coordonnée donnée, sur un des deux axes.
+    private int cell(double coordinate) {
+        return (int) Math.floor(Math.max(-MAX_CELL, Math.min(MAX_CELL, coordinate / cellSize)));
+    }
+
+    // Méthode privée retournant le paquet de la case donnée.
+    private int bucket(int cellX, int cellY) {
+        int hash = cellX * 0x9E3779B9 + cellY * 0x85EBCA6B;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Meilleur candidat trouvé pendant une recherche.
+     */
+    private static final class Nearest {
+        private final double[] positions;
+        private final double x;
+        private final double y;
+        private double distance;
+        private int index = -1;
+
+        private Nearest(double[] positions, double x, double y, double maxDistance) {
+            this.positions = positions;
+            this.x = x;
+            this.y = y;
+            this.distance = maxDistance;
+        }
+
+        private void offer(int candidate) {
+            double dx = positions[2 * candidate] - x;
+            double dy = positions[2 * candidate + 1] - y;
+            double candidateDistance = Math.sqrt(dx * dx + dy * dy);
+            if (candidateDistance < distance || (candidateDistance == distance && index >= 0 && candidate < index)) {
+                distance = candidateDistance;
+                index = candidate;
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package ch.epfl.rigel.astronomy;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import static java.lang.Math.*;
+
+/**
+ * Index hiérarchique des étoiles sur la sphère céleste, fixe par rapport aux étoiles et donc construit une seule fois
+ * par catalogue. La sphère est découpée en cases de même aire selon le schéma HEALPix (numérotation imbriquée) :
+ * 12 cases de base, chacune divisée en 4 à chaque niveau, les cases filles de la case p étant 4p à 4p + 3.
+ * Les étoiles sont triées par case du niveau le plus fin, de sorte que chaque case, à tous les niveaux,
+ * corresponde à un intervalle contigu d'étoiles.
+ * Pour chaque case non vide, on conserve une calotte englobant ses étoiles (centre et rayon angulaire, calculés
+ * à partir des étoiles elles-mêmes), ce qui permet de répondre à une recherche par cône en ne descendant
+ * que dans les cases qui le coupent.
+ */
+
+final class SkyIndex {
+
+    // Nombre moyen d'étoiles visé par case du niveau le plus fin.
+    private static final int STARS_PER_LEAF = 8;
+    private static final int MAX_ORDER = 12;
+    private static final int BASE_CELLS = 12;
+
+    // Marge (en radian) absorbant les erreurs d'arrondi des tests sur les calottes.
+    private static final double EPSILON = 1e-12;
+
+    private final int order;
+
+    /**
+     * Index des étoiles, triés par case du niveau le plus fin, et composantes de leurs vecteurs unitaires dans le même ordre.
+     */
+    private final int[] stars;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+
+    /**
+     * Les étoiles de la case p du niveau le plus fin sont celles d'index stars[leafStarts[p]] à stars[leafStarts[p + 1] - 1].
+     */
+    private final int[] leafStarts;
+
+    /**
+     * Pour chaque niveau, centres (x, y, z entrelacés) et rayons angulaires des calottes englobant les cases ;
+     * le rayon d'une case vide est négatif.
+     */
+    private final double[][] centers;
+    private final double[][] radii;
+
+    /**
+     * Construit l'index des étoiles données.
+     *
+     * @param data les données des étoiles
+     */
+    SkyIndex(StarData data) {
+        int count = data.size();
+        order = orderFor(count);
+        int leafCount = cellCount(order);
+
+        // Case de chaque étoile, puis tri par dénombrement.
+        int[] leaves = new int[count];
+        leafStarts = new int[leafCount + 1];
+        for (int i = 0; i < count; i++) {
+            leaves[i] = cellOf(order, data.ra(i), data.dec(i));
+            leafStarts[leaves[i] + 1]++;
+        }
+        for (int p = 0; p < leafCount; p++) leafStarts[p + 1] += leafStarts[p];
+
+        stars = new int[count];
+        xs = new double[count];
+        ys = new double[count];
+        zs = new double[count];
+        int[] next = Arrays.copyOf(leafStarts, leafCount);
+        for (int i = 0; i < count; i++) {
+            int k = next[leaves[i]]++;
+            double cosDec = cos(data.dec(i));
+            stars[k] = i;
+            xs[k] = cosDec * cos(data.ra(i));
+            ys[k] = cosDec * sin(data.ra(i));
+            zs[k] = sin(data.dec(i));
+        }
+
+        centers = new double[order + 1][];
+        radii = new double[order + 1][];
+        buildLeaves();
+        for (int level = order - 1; level >= 0; level--) buildLevel(level);
+    }
+
+    /**
+     * Appelle action avec l'index de chaque étoile située à une distance angulaire inférieure ou égale à radius
+     * de la direction donnée, dans un ordre quelconque.
+     *
+     * @param x      première composante du vecteur unitaire équatorial de la direction
+     * @param y      deuxième composante
+     * @param z      troisième composante
+     * @param radius rayon angulaire du cône (en radian)
+     * @param action action appelée pour chaque étoile trouvée
+     */
+    void forEachWithin(double x, double y, double z, double radius, IntConsumer action) {
+        double cosRadius = cos(radius);
+        for (int cell = 0; cell < BASE_CELLS; cell++) visit(0, cell, x, y, z, radius, cosRadius, action);
+    }
+
+    /**
+     * @param x      première composante du vecteur unitaire équatorial de la direction
+     * @param y      deuxième composante
+     * @param z      troisième composante
+     * @param radius rayon angulaire du cône (en radian)
+     * @return les index, par ordre croissant, des étoiles situées à une distance angulaire inférieure ou égale à radius
+     * de la direction donnée.
+     */
+    int[] indicesWithin(double x, double y, double z, double radius) {
+        IntStream.Builder found = IntStream.builder();
+        forEachWithin(x, y, z, radius, found);
+        return found.build().sorted().toArray();
+    }
+
+    // Méthode privée récursive visitant la case donnée du niveau donné.
+    private void visit(int level, int cell, double x, double y, double z, double radius, double cosRadius, IntConsumer action) {
+        double cellRadius = radii[level][cell];
+        if (cellRadius < 0) return;
+
+        double[] levelCenters = centers[level];
+        double distance = angle(x, y, z, levelCenters[3 * cell], levelCenters[3 * cell + 1], levelCenters[3 * cell + 2]);
+        if (distance - cellRadius > radius + EPSILON) return;
+
+        int shift = 2 * (order - level);
+        int from = leafStarts[cell << shift];
+        int to = leafStarts[(cell + 1) << shift];
+
+        if (distance + cellRadius < radius - EPSILON) {
+            // La case est entièrement dans le cône : toutes ses étoiles en font partie.
+            for (int k = from; k < to; k++) action.accept(stars[k]);
+        } else if (level == order) {
+            for (int k = from; k < to; k++) {
+                if (xs[k] * x + ys[k] * y + zs[k] * z >= cosRadius) action.accept(stars[k]);
+            }
+        } else {
+            for (int child = 4 * cell; child < 4 * cell + 4; child++) visit(level + 1, child, x, y, z, radius, cosRadius, action);
+        }
+    }
+
+    // Méthode privée calculant les calottes du niveau le plus fin, à partir des étoiles de chaque case.
+    private void buildLeaves() {
+        int leafCount = cellCount(order);
+        double[] levelCenters = new double[3 * leafCount];
+        double[] levelRadii = new double[leafCount];
+        for (int cell = 0; cell < leafCount; cell++) {
+            int from = leafStarts[cell], to = leafStarts[cell + 1];
+            double sx = 0, sy = 0, sz = 0;
+            for (int k = from; k < to; k++) {
+                sx += xs[k];
+                sy += ys[k];
+                sz += zs[k];
+            }
+            double norm = sqrt(sx * sx + sy * sy + sz * sz);
+            if (from == to || norm == 0) {
+                // Case vide, ou dont les étoiles se compensent exactement (cas dégénéré) : centre arbitraire et calotte couvrant tout.
+                levelRadii[cell] = (from == to) ? -1 : PI;
+                levelCenters[3 * cell + 2] = 1;
+                continue;
+            }
+            double cx = sx / norm, cy = sy / norm, cz = sz / norm;
+            double radius = 0;
+            for (int k = from; k < to; k++) radius = max(radius, angle(cx, cy, cz, xs[k], ys[k], zs[k]));
+            levelCenters[3 * cell] = cx;
+            levelCenters[3 * cell + 1] = cy;
+            levelCenters[3 * cell + 2] = cz;
+            levelRadii[cell] = radius;
+        }
+        centers[order] = levelCenters;
+        radii[order] = levelRadii;
+    }
+
+    // Méthode privée calculant les calottes du niveau donné à partir de celles du niveau inférieur : chaque calotte
+    // est centrée sur le barycentre (pondéré par le nombre d'étoiles) des centres de ses filles et les englobe toutes.
+    private void buildLevel(int level) {
+        int cellCount = cellCount(level);
+        int shift = 2 * (order - level - 1);
+        double[] childCenters = centers[level + 1];
+        double[] childRadii = radii[level + 1];
+        double[] levelCenters = new double[3 * cellCount];
+        double[] levelRadii = new double[cellCount];
+
+        for (int cell = 0; cell < cellCount; cell++) {
+            double sx = 0, sy = 0, sz = 0;
+            for (int child = 4 * cell; child < 4 * cell + 4; child++) {
+                if (childRadii[child] < 0) continue;
+                int weight = leafStarts[(child + 1) << shift] - leafStarts[child << shift];
+                sx += weight * childCenters[3 * child];
+                sy += weight * childCenters[3 * child + 1];
+                sz += weight * childCenters[3 * child + 2];
+            }
+            double norm = sqrt(sx * sx + sy * sy + sz * sz);
+            boolean empty = leafStarts[(4 * cell + 4) << shift] == leafStarts[(4 * cell) << shift];
+            if (empty || norm == 0) {
+                levelRadii[cell] = empty ? -1 : PI;
+                levelCenters[3 * cell + 2] = 1;
+                continue;
+            }
+            double cx = sx / norm, cy = sy / norm, cz = sz / norm;
+            double radius = 0;
+            for (int child = 4 * cell; child < 4 * cell + 4; child++) {
+                if (childRadii[child] < 0) continue;
+                double distance = angle(cx, cy, cz, childCenters[3 * child], childCenters[3 * child + 1], childCenters[3 * child + 2]);
+                radius = max(radius, distance + childRadii[child]);
+            }
+            levelCenters[3 * cell] = cx;
+            levelCenters[3 * cell + 1] = cy;
+            levelCenters[3 * cell + 2] = cz;
+            levelRadii[cell] = min(radius, PI);
+        }
+        centers[level] = levelCenters;
+        radii[level] = levelRadii;
+    }
+
+    /**
+     * Retourne la case HEALPix (numérotation imbriquée) du niveau donné contenant la position donnée.
+     *
+     * @param order niveau (le côté d'une case de base y est divisé en 2^order)
+     * @param ra    ascension droite (en radian)
+     * @param dec   déclinaison (en radian)
+     * @return le numéro de la case, entre 0 (inclus) et 12 * 4^order (exclus).
+     */
+    static int cellOf(int order, double ra, double dec) {
+        int nSide = 1 << order;
+        double z = sin(dec);
+        double za = abs(z);
+        // Ascension droite ramenée dans [0, 4[, en quarts de tour.
+        double tt = (ra % (2 * PI) + 2 * PI) % (2 * PI) * (2 / PI);
+        if (tt >= 4) tt = 0;
+
+        int face, ix, iy;
+        if (za <= 2.0 / 3) {
+            // Zone équatoriale.
+            double temp1 = nSide * (0.5 + tt);
+            double temp2 = nSide * (z * 0.75);
+            int jp = (int) (temp1 - temp2);
+            int jm = (int) (temp1 + temp2);
+            int ifp = jp >> order;
+            int ifm = jm >> order;
+            face = (ifp == ifm) ? (ifp | 4) : ((ifp < ifm) ? ifp : (ifm + 8));
+            ix = jm & (nSide - 1);
+            iy = nSide - (jp & (nSide - 1)) - 1;
+        } else {
+            // Calottes polaires.
+            int ntt = min(3, (int) tt);
+            double tp = tt - ntt;
+            double tmp = nSide * sqrt(3 * (1 - za));
+            int jp = min(nSide - 1, (int) (tp * tmp));
+            int jm = min(nSide - 1, (int) ((1 - tp) * tmp));
+            if (z >= 0) {
+                face = ntt;
+                ix = nSide - jm - 1;
+                iy = nSide - jp - 1;
+            } else {
+                face = ntt + 8;
+                ix = jp;
+                iy = jm;
+            }
+        }
+        return (face << (2 * order)) + spreadBits(ix) + (spreadBits(iy) << 1);
+    }
+
+    // Méthode privée intercalant un zéro entre chaque bit de v (v < 2^16).
+    private static int spreadBits(int v) {
+        v = (v | (v << 8)) & 0x00FF00FF;
+        v = (v | (v << 4)) & 0x0F0F0F0F;
+        v = (v | (v << 2)) & 0x33333333;
+        v = (v | (v << 1)) & 0x55555555;
+        return v;
+    }
+
+    // Méthode privée retournant le niveau le plus fin adapté au nombre d'étoiles donné.
+    private static int orderFor(int count) {
+        int order = 0;
+        while (order < MAX_ORDER && cellCount(order + 1) * STARS_PER_LEAF <= count) order++;
+        return order;
+    }
+
+    private static int cellCount(int order) {
+        return BASE_CELLS << (2 * order);
+    }
+
+    // Méthode privée retournant l'angle entre deux vecteurs unitaires, calculé avec atan2 pour rester précis aux petits angles.
+    private static double angle(double ax, double ay, double az, double bx, double by, double bz) {
+        double cx = ay * bz - az * by;
+        double cy = az * bx - ax * bz;
+        double cz = ax * by - ay * bx;
+        return atan2(sqrt(cx * cx + cy * cy + cz * cz), ax * bx + ay * by + az * bz);
+    }
+}
@@ -3,6 +3,7 @@ package ch.epfl.rigel.astronomy;
 import ch.epfl.rigel.Preconditions;
 import ch.epfl.rigel.coordinates.EquatorialCoordinates;
 import ch.epfl.rigel.math.ClosedInterval;
+import ch.epfl.rigel.math.MathematicalCalculus;
 
 /**
  * Représente une étoile.
@@ -12,6 +13,11 @@ import ch.epfl.rigel.math.ClosedInterval;
 public final class Star extends CelestialObject {
 
     private final static ClosedInterval COLOR_INDEX_INTERVAL = ClosedInterval.of(-0.5, 5.5);
+
+    /**
+     * Nombre de paliers de couleur : un par centaine de degrés Kelvin, de 1000 K à 40000 K (voir colorBucket).
+     */
+    public final static int COLOR_BUCKET_COUNT = 391;
     /**
      * Attributs représentants respectivement le numéro Hipparcos de l'étoile, l'index de couleur, et la couleur de l'étoile.
      */
@@ -53,14 +59,54 @@ public final class Star extends CelestialObject {
         return hipparcosId;
     }
 
+    /**
+     * Retourne l'indice de couleur B-V de l'étoile.
+     *
+     * @return l'indice de couleur de l'étoile.
+     */
+    public float colorIndex() {
+        return colorIndex;
+    }
+
     /**
      * Retourne la température de couleur de l'étoile, en degrés Kelvin, arrondie par défaut (c-à-d à l'entier inférieur le plus proche).
      *
      * @returnla couleur de l'étoile.
      */
     public int colorTemperature() {
+        return colorTemperature(colorIndex);
+    }
+
+    /**
+     * Retourne la température de couleur, en degrés Kelvin, correspondant à l'indice de couleur donné.
+     * Elle est utilisée pour remplir la colonne des températures d'un catalogue sans construire les étoiles.
+     *
+     * @param colorIndex indice de couleur B-V
+     * @return la température de couleur, arrondie par défaut.
+     */
+    static int colorTemperature(float colorIndex) {
         double variable = 0.92 * colorIndex;
         return (int) ((4600 * ((1 / (variable + 1.7)) + (1 / (variable + 0.62)))));
 
     }
+
+    /**
+     * Retourne le palier de couleur de l'étoile, c-à-d l'index de sa couleur dans la table des couleurs des corps noirs.
+     *
+     * @return le palier de couleur de l'étoile.
+     */
+    public int colorBucket() {
+        return colorBucket(colorTemperature());
+    }
+
+    /**
+     * Retourne le palier de couleur correspondant à la température donnée : la température arrondie à la centaine la plus
+     * proche, moins 1000, divisée par 100. Les températures de 1000 K à 40000 K ont ainsi les paliers 0 à COLOR_BUCKET_COUNT - 1.
+     *
+     * @param colorTemperature température de couleur, en degrés Kelvin, comprise entre 1000 et 40000
+     * @return le palier de couleur.
+     */
+    public static int colorBucket(float colorTemperature) {
+        return (MathematicalCalculus.roundToNearestHundred(colorTemperature) - 1000) / 100;
+    }
 }
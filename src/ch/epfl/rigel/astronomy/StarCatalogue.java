@@ -1,7 +1,14 @@
 package ch.epfl.rigel.astronomy;
 
+import ch.epfl.rigel.Preconditions;
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -18,33 +25,203 @@ import java.util.*;
 public final class StarCatalogue {
 
     private final List < Star > stars;
+    private final StarData data;
     private final Map < Asterism, List < Integer > > map = new HashMap <>();
 
+    // Index (triés et sans doublons) des étoiles appartenant à au moins un astérisme.
+    private final int[] asterismStarIndices;
+
+    // Segments de tous les astérismes, sous forme de paires d'index d'étoiles : le segment k relie les étoiles d'index
+    // asterismSegments[2k] et asterismSegments[2k + 1].
+    private final int[] asterismSegments;
+
+    // Index des étoiles sur la sphère céleste, construit à la première recherche par cône.
+    private volatile SkyIndex skyIndex;
+
+    // Étoiles triées par magnitude et regroupées en paliers, construits à la première sélection par magnitude limite.
+    private volatile MagnitudeTiers magnitudeTiers;
+
     public StarCatalogue(List < Star > stars, List < Asterism > asterisms) {
+        this(new ColumnStarData(List.copyOf(stars)), asterisms);
+    }
 
-        this.stars = List.copyOf(stars);
-        Map < Star, Integer > starIntegerMap = new HashMap <>();
-        for (Star star : stars) {
-            starIntegerMap.put(star, stars.indexOf(star));
-        }
+    // Constructeur privé commun au catalogue en mémoire et au catalogue projeté en mémoire.
+    private StarCatalogue(StarData data, List < Asterism > asterisms) {
+
+        this.data = data;
+        this.stars = (data instanceof ColumnStarData) ? ((ColumnStarData) data).stars() : new StarListView(data);
+        // La table associant les numéros Hipparcos aux index est construite en une seule passe sur les données.
+        // Elle n'est construite que s'il y a des astérismes, ce qui évite de lire toute la colonne d'un catalogue projeté en mémoire.
+        HipparcosIndex hipparcosIndex = asterisms.isEmpty() ? null : HipparcosIndex.of(data);
 
         // Boucle remplissant la table associative
-        // Si une étoile de l'astérisme a se trouve dans la List stars alors on ajoute son index à la List indices
+        // Chaque étoile de l'astérisme a est retrouvée par son numéro Hipparcos, et son index est ajouté à la List indices
+        // L'étoile trouvée doit être celle de l'astérisme (ou lui être identique) : un numéro Hipparcos partagé par une autre
+        // étoile du catalogue ne suffit pas
         for (Asterism a : asterisms) {
             List < Integer > indices = new ArrayList <>();
             for (Star s : a.stars()) {
-                if (!starIntegerMap.containsKey(s)) throw new IllegalArgumentException();
-                indices.add(starIntegerMap.get(s));
+                int index = hipparcosIndex.indexOf(s.hipparcosId());
+                if (index < 0 || !sameStar(stars.get(index), s)) throw new IllegalArgumentException();
+                indices.add(index);
             }
             map.put(a, indices);
         }
+
+        asterismStarIndices = map.values().stream()
+                .flatMap(List::stream)
+                .mapToInt(Integer::intValue)
+                .sorted()
+                .distinct()
+                .toArray();
+
+        int segmentCount = 0;
+        for (List < Integer > indices : map.values()) segmentCount += Math.max(0, indices.size() - 1);
+        asterismSegments = new int[2 * segmentCount];
+        int k = 0;
+        for (List < Integer > indices : map.values()) {
+            for (int j = 1; j < indices.size(); j++) {
+                asterismSegments[k++] = indices.get(j - 1);
+                asterismSegments[k++] = indices.get(j);
+            }
+        }
+    }
+
+    // Vrai si les deux étoiles sont la même, ou ont les mêmes attributs.
+    private static boolean sameStar(Star a, Star b) {
+        return a == b || (a.hipparcosId() == b.hipparcosId() && a.name().equals(b.name())
+                && a.equatorialPos().ra() == b.equatorialPos().ra() && a.equatorialPos().dec() == b.equatorialPos().dec()
+                && a.magnitude() == b.magnitude() && a.colorIndex() == b.colorIndex());
+    }
+
+    /**
+     * Construit un catalogue, sans astérismes, dont les étoiles restent dans un instantané binaire projeté en mémoire
+     * (voir BinaryStarDatabaseWriter). Seules les étoiles effectivement demandées sont construites.
+     * Ce catalogue est destiné aux catalogues profonds qui ne tiennent pas dans le tas sous forme d'objets Star.
+     *
+     * @param snapshot chemin de l'instantané binaire
+     * @return le catalogue projeté en mémoire
+     * @throws IOException si le fichier ne peut être projeté ou ne contient pas un instantané valide
+     */
+    public static StarCatalogue mapped(Path snapshot) throws IOException {
+        return new StarCatalogue(new MappedStarData(snapshot), List.of());
     }
 
     /**
-     * @return la List des étoiles du catalogue
+     * @return la List des étoiles du catalogue (non modifiable)
      */
     public List < Star > stars() {
-        return List.copyOf(stars);
+        return stars;
+    }
+
+    /**
+     * Les colonnes suivantes sont des vues en lecture seule, remplies une seule fois à la construction du catalogue :
+     * l'élément d'index i correspond à l'étoile d'index i de stars(). Chaque appel retourne une nouvelle vue.
+     *
+     * @return la colonne des ascensions droites (en radian).
+     */
+    public DoubleBuffer raColumn() {
+        return data.raColumn();
+    }
+
+    /**
+     * @return la colonne des déclinaisons (en radian).
+     */
+    public DoubleBuffer decColumn() {
+        return data.decColumn();
+    }
+
+    /**
+     * @return la colonne des magnitudes.
+     */
+    public FloatBuffer magnitudeColumn() {
+        return data.magnitudeColumn();
+    }
+
+    /**
+     * @return la colonne des températures de couleur (en degrés Kelvin).
+     */
+    public IntBuffer colorTemperatureColumn() {
+        return data.colorTemperatureColumn();
+    }
+
+    /**
+     * @return la colonne des paliers de couleur, calculés au chargement du catalogue (voir Star.colorBucket).
+     */
+    public IntBuffer colorBucketColumn() {
+        return data.colorBucketColumn();
+    }
+
+    /**
+     * @return la colonne des numéros Hipparcos.
+     */
+    public IntBuffer hipparcosIdColumn() {
+        return data.hipparcosIdColumn();
+    }
+
+    /**
+     * @return les données des étoiles du catalogue, accessibles par index.
+     */
+    StarData data() {
+        return data;
+    }
+
+    /**
+     * Retourne les étoiles situées à une distance angulaire inférieure ou égale à radius de la position donnée
+     * (recherche par cône). Seules les cases de l'index hiérarchique du catalogue qui coupent le cône sont parcourues.
+     *
+     * @param center centre du cône
+     * @param radius rayon angulaire du cône (en radian)
+     * @return les index, par ordre croissant, des étoiles du cône dans la liste stars()
+     * @throws IllegalArgumentException si le rayon est négatif
+     */
+    public int[] starIndicesWithin(EquatorialCoordinates center, double radius) {
+        Preconditions.checkArgument(radius >= 0);
+        double cosDec = Math.cos(center.dec());
+        return skyIndex().indicesWithin(cosDec * Math.cos(center.ra()), cosDec * Math.sin(center.ra()), Math.sin(center.dec()), radius);
+    }
+
+    /**
+     * @return les index, par ordre croissant, des étoiles appartenant à au moins un astérisme (à ne pas modifier).
+     */
+    int[] asterismStarIndices() {
+        return asterismStarIndices;
+    }
+
+    /**
+     * @return l'index hiérarchique des étoiles sur la sphère céleste, construit une seule fois par catalogue.
+     * Deux fils peuvent le construire en même temps, mais ils construisent alors le même index.
+     */
+    SkyIndex skyIndex() {
+        SkyIndex index = skyIndex;
+        if (index == null) {
+            index = new SkyIndex(data);
+            skyIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * @return les étoiles du catalogue triées par magnitude et regroupées en paliers, construits une seule fois par catalogue.
+     */
+    MagnitudeTiers magnitudeTiers() {
+        MagnitudeTiers tiers = magnitudeTiers;
+        if (tiers == null) {
+            tiers = new MagnitudeTiers(data);
+            magnitudeTiers = tiers;
+        }
+        return tiers;
+    }
+
+    /**
+     * Retourne les segments de tous les astérismes, calculés une fois pour toutes à la construction du catalogue : les
+     * éléments d'index 2k et 2k + 1 sont les index (dans stars()) des étoiles reliées par le segment k. Permet de dessiner
+     * les astérismes sans passer par asterisms() et asterismIndices(), qui copient leurs résultats à chaque appel.
+     *
+     * @return une vue en lecture seule des segments des astérismes (une nouvelle vue à chaque appel).
+     */
+    public IntBuffer asterismSegments() {
+        return IntBuffer.wrap(asterismSegments).asReadOnlyBuffer();
     }
 
     /**
@@ -91,6 +268,9 @@ public final class StarCatalogue {
         private List < Star > s;
         private List < Asterism > a;
 
+        // Étoiles données par colonnes (voir addStars), tant qu'aucune étoile n'a été ajoutée une à une ; nul sinon.
+        private ColumnStarData columns;
+
         public Builder() {
             s = new ArrayList <>();
             a = new ArrayList <>();
@@ -103,15 +283,47 @@ public final class StarCatalogue {
          * @return le bâtisseur juste après l'ajout de l'étoile passée en argument
          */
         public Builder addStar(Star star) {
+            if (columns != null) {
+                s.addAll(columns.stars());
+                columns = null;
+            }
             s.add(star);
             return this;
         }
 
+        /**
+         * Ajoute au bâtisseur les étoiles données par colonnes. Si le bâtisseur ne contient encore aucune étoile, les colonnes
+         * sont reprises telles quelles par le catalogue, dont les étoiles ne sont construites qu'à la demande ; sinon, les
+         * étoiles sont construites et ajoutées une à une.
+         *
+         * @param stars colonnes des étoiles à ajouter
+         * @return le bâtisseur juste après l'ajout des étoiles
+         */
+        Builder addStars(ColumnStarData stars) {
+            if (s.isEmpty() && columns == null) {
+                columns = stars;
+            } else {
+                for (Star star : stars.stars()) addStar(star);
+            }
+            return this;
+        }
+
         /**
          * @return une vue non modifiable de la List d'étoiles du bâtisseur
          */
         public List < Star > stars() {
-            return Collections.unmodifiableList(s);
+            return (columns != null) ? columns.stars() : Collections.unmodifiableList(s);
+        }
+
+        /**
+         * @return la table associant les numéros Hipparcos des étoiles du bâtisseur à leur index dans stars(), construite
+         * sans construire les étoiles données par colonnes.
+         */
+        HipparcosIndex hipparcosIndex() {
+            if (columns != null) return HipparcosIndex.of(columns);
+            HipparcosIndex index = new HipparcosIndex(s.size());
+            for (int i = 0; i < s.size(); i++) index.add(s.get(i).hipparcosId(), i);
+            return index;
         }
 
         /**
@@ -146,8 +358,31 @@ public final class StarCatalogue {
         }
 
         public StarCatalogue build() {
-            return new StarCatalogue(s, a);
+            return (columns != null) ? new StarCatalogue(columns, a) : new StarCatalogue(s, a);
         }
 
     }
+
+    /**
+     * Vue non modifiable des étoiles, chaque étoile n'étant construite qu'au moment où on y accède.
+     */
+    private static final class StarListView extends AbstractList < Star > implements RandomAccess {
+
+        private final StarData data;
+
+        private StarListView(StarData data) {
+            this.data = data;
+        }
+
+        @Override
+        public Star get(int index) {
+            Objects.checkIndex(index, data.size());
+            return data.star(index);
+        }
+
+        @Override
+        public int size() {
+            return data.size();
+        }
+    }
 }
\ No newline at end of file
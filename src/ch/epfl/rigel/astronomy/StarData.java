@@ -0,0 +1,122 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialToHorizontalConversion;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Interface représentant les données des étoiles d'un catalogue, accessibles par index.
+ * Elle permet de lire les caractéristiques d'une étoile sans forcément construire l'objet Star correspondant.
+ */
+
+interface StarData {
+
+    /**
+     * @return le nombre d'étoiles.
+     */
+    int size();
+
+    /**
+     * @param index index de l'étoile
+     * @return le numéro Hipparcos de l'étoile d'index donné.
+     */
+    int hipparcosId(int index);
+
+    /**
+     * @param index index de l'étoile
+     * @return l'ascension droite (en radian) de l'étoile d'index donné.
+     */
+    double ra(int index);
+
+    /**
+     * @param index index de l'étoile
+     * @return la déclinaison (en radian) de l'étoile d'index donné.
+     */
+    double dec(int index);
+
+    /**
+     * @param index index de l'étoile
+     * @return la magnitude de l'étoile d'index donné.
+     */
+    float magnitude(int index);
+
+    /**
+     * @param index index de l'étoile
+     * @return l'indice de couleur de l'étoile d'index donné.
+     */
+    float colorIndex(int index);
+
+    /**
+     * @param index index de l'étoile
+     * @return la température de couleur (en degrés Kelvin) de l'étoile d'index donné.
+     */
+    int colorTemperature(int index);
+
+    /**
+     * @param index index de l'étoile
+     * @return le palier de couleur de l'étoile d'index donné (voir Star.colorBucket).
+     */
+    int colorBucket(int index);
+
+    /**
+     * @param index index de l'étoile
+     * @return l'étoile d'index donné.
+     */
+    Star star(int index);
+
+    /**
+     * Projette dans le plan les positions de toutes les étoiles, en une seule passe (voir StereographicProjection.projectAll).
+     *
+     * @param conversion conversion des coordonnées équatoriales vers les coordonnées horizontales
+     * @param projection projection stéréographique
+     * @param outXY      tableau recevant les coordonnées x et y de l'étoile d'index i en 2i et 2i + 1
+     */
+    void projectPositions(EquatorialToHorizontalConversion conversion, StereographicProjection projection, double[] outXY);
+
+    /**
+     * Comme projectPositions, mais en ne projetant que les étoiles dont l'index est donné ;
+     * les autres cases de outXY ne sont pas modifiées.
+     *
+     * @param conversion conversion des coordonnées équatoriales vers les coordonnées horizontales
+     * @param projection projection stéréographique
+     * @param indices    index des étoiles à projeter
+     * @param outXY      tableau recevant les coordonnées x et y de l'étoile d'index i en 2i et 2i + 1
+     */
+    void projectPositions(EquatorialToHorizontalConversion conversion, StereographicProjection projection, int[] indices, double[] outXY);
+
+    /**
+     * Les méthodes suivantes retournent des vues en lecture seule sur les colonnes complètes, l'élément d'index i
+     * correspondant à l'étoile d'index i. Chaque appel retourne une nouvelle vue, dont la position est propre à l'appelant.
+     *
+     * @return la colonne des ascensions droites (en radian).
+     */
+    DoubleBuffer raColumn();
+
+    /**
+     * @return la colonne des déclinaisons (en radian).
+     */
+    DoubleBuffer decColumn();
+
+    /**
+     * @return la colonne des magnitudes.
+     */
+    FloatBuffer magnitudeColumn();
+
+    /**
+     * @return la colonne des températures de couleur (en degrés Kelvin).
+     */
+    IntBuffer colorTemperatureColumn();
+
+    /**
+     * @return la colonne des paliers de couleur (voir Star.colorBucket).
+     */
+    IntBuffer colorBucketColumn();
+
+    /**
+     * @return la colonne des numéros Hipparcos.
+     */
+    IntBuffer hipparcosIdColumn();
+}
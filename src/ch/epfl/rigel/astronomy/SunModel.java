@@ -36,6 +36,9 @@ public enum SunModel implements CelestialObjectModel < Sun > {
     // Année tropique, vitesse angulaire moyenne de rotation de la Terre autour du Soleil.
     private final static double TROPIC_YEAR = Angle.TAU * 1 / 365.242191;
 
+    // Magnitude du Soleil (voir Sun).
+    private final static float SUN_MAGNITUDE = -26.7f;
+
 
     /**
      * Retourne le soleil modélisé par le modèle pour le nombre (éventuellement négatif) de jours après l'époque J2010 donné, en utilisant la conversion donnée pour obtenir ses coordonnées équatoriales à partir de ses coordonnées écliptiques.
@@ -49,16 +52,16 @@ public enum SunModel implements CelestialObjectModel < Sun > {
     public Sun at(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion) {
 
         // Calcul de l'anomalie moyenne.
-        double meanAnomaly = TROPIC_YEAR * daysSinceJ2010 + (LONGITUDE_AT_J2010 - LONGITUDE_AT_PERIGEE);
+        double meanAnomaly = meanAnomaly(daysSinceJ2010);
 
         // Calcul de l'anomalie vraie.
-        double trueAnomaly = meanAnomaly + 2 * ORBIT_EXCENTRICITY * sin(meanAnomaly);
+        double trueAnomaly = trueAnomaly(meanAnomaly);
 
         // Calcul de la taille angulaire.
-        double angularSize = THETA0 * (((1 + ORBIT_EXCENTRICITY * cos(trueAnomaly)) / ((1 - pow(ORBIT_EXCENTRICITY, 2)))));
+        double angularSize = angularSize(trueAnomaly);
 
         //Calcul de la longitude écliptique du Soleil, normalisé à l'intervalle [0;TAU] pour pouvoir ensuite être convertie.
-        double eclipticLongitude = Angle.normalizePositive(trueAnomaly + LONGITUDE_AT_PERIGEE);
+        double eclipticLongitude = eclipticLongitude(trueAnomaly);
 
         // On créer des coordonnées ecliptique qui vont permettre de créer le modèle du Soleil.
         EclipticCoordinates eclipticCoordinates = EclipticCoordinates.of(eclipticLongitude, 0);
@@ -72,4 +75,43 @@ public enum SunModel implements CelestialObjectModel < Sun > {
 
     }
 
+    @Override
+    public void writeAt(double daysSinceJ2010, EclipticToEquatorialConversion eclipticToEquatorialConversion, EphemerisSeries series, int index) {
+        double trueAnomaly = trueAnomaly(meanAnomaly(daysSinceJ2010));
+        double eclipticLongitude = eclipticLongitude(trueAnomaly);
+
+        series.rightAscensions[index] = eclipticToEquatorialConversion.rightAscension(eclipticLongitude, 0);
+        series.declinations[index] = eclipticToEquatorialConversion.declination(eclipticLongitude, 0);
+        series.angularSizes[index] = angularSize(trueAnomaly);
+        series.magnitudes[index] = SUN_MAGNITUDE;
+    }
+
+    /**
+     * @param daysSinceJ2010 nombre de jours depuis l'époque J2010
+     * @return l'anomalie moyenne du Soleil à cet instant.
+     */
+    static double meanAnomaly(double daysSinceJ2010) {
+        return TROPIC_YEAR * daysSinceJ2010 + (LONGITUDE_AT_J2010 - LONGITUDE_AT_PERIGEE);
+    }
+
+    /**
+     * @param trueAnomaly anomalie vraie du Soleil
+     * @return la longitude écliptique du Soleil, normalisée à l'intervalle [0;TAU].
+     */
+    static double eclipticLongitude(double trueAnomaly) {
+        return Angle.normalizePositive(trueAnomaly + LONGITUDE_AT_PERIGEE);
+    }
+
+    /**
+     * @param meanAnomaly anomalie moyenne du Soleil
+     * @return l'anomalie vraie du Soleil.
+     */
+    static double trueAnomaly(double meanAnomaly) {
+        return meanAnomaly + 2 * ORBIT_EXCENTRICITY * sin(meanAnomaly);
+    }
+
+    private static double angularSize(double trueAnomaly) {
+        return THETA0 * (((1 + ORBIT_EXCENTRICITY * cos(trueAnomaly)) / ((1 - pow(ORBIT_EXCENTRICITY, 2)))));
+    }
+
 }
\ No newline at end of file
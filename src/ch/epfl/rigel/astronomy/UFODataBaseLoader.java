@@ -1,13 +1,11 @@
 package ch.epfl.rigel.astronomy;
 
-import java.io.BufferedReader;
+import ch.epfl.rigel.CsvTokenizer;
+
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.time.*;
 
-import static java.nio.charset.StandardCharsets.US_ASCII;
-
 /**
  * Enum représentant un chargeur de catalogue content les ufos.
  */
@@ -18,14 +16,12 @@ public enum  UFODataBaseLoader implements UFOCatalogue.Loader {
 
     @Override
     public void load(InputStream inputStream, UFOCatalogue.Builder builder) throws IOException {
-        try (BufferedReader in = new BufferedReader(new InputStreamReader(inputStream, US_ASCII))) {
+        try (CsvTokenizer in = new CsvTokenizer(inputStream)) {
 
             String country;
             String city;
             double secondDuration;
             ZonedDateTime zonedDateTime;
-            String[] splittedLine;
-            String line;
             String [] wholeDate;
             String [] yearAndHour;
             String [] hourTab;
@@ -37,15 +33,13 @@ public enum  UFODataBaseLoader implements UFOCatalogue.Loader {
             double lon;
             double lat;
 
-            in.readLine();
-
+            in.nextLine();
 
-            while ((line=in.readLine())!= null) {
 
-                splittedLine = line.split(",");
+            while (in.nextLine()) {
 
                 //Split le jour le mois et l'année séparées par / l'année est stockée avec l'heure.
-                wholeDate = splittedLine [0].split("/");
+                wholeDate = in.string(0).split("/");
 
                 //Le mois et le jour correspondent aux deux premières du tableau.
                 month = Integer.parseInt(wholeDate[0]);
@@ -65,21 +59,21 @@ public enum  UFODataBaseLoader implements UFOCatalogue.Loader {
 
                 minute = Integer.parseInt(hourTab[1]);
 
-                country = splittedLine[3];
+                country = in.string(3);
 
-                city = splittedLine[1] + ", " + country;
+                city = in.string(1) + ", " + country;
 
-                secondDuration = Double.parseDouble(splittedLine[5]);
+                secondDuration = in.parseDouble(5);
 
-                lon = Double.parseDouble(splittedLine[10]);
+                lon = in.parseDouble(10);
 
-                lat = Double.parseDouble(splittedLine[9]);
+                lat = in.parseDouble(9);
 
 
 
                 zonedDateTime =ZonedDateTime.of(LocalDate.of(year, Month.of(month), day), LocalTime.of(hour, minute), ZoneOffset.UTC);
 
-                if (!(splittedLine[4].isEmpty() && splittedLine [10].isEmpty() && splittedLine [9].isEmpty() ))
+                if (!(in.isEmpty(4) && in.isEmpty(10) && in.isEmpty(9)))
 
                 builder.addSatellite(new UFO(city, zonedDateTime, secondDuration, Math.abs(lon), lat));
 
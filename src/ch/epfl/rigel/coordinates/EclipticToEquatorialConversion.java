@@ -8,6 +8,7 @@ import java.time.ZonedDateTime;
 import java.util.function.Function;
 
 import static ch.epfl.rigel.astronomy.Epoch.J2000;
+import static ch.epfl.rigel.astronomy.Epoch.J2010;
 import static java.lang.Math.*;
 
 /**
@@ -19,6 +20,15 @@ import static java.lang.Math.*;
 public final class EclipticToEquatorialConversion implements Function < EclipticCoordinates, EquatorialCoordinates > {
 
     private final static Polynomial OBLIQUITY_POLYNOMIAL = Polynomial.of(Angle.ofArcsec(0.00181), Angle.ofArcsec(-0.0006), Angle.ofArcsec(-46.815), Angle.ofDMS(23, 26, 21.45));
+
+    // Nombre de jours entre les époques J2000 et J2010, et nombre de jours par siècle julien.
+    private final static double J2010_DAYS_AFTER_J2000 = J2000.daysUntil(J2010);
+    private final static double DAYS_PER_JULIAN_CENTURY = 36525;
+
+    // Différence d'obliquité en deçà de laquelle une conversion est réutilisée (environ un jour de variation).
+    private final static double OBLIQUITY_TOLERANCE = Angle.ofArcsec(0.001);
+
+    private final double obliquity;
     private final double cosObliquity;
     private final double sinObliquity;
 
@@ -30,16 +40,46 @@ public final class EclipticToEquatorialConversion implements Function < Ecliptic
      */
 
     public EclipticToEquatorialConversion(ZonedDateTime when) {
-        double T = J2000.julianCenturiesUntil(when);
-        /**
-         * Dans ces attributs privés et finaux sont stockées des valeurs dont le calcul est effectué dans le constructeur de la classe
-         * du fait qu'elle ne dépendent pas des valeurs à convertir
-         */
-        double obliquity = OBLIQUITY_POLYNOMIAL.at(T);
+        this(OBLIQUITY_POLYNOMIAL.at(J2000.julianCenturiesUntil(when)));
+    }
+
+    /**
+     * Dans ces attributs privés et finaux sont stockées des valeurs dont le calcul est effectué dans le constructeur de la classe
+     * du fait qu'elle ne dépendent pas des valeurs à convertir
+     */
+    private EclipticToEquatorialConversion(double obliquity) {
+        this.obliquity = obliquity;
         cosObliquity = cos(obliquity);
         sinObliquity = sin(obliquity);
     }
 
+    /**
+     * Construit un convertisseur d'ecliptic vers equatorial pour l'instant situé au nombre de jours donné après l'époque J2010.
+     *
+     * @param daysSinceJ2010 nombre (éventuellement négatif) de jours après l'époque J2010
+     * @return le convertisseur à cet instant
+     */
+    public static EclipticToEquatorialConversion ofDaysSinceJ2010(double daysSinceJ2010) {
+        return new EclipticToEquatorialConversion(obliquityAt(daysSinceJ2010));
+    }
+
+    /**
+     * Retourne un convertisseur pour l'instant situé au nombre de jours donné après l'époque J2010 : ce convertisseur-ci
+     * si l'obliquité de l'écliptique n'a pratiquement pas changé (de moins d'un millième de seconde d'arc), un nouveau sinon.
+     * Cela permet de convertir des séries d'instants rapprochés en ne créant qu'un convertisseur par jour environ.
+     *
+     * @param daysSinceJ2010 nombre (éventuellement négatif) de jours après l'époque J2010
+     * @return un convertisseur valable à cet instant
+     */
+    public EclipticToEquatorialConversion at(double daysSinceJ2010) {
+        double newObliquity = obliquityAt(daysSinceJ2010);
+        return (abs(newObliquity - obliquity) <= OBLIQUITY_TOLERANCE) ? this : new EclipticToEquatorialConversion(newObliquity);
+    }
+
+    private static double obliquityAt(double daysSinceJ2010) {
+        return OBLIQUITY_POLYNOMIAL.at((daysSinceJ2010 + J2010_DAYS_AFTER_J2000) / DAYS_PER_JULIAN_CENTURY);
+    }
+
     /**
      * Méthode permettant une conversion de coordonnées.
      *
@@ -49,12 +89,30 @@ public final class EclipticToEquatorialConversion implements Function < Ecliptic
 
     @Override
     public EquatorialCoordinates apply(EclipticCoordinates ecl) {
+        return EquatorialCoordinates.of(rightAscension(ecl.lon(), ecl.lat()), declination(ecl.lon(), ecl.lat()));
+    }
 
-        double alpha = atan2(sin(ecl.lon()) * cosObliquity - tan(ecl.lat()) * sinObliquity, cos(ecl.lon()));
-
-        double delta = asin(sin(ecl.lat()) * cosObliquity + cos(ecl.lat()) * sinObliquity * sin(ecl.lon()));
+    /**
+     * Calcule l'ascension droite des coordonnées écliptiques données, sans créer d'objet.
+     *
+     * @param lon longitude écliptique
+     * @param lat latitude écliptique
+     * @return l'ascension droite, normalisée à l'intervalle [0, 2π[
+     */
+    public double rightAscension(double lon, double lat) {
+        double alpha = atan2(sin(lon) * cosObliquity - tan(lat) * sinObliquity, cos(lon));
+        return Angle.normalizePositive(alpha);
+    }
 
-        return EquatorialCoordinates.of(Angle.normalizePositive(alpha), delta);
+    /**
+     * Calcule la déclinaison des coordonnées écliptiques données, sans créer d'objet.
+     *
+     * @param lon longitude écliptique
+     * @param lat latitude écliptique
+     * @return la déclinaison
+     */
+    public double declination(double lon, double lat) {
+        return asin(sin(lat) * cosObliquity + cos(lat) * sinObliquity * sin(lon));
     }
 
 
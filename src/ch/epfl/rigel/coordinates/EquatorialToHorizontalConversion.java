@@ -66,6 +66,49 @@ public final class EquatorialToHorizontalConversion implements Function < Equato
     }
 
 
+    /**
+     * Conversion inverse, des coordonnées horizontales vers les coordonnées équatoriales.
+     *
+     * @param hor les coordonnées horizontales à convertir
+     * @return les coordonnées équatoriales correspondantes.
+     */
+    public EquatorialCoordinates inverseApply(HorizontalCoordinates hor) {
+        double cosAlt = cos(hor.alt());
+        double sinAlt = sin(hor.alt());
+        double cosAz = cos(hor.az());
+        //Calcul de la déclinaison.
+        double sinDec = sinAlt * sinObservator + cosAlt * cosObservator * cosAz;
+        double dec = asin(max(-1, min(1, sinDec)));
+        //Calcul de l'angle horaire, puis de l'ascension droite.
+        double hourAngle = atan2(-cosAlt * sin(hor.az()), sinAlt * cosObservator - cosAlt * sinObservator * cosAz);
+
+        return EquatorialCoordinates.of(Angle.normalizePositive(observatorSiderealTime - hourAngle), dec);
+    }
+
+    /**
+     * Accesseurs utilisés par les projections en lot (voir StereographicProjection.projectAll),
+     * qui effectuent la conversion sans construire d'objets HorizontalCoordinates.
+     *
+     * @return le temps sidéral local (en radian).
+     */
+    double localSiderealTime() {
+        return observatorSiderealTime;
+    }
+
+    /**
+     * @return le sinus de la latitude de l'observateur.
+     */
+    double sinLatitude() {
+        return sinObservator;
+    }
+
+    /**
+     * @return le cosinus de la latitude de l'observateur.
+     */
+    double cosLatitude() {
+        return cosObservator;
+    }
+
     @Override
     public final boolean equals(Object otherEquatorialToHorizontalConversion) {
         throw new UnsupportedOperationException();
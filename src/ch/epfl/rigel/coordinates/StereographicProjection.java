@@ -1,7 +1,9 @@
 package ch.epfl.rigel.coordinates;
 
+import ch.epfl.rigel.Preconditions;
 import ch.epfl.rigel.math.Angle;
 
+import java.nio.DoubleBuffer;
 import java.util.function.Function;
 
 import static java.lang.Math.*;
@@ -19,6 +21,11 @@ public final class StereographicProjection implements Function < HorizontalCoord
     private final HorizontalCoordinates center;
     private final double centerLatitudeCos;
     private final double centerLatitudeSin;
+    private final double centerLongitudeCos;
+    private final double centerLongitudeSin;
+
+    // Nombre d'étoiles copiées à la fois depuis des colonnes non accessibles sous forme de tableau.
+    private static final int CHUNK_SIZE = 1024;
 
     /**
      * Construit la projection centrée sur center.
@@ -30,6 +37,15 @@ public final class StereographicProjection implements Function < HorizontalCoord
         this.center = center;
         centerLatitudeCos = cos(center.lat());
         centerLatitudeSin = sin(center.lat());
+        centerLongitudeCos = cos(center.lon());
+        centerLongitudeSin = sin(center.lon());
+    }
+
+    /**
+     * @return le centre de la projection.
+     */
+    public HorizontalCoordinates center() {
+        return center;
     }
 
     /**
@@ -84,6 +100,148 @@ public final class StereographicProjection implements Function < HorizontalCoord
         return CartesianCoordinates.of(xCoordinate, yCoordinate);
     }
 
+    /**
+     * Convertit en coordonnées horizontales, avec la conversion donnée, puis projette toutes les positions équatoriales données,
+     * en une seule passe et sans construire d'objets. Le résultat est égal (aux erreurs d'arrondi près) à celui de
+     * apply(conversion.apply(EquatorialCoordinates.of(ra[i], dec[i]))) pour chaque i.
+     *
+     * @param conversion conversion des coordonnées équatoriales vers les coordonnées horizontales
+     * @param ra         ascensions droites (en radian)
+     * @param dec        déclinaisons (en radian), autant que d'ascensions droites
+     * @param outXY      tableau recevant les coordonnées x et y de la position d'index i en 2i et 2i + 1
+     * @throws IllegalArgumentException si les tailles des tableaux ne correspondent pas
+     */
+    public void projectAll(EquatorialToHorizontalConversion conversion, double[] ra, double[] dec, double[] outXY) {
+        Preconditions.checkArgument(ra.length == dec.length && outXY.length >= 2 * ra.length);
+        projectRange(conversion, ra, dec, ra.length, outXY, 0);
+    }
+
+    /**
+     * Comme projectAll sur des tableaux, mais en lisant les positions (de la position à la limite de chaque tampon)
+     * par blocs, ce qui permet de projeter des colonnes qui ne sont pas en mémoire sous forme de tableau.
+     *
+     * @param conversion conversion des coordonnées équatoriales vers les coordonnées horizontales
+     * @param ra         ascensions droites (en radian)
+     * @param dec        déclinaisons (en radian), autant que d'ascensions droites
+     * @param outXY      tableau recevant les coordonnées x et y de la position d'index i en 2i et 2i + 1
+     * @throws IllegalArgumentException si les tailles des tampons et du tableau ne correspondent pas
+     */
+    public void projectAll(EquatorialToHorizontalConversion conversion, DoubleBuffer ra, DoubleBuffer dec, double[] outXY) {
+        int count = ra.remaining();
+        Preconditions.checkArgument(dec.remaining() == count && outXY.length >= 2 * count);
+
+        DoubleBuffer raIn = ra.duplicate();
+        DoubleBuffer decIn = dec.duplicate();
+        double[] raChunk = new double[Math.min(CHUNK_SIZE, count)];
+        double[] decChunk = new double[raChunk.length];
+        for (int start = 0; start < count; start += CHUNK_SIZE) {
+            int length = Math.min(CHUNK_SIZE, count - start);
+            raIn.get(raChunk, 0, length);
+            decIn.get(decChunk, 0, length);
+            projectRange(conversion, raChunk, decChunk, length, outXY, 2 * start);
+        }
+    }
+
+    /**
+     * Comme projectAll sur des ascensions droites et déclinaisons, mais à partir des vecteurs unitaires équatoriaux
+     * (cos(dec)cos(ra), cos(dec)sin(ra), sin(dec)) des positions, qui ne changent pas d'une observation à l'autre.
+     * La conversion et la projection se réduisent alors à une rotation (une matrice 3×3 calculée une fois par appel)
+     * suivie d'une division, sans aucune fonction trigonométrique par position.
+     *
+     * @param conversion conversion des coordonnées équatoriales vers les coordonnées horizontales
+     * @param x          premières composantes des vecteurs unitaires
+     * @param y          deuxièmes composantes des vecteurs unitaires
+     * @param z          troisièmes composantes des vecteurs unitaires
+     * @param outXY      tableau recevant les coordonnées x et y de la position d'index i en 2i et 2i + 1
+     * @throws IllegalArgumentException si les tailles des tableaux ne correspondent pas
+     */
+    public void projectAll(EquatorialToHorizontalConversion conversion, double[] x, double[] y, double[] z, double[] outXY) {
+        Preconditions.checkArgument(x.length == y.length && x.length == z.length && outXY.length >= 2 * x.length);
+
+        double[] m = rotation(conversion);
+        int j = 0;
+        for (int i = 0; i < x.length; i++) {
+            double xi = x[i], yi = y[i], zi = z[i];
+            double d = 1 / (1 + m[6] * xi + m[7] * yi + m[8] * zi);
+            outXY[j++] = d * (m[0] * xi + m[1] * yi + m[2] * zi);
+            outXY[j++] = d * (m[3] * xi + m[4] * yi + m[5] * zi);
+        }
+    }
+
+    /**
+     * Comme projectAll sur des vecteurs unitaires, mais en ne projetant que les positions dont l'index est donné ;
+     * les autres cases de outXY ne sont pas modifiées.
+     *
+     * @param conversion conversion des coordonnées équatoriales vers les coordonnées horizontales
+     * @param x          premières composantes des vecteurs unitaires
+     * @param y          deuxièmes composantes des vecteurs unitaires
+     * @param z          troisièmes composantes des vecteurs unitaires
+     * @param indices    index des positions à projeter
+     * @param outXY      tableau recevant les coordonnées x et y de la position d'index i en 2i et 2i + 1
+     * @throws IllegalArgumentException si les tailles des tableaux ne correspondent pas
+     */
+    public void projectAll(EquatorialToHorizontalConversion conversion, double[] x, double[] y, double[] z, int[] indices, double[] outXY) {
+        Preconditions.checkArgument(x.length == y.length && x.length == z.length && outXY.length >= 2 * x.length);
+
+        double[] m = rotation(conversion);
+        for (int i : indices) {
+            double xi = x[i], yi = y[i], zi = z[i];
+            double d = 1 / (1 + m[6] * xi + m[7] * yi + m[8] * zi);
+            outXY[2 * i] = d * (m[0] * xi + m[1] * yi + m[2] * zi);
+            outXY[2 * i + 1] = d * (m[3] * xi + m[4] * yi + m[5] * zi);
+        }
+    }
+
+    /**
+     * Méthode privée projetant les count premières positions données : le vecteur unitaire de chaque position
+     * est calculé (quatre fonctions trigonométriques), puis transformé comme dans projectAll sur des vecteurs unitaires.
+     */
+    private void projectRange(EquatorialToHorizontalConversion conversion, double[] ra, double[] dec, int count, double[] outXY, int outOffset) {
+        double[] m = rotation(conversion);
+
+        int j = outOffset;
+        for (int i = 0; i < count; i++) {
+            double cosDec = cos(dec[i]);
+            double xi = cosDec * cos(ra[i]);
+            double yi = cosDec * sin(ra[i]);
+            double zi = sin(dec[i]);
+
+            double d = 1 / (1 + m[6] * xi + m[7] * yi + m[8] * zi);
+            outXY[j++] = d * (m[0] * xi + m[1] * yi + m[2] * zi);
+            outXY[j++] = d * (m[3] * xi + m[4] * yi + m[5] * zi);
+        }
+    }
+
+    /**
+     * Méthode privée calculant la matrice (stockée ligne par ligne) qui transforme un vecteur unitaire équatorial
+     * en trois composantes (a, b, c) telles que la projection du point soit (a / (1 + c), b / (1 + c)).
+     * Les lignes sont obtenues en composant la rotation par le temps sidéral, celle par la latitude de l'observateur
+     * (composantes nord, est et zénith), puis celles amenant le centre de projection sur l'axe c.
+     */
+    private double[] rotation(EquatorialToHorizontalConversion conversion) {
+        double cosSiderealTime = cos(conversion.localSiderealTime());
+        double sinSiderealTime = sin(conversion.localSiderealTime());
+        double sinLatitude = conversion.sinLatitude();
+        double cosLatitude = conversion.cosLatitude();
+
+        // Composantes horizontales du vecteur : vers le nord, vers l'est et vers le zénith (sin de la hauteur).
+        double[] north = {-sinLatitude * cosSiderealTime, -sinLatitude * sinSiderealTime, cosLatitude};
+        double[] east = {-sinSiderealTime, cosSiderealTime, 0};
+        double[] zenith = {cosLatitude * cosSiderealTime, cosLatitude * sinSiderealTime, sinLatitude};
+
+        double[] m = new double[9];
+        for (int k = 0; k < 3; k++) {
+            // cos(h)cos(A - A0) et cos(h)sin(A - A0), A0 étant l'azimut du centre de projection.
+            double cosAltCosDeltaLambda = north[k] * centerLongitudeCos + east[k] * centerLongitudeSin;
+            double cosAltSinDeltaLambda = east[k] * centerLongitudeCos - north[k] * centerLongitudeSin;
+
+            m[k] = cosAltSinDeltaLambda;
+            m[3 + k] = zenith[k] * centerLatitudeCos - cosAltCosDeltaLambda * centerLatitudeSin;
+            m[6 + k] = zenith[k] * centerLatitudeSin + cosAltCosDeltaLambda * centerLatitudeCos;
+        }
+        return m;
+    }
+
     /**
      * Retourne les coordonnées horizontales du point dont la projection est le point de coordonnées cartésiennes xy.
      *
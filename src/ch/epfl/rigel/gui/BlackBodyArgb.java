@@ -0,0 +1,77 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.Preconditions;
+import ch.epfl.rigel.astronomy.Star;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Table des couleurs des corps noirs au format ARGB (non prémultiplié), indexée par palier de couleur (voir
+ * Star.colorBucket). Elle est lue du fichier bbr_color.txt, dont les couleurs hexadécimales sont analysées sans JavaFX :
+ * elle sert directement aux rastériseurs travaillant sur des tableaux de pixels, sans interface graphique, et BlackBodyColor
+ * en dérive ses couleurs JavaFX.
+ */
+
+final class BlackBodyArgb {
+
+    private static final int[] ARGB_COLORS = loadColors();
+
+    private BlackBodyArgb() {
+    }
+
+    /**
+     * Retourne la couleur d'un palier de couleur.
+     *
+     * @param colorBucket palier de couleur, compris entre 0 et Star.COLOR_BUCKET_COUNT - 1
+     * @return la couleur associée au palier, au format ARGB, opaque.
+     */
+    static int argbForBucket(int colorBucket) {
+        return ARGB_COLORS[colorBucket];
+    }
+
+    /**
+     * Analyse une couleur de la forme #rrggbb.
+     *
+     * @param hexColor la couleur, en hexadécimal précédé de #
+     * @return la couleur au format ARGB, opaque.
+     * @throws IllegalArgumentException si la couleur n'est pas de la forme #rrggbb
+     */
+    static int parseHexColor(String hexColor) {
+        Preconditions.checkArgument(hexColor.length() == 7 && hexColor.charAt(0) == '#');
+        int rgb = 0;
+        for (int i = 1; i < 7; i++) {
+            int digit = Character.digit(hexColor.charAt(i), 16);
+            Preconditions.checkArgument(digit >= 0);
+            rgb = (rgb << 4) | digit;
+        }
+        return 0xFF00_0000 | rgb;
+    }
+
+    private static int[] loadColors() {
+
+        int[] colors = new int[Star.COLOR_BUCKET_COUNT];
+
+        try (InputStream colorDataStream = BlackBodyArgb.class.getResourceAsStream("/bbr_color.txt");
+             BufferedReader in = new BufferedReader(new InputStreamReader(colorDataStream, US_ASCII))) {
+
+            String line;
+
+            while ((line = in.readLine()) != null) {
+                if ((line.charAt(0) != '#') && (line.substring(10, 15).equals("10deg"))) {
+                    colors[Star.colorBucket(Integer.parseInt(line.substring(1, 6).trim()))] = parseHexColor(line.substring(80, 87));
+                }
+            }
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return colors;
+    }
+}
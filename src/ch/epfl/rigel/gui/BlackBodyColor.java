@@ -1,16 +1,10 @@
 package ch.epfl.rigel.gui;
 
 import ch.epfl.rigel.Preconditions;
+import ch.epfl.rigel.astronomy.Star;
 import ch.epfl.rigel.math.ClosedInterval;
-import ch.epfl.rigel.math.MathematicalCalculus;
 import javafx.scene.paint.Color;
 
-import java.io.*;
-import java.util.HashMap;
-import java.util.Map;
-
-import static java.nio.charset.StandardCharsets.US_ASCII;
-
 /**
  * Classe permettant d'obtenir la couleur d'un corps noir étant donnée sa température.
  *
@@ -21,10 +15,11 @@ import static java.nio.charset.StandardCharsets.US_ASCII;
 public final class BlackBodyColor {
 
     /**
-     * Intervalle correspondant à la plage des températures permises par le fichier.
+     * Table des couleurs JavaFX, indexée par palier de couleur (voir Star.colorBucket) et dérivée une fois pour toutes de
+     * celle de BlackBodyArgb, ainsi que l'intervalle correspondant à la plage des températures permises par le fichier.
      */
 
-    private static final Map < Integer, String > COLORS_MAP = loadColors();
+    private static final Color[] COLORS = fxColors();
     private static final ClosedInterval TEMPERATURE_RANGE = ClosedInterval.of(1000, 40000);
 
 
@@ -41,36 +36,33 @@ public final class BlackBodyColor {
 
     public static Color colorForTemperature(float kelvinTemp) {
 
-        int roundToNearestHundredTemperature = MathematicalCalculus.roundToNearestHundred((float) Preconditions.checkInInterval(TEMPERATURE_RANGE, kelvinTemp));
-
-        return Color.web(COLORS_MAP.get(roundToNearestHundredTemperature));
+        return COLORS[Star.colorBucket((float) Preconditions.checkInInterval(TEMPERATURE_RANGE, kelvinTemp))];
 
 
     }
 
     /**
-     * Méthode permettant de charger les différentes couleurs associées au température dans une Map.
+     * Méthode permettant d'obtenir directement la couleur d'un palier de couleur, par exemple lu dans la colonne des paliers
+     * d'un catalogue d'étoiles.
+     *
+     * @param colorBucket palier de couleur, compris entre 0 et Star.COLOR_BUCKET_COUNT - 1
+     * @return la couleur associée au palier.
      */
 
-    private static Map <Integer, String> loadColors() {
-
-        Map < Integer, String > map = new HashMap <>();
-
-        try (InputStream colorDataStream = BlackBodyColor.class.getResourceAsStream("/bbr_color.txt");
-             BufferedReader in = new BufferedReader(new InputStreamReader(colorDataStream, US_ASCII))) {
-
-            String line;
+    public static Color colorForBucket(int colorBucket) {
+        return COLORS[colorBucket];
+    }
 
-            while ((line = in.readLine()) != null) {
-                if ((line.charAt(0) != '#') && (line.substring(10, 15).equals("10deg"))) {
-                    map.put(Integer.parseInt(line.substring(1, 6).trim()), line.substring(80, 87));
-                }
-            }
+    /**
+     * Méthode permettant de dériver les couleurs JavaFX de la table des couleurs ARGB.
+     */
 
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+    private static Color[] fxColors() {
+        Color[] colors = new Color[Star.COLOR_BUCKET_COUNT];
+        for (int i = 0; i < colors.length; i++) {
+            int argb = BlackBodyArgb.argbForBucket(i);
+            colors[i] = Color.rgb((argb >> 16) & 0xFF, (argb >> 8) & 0xFF, argb & 0xFF);
         }
-
-        return map;
+        return colors;
     }
 }
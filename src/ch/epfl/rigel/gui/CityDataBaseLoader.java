@@ -1,8 +1,9 @@
 package ch.epfl.rigel.gui;
 
-import java.io.*;
+import ch.epfl.rigel.CsvTokenizer;
 
-import static java.nio.charset.StandardCharsets.US_ASCII;
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Classse représentant un chargeur de fichier pour les villes.
@@ -19,36 +20,29 @@ public enum CityDataBaseLoader implements CityCatalogue.Loader {
 
     @Override
     public void load(InputStream inputStream, CityCatalogue.Builder builder) throws IOException {
-        try (BufferedReader in = new BufferedReader(new InputStreamReader(inputStream, US_ASCII))) {
-            String line;
-            String[] splittedLine;
+        try (CsvTokenizer in = new CsvTokenizer(inputStream)) {
             String name;
             double lon;
             double lat;
 
+            in.nextLine();
 
+            while (in.nextLine()) {
 
-
-            in.readLine();
-
-            while ((line = in.readLine()) != null) {
-
-                splittedLine = line.split(",");
-                if(splittedLine[NAME] == "" || splittedLine[NAME].isEmpty())
+                if (in.isEmpty(NAME))
                     name = "?";
                 else
+                    name = in.string(NAME) + ", " + in.string(COUNTRY);
 
-                    name =splittedLine[NAME] + ", " + splittedLine [COUNTRY];
-
-                if (splittedLine[LAT]== "" || splittedLine[LAT].isEmpty())
+                if (in.isEmpty(LAT))
                     lat = 0.0;
                 else
-                lat = Double.parseDouble(splittedLine [LAT]);
+                    lat = in.parseDouble(LAT);
 
-                if (splittedLine[LON]=="" || splittedLine[LON].isEmpty())
-                    lon=0.0;
+                if (in.isEmpty(LON))
+                    lon = 0.0;
                 else
-                lon = Double.parseDouble(splittedLine[LON]);
+                    lon = in.parseDouble(LON);
 
                 builder.addCity(new City(name, lat, lon));
 
@@ -0,0 +1,92 @@
+package ch.epfl.rigel.gui;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Calcul en arrière-plan ne traitant que la dernière demande reçue : les demandes sont faites, et les résultats publiés,
+ * sur un même fil (le fil de publication, le fil JavaFX pour SkyCanvasManager), les calculs étant effectués par un autre
+ * exécuteur. Un seul calcul a lieu à la fois ; les demandes reçues pendant un calcul sont remplacées par la dernière d'entre
+ * elles, qui n'est traitée qu'une fois le calcul en cours terminé sur le fil de publication.
+ * Si un calcul lève une exception, elle est signalée au gestionnaire des exceptions non rattrapées du fil de publication,
+ * et la demande en attente éventuelle est traitée comme après un calcul réussi.
+ * Les méthodes doivent être appelées depuis le fil de publication.
+ *
+ * @param <R> type des demandes
+ * @param <S> type des résultats
+ */
+
+final class LatestRequestWorker< R, S > {
+
+    private final Executor worker;
+    private final Executor publisher;
+    private final Function < ? super R, ? extends S > computation;
+    private final BiConsumer < ? super R, ? super S > publication;
+    // Accédés uniquement depuis le fil de publication.
+    private R pendingRequest;
+    private boolean computing;
+
+    /**
+     * Construit un calcul en arrière-plan.
+     *
+     * @param worker      exécuteur effectuant les calculs
+     * @param publisher   exécuteur du fil de publication (par exemple Platform::runLater)
+     * @param computation calcul du résultat d'une demande, effectué par worker
+     * @param publication publication du résultat d'une demande, effectuée par publisher
+     */
+    LatestRequestWorker(Executor worker, Executor publisher, Function < ? super R, ? extends S > computation,
+                        BiConsumer < ? super R, ? super S > publication) {
+        this.worker = Objects.requireNonNull(worker);
+        this.publisher = Objects.requireNonNull(publisher);
+        this.computation = Objects.requireNonNull(computation);
+        this.publication = Objects.requireNonNull(publication);
+    }
+
+    /**
+     * Demande le calcul du résultat de la demande donnée : il est lancé immédiatement si aucun calcul n'est en cours, sinon
+     * la demande remplace celle qui attendait éventuellement.
+     *
+     * @param request la demande
+     */
+    void request(R request) {
+        pendingRequest = Objects.requireNonNull(request);
+        if (!computing) computeNext();
+    }
+
+    /**
+     * @return vrai si un calcul est en cours (son résultat n'a pas encore été publié).
+     */
+    boolean isComputing() {
+        return computing;
+    }
+
+    // Méthode privée (appelée par le fil de publication) lançant le calcul de la demande en attente.
+    private void computeNext() {
+        R request = pendingRequest;
+        pendingRequest = null;
+        computing = true;
+
+        worker.execute(() -> {
+            S result;
+            try {
+                result = computation.apply(request);
+            } catch (RuntimeException e) {
+                publisher.execute(() -> {
+                    computing = false;
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                    if (pendingRequest != null) computeNext();
+                });
+                return;
+            }
+
+            publisher.execute(() -> {
+                computing = false;
+                publication.accept(request, result);
+                if (pendingRequest != null) computeNext();
+            });
+        });
+    }
+}
@@ -77,15 +77,19 @@ public final class Main extends Application {
     }
 
 
-    public void startRigel(Stage Rigel, CityCatalogue cityCatalogue, City startingPoint, List<ObjectsToDraw> objectsToDraw, UFOCatalogue ufoCatalogue, boolean dayNightMode) throws Exception {
+    public void startRigel(Stage Rigel, CityCatalogue cityCatalogue, City startingPoint, List<ObjectsToDraw> objectsToDraw, UFOCatalogue ufoCatalogue, boolean dayNightMode, boolean rasterStars) throws Exception {
 
         //Chargement des différents catalogues contenant les astérismes et les étoiles.
-        try (InputStream hs = resourceStream("/hygdata_v3.csv");
+        //L'instantané binaire des étoiles est utilisé s'il a été généré (voir BinaryStarDatabaseWriter), sinon on lit les données HYG.
+        InputStream snapshot = resourceStream("/hygdata_v3.bin");
+        StarCatalogue.Loader starLoader = (snapshot != null) ? BinaryStarDatabaseLoader.INSTANCE : HygDatabaseLoader.PARALLEL;
+
+        try (InputStream hs = (snapshot != null) ? snapshot : resourceStream("/hygdata_v3.csv");
              InputStream ast = resourceStream("/asterisms.txt");
              InputStream sat = resourceStream("/datasets_152510_351347_UCS_Satellite_Database_12-1-2018-1.csv");) {
 
             StarCatalogue catalogue = new StarCatalogue.Builder()
-                    .loadFrom(hs, HygDatabaseLoader.INSTANCE)
+                    .loadFrom(hs, starLoader)
                     .loadFrom(ast, AsterismLoader.INSTANCE)
                     .build();
             ArtificialSatelliteCatalogue satelliteCatalogue = new ArtificialSatelliteCatalogue.Builder().loadFrom(sat,ArtificialSatelliteDatabaseLoader.INSTANCE).build();
@@ -119,6 +123,7 @@ public final class Main extends Application {
                     viewingParametersBean,
                     objectsToDraw,
                     dayNightMode);
+            canvasManager.setRasterStars(rasterStars);
 
             //Animateur du temps, va permettre de simuler le temps plus rapidement.
             TimeAnimator animator = new TimeAnimator(dateTimeBean);
@@ -263,6 +268,7 @@ public final class Main extends Application {
         CheckBox moonCheck = checkBoxesConstructor("Lune", true);
         CheckBox satellitesCheck = checkBoxesConstructor("Satellites", false);
         CheckBox dayNightCheck = checkBoxesConstructor("Mode jour/nuit", false);
+        CheckBox rasterStarsCheck = checkBoxesConstructor("Etoiles rastérisées", false);
         CheckBox ufoCheck = checkBoxesConstructor("OVNI", false);
 
         // Panneau grille contenant les checkBoxes
@@ -276,9 +282,10 @@ public final class Main extends Application {
         checkPane.add(ufoCheck, 0, 6);
         checkPane.add(new Separator(), 0, 7);
         checkPane.add(dayNightCheck, 0, 8);
-        checkPane.add(new Separator(), 0, 9);
-        checkPane.add(cityLabel, 0, 10);
-        checkPane.add(cities, 0, 11);
+        checkPane.add(rasterStarsCheck, 0, 9);
+        checkPane.add(new Separator(), 0, 10);
+        checkPane.add(cityLabel, 0, 11);
+        checkPane.add(cities, 0, 12);
 
 
         // Objets celestes observables label
@@ -360,7 +367,7 @@ public final class Main extends Application {
             try {
                 List<ObjectsToDraw> objectsToDraw = checkBoxesHandler(starsCheck, planetsCheck, sunCheck, moonCheck, satellitesCheck, ufoCheck);
                 cities.setEditable(false);
-                startRigel(new Stage(), cityCatalogue, cities.getValue(), objectsToDraw, ufoCatalogue, dayNightCheck.isSelected());
+                startRigel(new Stage(), cityCatalogue, cities.getValue(), objectsToDraw, ufoCatalogue, dayNightCheck.isSelected(), rasterStarsCheck.isSelected());
                 welcomeMenu.close();
             }
             catch (Exception ex) {}
@@ -0,0 +1,90 @@
+package ch.epfl.rigel.gui;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * Classe représentant un ordonnanceur de dessins : les demandes de dessin ne font que marquer le canevas comme à redessiner,
+ * et le dessin est effectué au plus une fois par impulsion (pulse) de JavaFX, quel que soit le nombre de demandes reçues
+ * entre deux impulsions. L'ordonnanceur ne tourne que lorsqu'un dessin est en attente.
+ * Toutes ses méthodes doivent être appelées depuis le fil JavaFX.
+ */
+
+public final class RedrawScheduler {
+
+    private final Runnable painter;
+    // Démarrage et arrêt des impulsions, qui appellent handle tant qu'elles sont démarrées.
+    private final Runnable startPulses;
+    private final Runnable stopPulses;
+    private boolean dirty;
+    private long requestedFrames;
+    private long paintedFrames;
+
+    /**
+     * Construit un ordonnanceur de dessins, cadencé par les impulsions de JavaFX (AnimationTimer).
+     *
+     * @param painter action dessinant le canevas
+     */
+    public RedrawScheduler(Runnable painter) {
+        this.painter = painter;
+        AnimationTimer timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                RedrawScheduler.this.handle(now);
+            }
+        };
+        this.startPulses = timer::start;
+        this.stopPulses = timer::stop;
+    }
+
+    /**
+     * Construit un ordonnanceur de dessins cadencé par une source d'impulsions donnée, qui doit appeler handle tant qu'elle
+     * est démarrée.
+     *
+     * @param painter     action dessinant le canevas
+     * @param startPulses action démarrant les impulsions
+     * @param stopPulses  action arrêtant les impulsions
+     */
+    RedrawScheduler(Runnable painter, Runnable startPulses, Runnable stopPulses) {
+        this.painter = painter;
+        this.startPulses = startPulses;
+        this.stopPulses = stopPulses;
+    }
+
+    /**
+     * Demande que le canevas soit redessiné à la prochaine impulsion.
+     */
+    public void requestRedraw() {
+        requestedFrames++;
+        if (!dirty) {
+            dirty = true;
+            startPulses.run();
+        }
+    }
+
+    /**
+     * Traite une impulsion : arrête les impulsions, et dessine le canevas si un dessin a été demandé depuis la précédente.
+     *
+     * @param now instant de l'impulsion, en nanosecondes
+     */
+    void handle(long now) {
+        stopPulses.run();
+        if (dirty) {
+            dirty = false;
+            paintedFrames++;
+            painter.run();
+        }
+    }
+    /**
+     * @return le nombre de dessins demandés depuis la création de l'ordonnanceur.
+     */
+    public long requestedFrames() {
+        return requestedFrames;
+    }
+
+    /**
+     * @return le nombre de dessins effectués depuis la création de l'ordonnanceur.
+     */
+    public long paintedFrames() {
+        return paintedFrames;
+    }
+}
@@ -3,11 +3,15 @@ package ch.epfl.rigel.gui;
 
 import ch.epfl.rigel.astronomy.*;
 import ch.epfl.rigel.coordinates.CartesianCoordinates;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
 import ch.epfl.rigel.coordinates.HorizontalCoordinates;
 import ch.epfl.rigel.coordinates.StereographicProjection;
 import ch.epfl.rigel.math.Angle;
 import ch.epfl.rigel.math.ClosedInterval;
 import ch.epfl.rigel.math.RightOpenInterval;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.beans.binding.Bindings;
 import javafx.beans.binding.DoubleBinding;
 import javafx.beans.binding.ObjectBinding;
@@ -19,8 +23,11 @@ import javafx.scene.transform.Affine;
 import javafx.scene.transform.NonInvertibleTransformException;
 import javafx.scene.transform.Transform;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Classe représentant un gestionnaire de canevas sur lequel le ciel est dessiné.
@@ -45,7 +52,7 @@ public final class SkyCanvasManager {
      */
     private static final ClosedInterval VIEWING_PARAMETER_ALT_INTERVAL = ClosedInterval.of(5, 90);
     private static final RightOpenInterval VIEWING_PARAMETER_AZ_INTERVAL = RightOpenInterval.of(0, 360);
-    private static final RightOpenInterval SCROLL_INTERVAL = RightOpenInterval.of(30, 150);
+    private static final RightOpenInterval SCROLL_INTERVAL = RightOpenInterval.of(30, SkyGeometry.WIDEST_FIELD_OF_VIEW_DEG);
     /**
      * Attributs privés : la distance maximum entre l'objet céleste défini comme le plus proche du curseur de la souris et ce dernier.
      */
@@ -61,9 +68,31 @@ public final class SkyCanvasManager {
      */
     private final ObjectBinding < StereographicProjection > projection;
     private final ObjectBinding < Affine > planeToCanvas;
-    private final ObjectBinding < ObservedSky > observedSky;
+    private final ObjectProperty < ObservedSky > observedSky;
+    // Projection avec laquelle le ciel observé courant a été calculé, utilisée pour le dessiner.
+    private StereographicProjection observedSkyProjection;
+
+    /**
+     * Calcul des ciels observés en arrière-plan, par un fil d'exécution dédié, afin que le fil JavaFX ne fasse que dessiner.
+     * Un seul ciel est calculé à la fois ; les demandes reçues pendant un calcul sont remplacées par la dernière d'entre
+     * elles, qui n'est traitée qu'une fois le ciel en cours publié sur le fil JavaFX (voir LatestRequestWorker).
+     * Le ciel en cours de dessin n'est donc jamais celui dont le fil de calcul réutilise les tableaux (voir ObservedSky.update).
+     * lastObservedSky n'est accédé que par le fil de calcul.
+     */
+    private final ExecutorService skyWorker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rigel-sky");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final LatestRequestWorker < SkyRequest, ObservedSky > skyRequests =
+            new LatestRequestWorker <>(skyWorker, Platform::runLater, this::computeSky, this::publishSky);
+    // Dernier ciel calculé, à partir duquel le suivant est mis à jour.
+    private ObservedSky lastObservedSky;
+    // Éphémérides du Soleil, de la Lune et des planètes utilisées par le fil de calcul lors des animations.
+    private final EphemerisCache ephemerides = new EphemerisCache();
     private final ObjectBinding < HorizontalCoordinates > mouseHorizontalPosition;
     private final SkyCanvasPainter skyCanvasPainter;
+    private final RedrawScheduler redrawScheduler;
     private final Canvas canvas;
     /**
      * Propriété privée: coordonnées cartésiennes de la souris.
@@ -121,9 +150,17 @@ public final class SkyCanvasManager {
                 mouseHorizontalPosition.getValue().altDeg(), mouseHorizontalPosition);
 
         //Définition du ciel observé.
-        observedSky = Bindings.createObjectBinding(() ->
-                new ObservedSky(dateTimeBean.getZonedDateTime(), observerLocationBean.getCoordinates(), projection.getValue(), catalogue, satelliteCatalogue, ufoCatalogue), dateTimeBean.dateProperty(), dateTimeBean.zoneProperty(), dateTimeBean.timeProperty(), observerLocationBean.latDegProperty(), observerLocationBean.lonDegProperty(), projection
-        );
+        // Le premier ciel est calculé immédiatement ; chaque ciel suivant est calculé en arrière-plan à partir du précédent,
+        // dont il réutilise les résultats encore valables, à chaque modification de l'un des paramètres dont il dépend.
+        SkyRequest firstRequest = skyRequest(dateTimeBean, observerLocationBean, viewingParametersBean);
+        lastObservedSky = new ObservedSky(firstRequest.when, firstRequest.where, firstRequest.projection, catalogue, satelliteCatalogue, ufoCatalogue, firstRequest.visibleRadius, firstRequest.limitingMagnitude);
+        observedSkyProjection = firstRequest.projection;
+        observedSky = new SimpleObjectProperty <>(lastObservedSky);
+
+        InvalidationListener skyParametersListener = observable -> skyRequests.request(skyRequest(dateTimeBean, observerLocationBean, viewingParametersBean));
+        Observable[] skyParameters = {dateTimeBean.dateProperty(), dateTimeBean.zoneProperty(), dateTimeBean.timeProperty(), observerLocationBean.latDegProperty(), observerLocationBean.lonDegProperty(), projection,
+                viewingParametersBean.fieldOfViewDegProperty(), canvas.widthProperty(), canvas.heightProperty()};
+        for (Observable parameter : skyParameters) parameter.addListener(skyParametersListener);
 
 
         //Définition de l'objet céleste situé sous la souris.
@@ -138,17 +175,17 @@ public final class SkyCanvasManager {
         keyBoardManager(viewingParametersBean);
 
 
-        // On ajoute les auditeurs permettant de dessiner le ciel à chaque modification de la projection, de la transformation et du ciel observé.
+        // On ajoute les auditeurs demandant de redessiner le ciel à chaque modification de la transformation et du ciel observé.
+        // Un changement de projection entraîne le calcul d'un nouveau ciel, dessiné dès qu'il est prêt avec sa propre projection.
+        // Les demandes sont regroupées : le ciel est dessiné au plus une fois par impulsion de JavaFX.
 
-        projection.addListener(observable ->
-                skyCanvasPainter.drawAll(observedSky.getValue(), projection.getValue(), planeToCanvas.getValue(), objectsToDraw, dayNightMode)
-        );
-        planeToCanvas.addListener(observable ->
-                skyCanvasPainter.drawAll(observedSky.getValue(), projection.getValue(), planeToCanvas.getValue(), objectsToDraw, dayNightMode)
-        );
-        observedSky.addListener(observable ->
-                skyCanvasPainter.drawAll(observedSky.getValue(), projection.getValue(), planeToCanvas.getValue(), objectsToDraw, dayNightMode)
+        redrawScheduler = new RedrawScheduler(() ->
+                skyCanvasPainter.drawAll(observedSky.getValue(), observedSkyProjection, planeToCanvas.getValue(), objectsToDraw, dayNightMode)
         );
+        InvalidationListener redrawListener = observable -> redrawScheduler.requestRedraw();
+        planeToCanvas.addListener(redrawListener);
+        observedSky.addListener(redrawListener);
+        redrawScheduler.requestRedraw();
 
 
     }
@@ -161,6 +198,51 @@ public final class SkyCanvasManager {
         return canvas;
     }
 
+    /**
+     * @return l'ordonnanceur des dessins du canevas, qui compte les dessins demandés et effectués.
+     */
+    public RedrawScheduler redrawScheduler() {
+        return redrawScheduler;
+    }
+
+    /**
+     * Choisit la manière de dessiner les étoiles (voir SkyCanvasPainter.setRasterStars), et redessine le ciel.
+     *
+     * @param rasterStars vrai pour rastériser les étoiles dans une image, faux pour les dessiner avec le contexte graphique
+     */
+    public void setRasterStars(boolean rasterStars) {
+        skyCanvasPainter.setRasterStars(rasterStars);
+        redrawScheduler.requestRedraw();
+    }
+
+
+    // Méthode privée (appelée par le fil JavaFX) lisant les paramètres courants du ciel à calculer.
+    private SkyRequest skyRequest(DateTimeBean dateTimeBean, ObserverLocationBean observerLocationBean, ViewingParametersBean viewingParametersBean) {
+        return new SkyRequest(dateTimeBean.getZonedDateTime(), observerLocationBean.getCoordinates(), projection.getValue(),
+                visibleRadius(viewingParametersBean), limitingMagnitude(viewingParametersBean));
+    }
+
+    // Méthode privée (appelée par le fil de calcul) calculant le ciel de la demande donnée à partir du dernier ciel calculé.
+    private ObservedSky computeSky(SkyRequest request) {
+        lastObservedSky = lastObservedSky.update(request.when, request.where, request.projection, request.visibleRadius, request.limitingMagnitude, ephemerides);
+        return lastObservedSky;
+    }
+
+    // Méthode privée (appelée par le fil JavaFX) publiant le ciel calculé pour la demande donnée.
+    private void publishSky(SkyRequest request, ObservedSky sky) {
+        observedSkyProjection = request.projection;
+        observedSky.set(sky);
+    }
+
+    // Méthode privée calculant le rayon angulaire (autour du centre de projection) du cercle passant par les coins du canevas.
+    private double visibleRadius(ViewingParametersBean viewingParametersBean) {
+        return SkyGeometry.visibleRadius(canvas.getWidth(), canvas.getHeight(), viewingParametersBean.getFieldOfViewDeg().doubleValue());
+    }
+
+    // Méthode privée calculant la magnitude limite des étoiles à dessiner pour le champ de vue courant.
+    private double limitingMagnitude(ViewingParametersBean viewingParametersBean) {
+        return SkyGeometry.limitingMagnitude(viewingParametersBean.getFieldOfViewDeg().doubleValue());
+    }
 
     // Méthode privée définissant une transformation, le but étant de clarifier et d'alleger le constructeur.
     private ObjectBinding < Affine > transformationDefinition(ViewingParametersBean viewingParametersBean) {
@@ -246,5 +328,24 @@ public final class SkyCanvasManager {
 
     }
 
+    /**
+     * Paramètres immuables d'un ciel à calculer, lus sur le fil JavaFX et transmis au fil de calcul.
+     */
+    private static final class SkyRequest {
+        private final ZonedDateTime when;
+        private final GeographicCoordinates where;
+        private final StereographicProjection projection;
+        private final double visibleRadius;
+        private final double limitingMagnitude;
+
+        private SkyRequest(ZonedDateTime when, GeographicCoordinates where, StereographicProjection projection, double visibleRadius, double limitingMagnitude) {
+            this.when = when;
+            this.where = where;
+            this.projection = projection;
+            this.visibleRadius = visibleRadius;
+            this.limitingMagnitude = limitingMagnitude;
+        }
+    }
+
 }
 
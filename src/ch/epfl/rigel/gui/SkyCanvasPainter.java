@@ -9,13 +9,16 @@ import javafx.geometry.Point2D;
 import javafx.geometry.VPos;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.scene.transform.Transform;
 
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Représente un "peintre du ciel", objet capable de dessiner le ciel sur un canevas.
@@ -26,6 +29,14 @@ import java.util.Set;
 
 public final class SkyCanvasPainter {
 
+    /**
+     * Couleurs JavaFX des objets, dérivées de celles de SkyStyle, communes avec SkyImageRenderer.
+     */
+    private static final Color PLANET_COLOR = fxColor(SkyStyle.PLANET_COLOR);
+    private static final Color WHITE = fxColor(SkyStyle.WHITE);
+    private static final Color ASTERISM_COLOR = fxColor(SkyStyle.ASTERISM_COLOR);
+    private static final Color HORIZON_COLOR = fxColor(SkyStyle.HORIZON_COLOR);
+
     /**
      * Attributs représentant le canevas, c'est à dire l'image en elle même et le contexte graphique permettant d'ajouter des éléments sur le canevas.
      */
@@ -34,6 +45,28 @@ public final class SkyCanvasPainter {
     private final Bounds canvasBounds;
     private final DateTimeBean dateTimeBean;
 
+    /**
+     * Tableaux des positions transformées vers le canevas, réutilisés d'un dessin à l'autre (et agrandis si nécessaire).
+     */
+    private double[] transformedStars = new double[0];
+    private double[] transformedPlanets = new double[0];
+    private double[] transformedSatellites = new double[0];
+    private double[] transformedUFOs = new double[0];
+
+    /**
+     * Diamètres des étoiles sur le canevas, et regroupement des étoiles par couleur, réutilisés d'un dessin à l'autre.
+     */
+    private double[] starDiameters = new double[0];
+    private final StarBins starBins = new StarBins();
+
+    /**
+     * Dessin des étoiles par rastérisation : image en mémoire dans laquelle les étoiles sont composées, et image JavaFX
+     * par laquelle elle est copiée sur le canevas en une seule fois (voir setRasterStars).
+     */
+    private boolean rasterStars;
+    private final StarRasterizer starRasterizer = new StarRasterizer();
+    private WritableImage starImage;
+
     public SkyCanvasPainter(Canvas canvas, DateTimeBean dateTimeBean) {
         this.canvas = canvas;
         this.dateTimeBean= dateTimeBean;
@@ -41,6 +74,27 @@ public final class SkyCanvasPainter {
         canvasBounds= canvas.getBoundsInLocal();
     }
 
+    /**
+     * Choisit la manière de dessiner les étoiles : avec le contexte graphique (par défaut), un disque par étoile, ou par
+     * rastérisation, les étoiles étant composées dans un tableau de pixels à partir de masques précalculés (voir
+     * StarRasterizer), puis copiées sur le canevas en une seule image. Le Soleil, la Lune, les planètes, les astérismes,
+     * l'horizon et les textes sont toujours dessinés avec le contexte graphique.
+     *
+     * @param rasterStars vrai pour rastériser les étoiles
+     */
+
+    public void setRasterStars(boolean rasterStars) {
+        this.rasterStars = rasterStars;
+    }
+
+    /**
+     * @return vrai si les étoiles sont rastérisées.
+     */
+
+    public boolean isRasterStars() {
+        return rasterStars;
+    }
+
     /**
      * Méthode permettant d'effacer le canevas, elle le re-initialise en affichant la couleur noir.
      */
@@ -69,88 +123,70 @@ public final class SkyCanvasPainter {
 
     public void drawStars(ObservedSky sky, StereographicProjection projection, Transform transform) {
 
-        //Création d'une liste contenant toutes les étoiles à dessiner puis on créé le tableau contenant leurs positions.
-        List < Star > stars = sky.stars();
-
         // Création du tableau contenant les cordonnées des étoiles projetées dans le repère du canevas.
-        double[] transformedStarCoordinates = tabTransformation(sky.starPositions(), transform);
+        // Seules les étoiles visibles (dont celles des astérismes) sont transformées.
+        int[] visibleStars = sky.visibleStarIndices();
+        transformedStars = tabTransformation(sky.starPositions(), visibleStars, transformedStars, transform);
+        double[] transformedStarCoordinates = transformedStars;
 
 
-        //Limites du canevas.
-        Bounds canvasBounds = canvas.getBoundsInLocal();
+        // Les magnitudes et paliers de couleur sont lus dans les colonnes du catalogue, sans passer par les objets Star,
+        // et les couleurs dans la table de BlackBodyColor.
+        FloatBuffer magnitudes = sky.starMagnitudes();
+        IntBuffer colorBuckets = sky.starColorBuckets();
 
-        //Ensemble contenant tous les astérismes.
-        Set < Asterism > asterismSet = sky.asterisms();
+        //Calcul des diamètres des étoiles visibles (dont celles des astérismes), utilisés pour les astérismes et les étoiles.
+        starDiameters = reusable(starDiameters, magnitudes.limit());
+        for (int i : visibleStars) starDiameters[i] = diameterTransformation(transform, magnitudes.get(i), projection);
 
 
         /**
          * Dessin des astérismes.
          */
 
-        for (Asterism asterism : asterismSet) {
-
-            //List de l'ensemble des étoiles pour chaque astérisme.
-            List < Star > asterismStars = asterism.stars();
-
-            //List de l'ensemble des indice des étoiles de l'asterisme.
-            List < Integer > indices = sky.asterismIndices(asterism);
-            ctx.beginPath();
-
-            int j = 0;
-
-            //On définit ici le point (objet célèste de départ).
-            double diameterOfStartingObject = diameterTransformationForOthers(transform, asterismStars.get(j), projection);
-            Point2D startingPointCoordinatesForCanvas = new Point2D(transformedStarCoordinates[indices.get(j) * 2] - (diameterOfStartingObject / 2.0), transformedStarCoordinates[indices.get(j) * 2 + 1] - (diameterOfStartingObject / 2.0));
-
-            while (j < asterismStars.size()) {
-
-                j++;
-
-                //On définit le point d'arrivée (objet célèste d'arrivée).
-                double diameterOfArrivingObject = diameterTransformationForOthers(transform, asterismStars.get(j), projection);
-                Point2D arrivingPointCoordinatesForCanvas = new Point2D(transformedStarCoordinates[indices.get(j) * 2] - (diameterOfArrivingObject / 2.0), transformedStarCoordinates[indices.get(j) * 2 + 1] - (diameterOfArrivingObject / 2.0));
-
-                //Test si l'un des deux points se situent bien dans les limites du canvas.
-                if (canvasBounds.contains(startingPointCoordinatesForCanvas) || canvasBounds.contains(arrivingPointCoordinatesForCanvas)) {
-
-                    ctx.setStroke(Color.BLUE);
-                    ctx.setLineWidth(1);
-
-                    ctx.moveTo(startingPointCoordinatesForCanvas.getX(), startingPointCoordinatesForCanvas.getY());
-                    ctx.lineTo(arrivingPointCoordinatesForCanvas.getX(), arrivingPointCoordinatesForCanvas.getY());
-
-                    ctx.stroke();
-
-                }
-                //Le preccedent point d'arrivée devient le nouveau point de départ (du trait correspondant à l'astérisme).
-                startingPointCoordinatesForCanvas = arrivingPointCoordinatesForCanvas;
-
-                if (j == asterismStars.size() - 1) {
-                    break;
-                }
-
+        // Les segments de tous les astérismes, calculés à la construction du catalogue, forment un seul chemin tracé en une
+        // fois. Un segment n'est ajouté que si l'une de ses extrémités est dans les limites du canevas (voir SkyStyle).
+        IntBuffer segments = sky.asterismSegments();
+        double width = canvas.getWidth(), height = canvas.getHeight();
+        ctx.beginPath();
+        for (int k = 0; k < segments.limit(); k += 2) {
+            int from = segments.get(k), to = segments.get(k + 1);
+            double fromX = SkyStyle.asterismEndpoint(transformedStarCoordinates[2 * from], starDiameters[from]);
+            double fromY = SkyStyle.asterismEndpoint(transformedStarCoordinates[2 * from + 1], starDiameters[from]);
+            double toX = SkyStyle.asterismEndpoint(transformedStarCoordinates[2 * to], starDiameters[to]);
+            double toY = SkyStyle.asterismEndpoint(transformedStarCoordinates[2 * to + 1], starDiameters[to]);
+
+            if (SkyStyle.isAsterismLineVisible(fromX, fromY, toX, toY, width, height)) {
+                ctx.moveTo(fromX, fromY);
+                ctx.lineTo(toX, toY);
             }
-
         }
+        ctx.setStroke(ASTERISM_COLOR);
+        ctx.setLineWidth(SkyStyle.ASTERISM_LINE_WIDTH);
+        ctx.stroke();
 
         /**
          * Dessin de l'ensemble des étoiles du ciel
          */
 
-        int i = 0;
-
-        //Itération sur toutes les étoiles et on obtient les coordonnées associées.
-        for (Star star : stars) {
-            double x = transformedStarCoordinates[i];
-            i++;
-            double y = transformedStarCoordinates[i];
-            i++;
-
-            double diameter = diameterTransformationForOthers(transform, star, projection);
-
-            drawDisks(x, y, BlackBodyColor.colorForTemperature(star.colorTemperature()), diameter);
+        if (rasterStars) {
+            drawRasterStars(visibleStars, transformedStarCoordinates, colorBuckets);
+            return;
+        }
 
+        starBins.classify(visibleStars, transformedStarCoordinates, starDiameters, colorBuckets, width, height);
 
+        int currentBucket = -1;
+        for (int bin = 0; bin < starBins.binCount(); bin++) {
+            if (starBins.bucket(bin) != currentBucket) {
+                currentBucket = starBins.bucket(bin);
+                ctx.setFill(BlackBodyColor.colorForBucket(currentBucket));
+            }
+            for (int k = starBins.start(bin); k < starBins.end(bin); k++) {
+                int i = starBins.star(k);
+                double diameter = starDiameters[i];
+                ctx.fillOval(transformedStarCoordinates[2 * i] - (diameter / 2.0), transformedStarCoordinates[2 * i + 1] - (diameter / 2.0), diameter, diameter);
+            }
         }
 
     }
@@ -171,27 +207,12 @@ public final class SkyCanvasPainter {
         double x = sky.sunPosition().x();
         double y = sky.sunPosition().y();
 
-        //Calcul du diamètre des différents disques à dessiner.
-        double diameterForWhiteDisk = diameterTransformationForSunMoon(transform, sun, projection);
-        double diameterForYellowDisk = diameterForWhiteDisk + 2;
-        double diameterForHaloDisk = diameterForWhiteDisk * 2.2;
-
-        //Coordonnées sur le canevas du centre des différents disques à dessiner.
-        Point2D coordinatesForWhiteDisk = coordinatesTransformation(x, y, transform, diameterForWhiteDisk);
-        Point2D coordinatesForYellowDisk = coordinatesTransformation(x, y, transform, diameterForYellowDisk);
-        Point2D coordinatesForHaloDisk = coordinatesTransformation(x, y, transform, diameterForHaloDisk);
+        //Calcul du diamètre du soleil et de son centre sur le canevas.
+        double diameter = diameterTransformationForSunMoon(transform, sun, projection);
+        Point2D center = transform.transform(x, y);
 
-
-        //Choix du disque à dessiner en premier selon leurs diamètres.
-
-        if ((diameterForHaloDisk > diameterForYellowDisk)) {
-            drawHaloDiskFirst(coordinatesForHaloDisk, diameterForHaloDisk, coordinatesForYellowDisk, diameterForYellowDisk);
-        } else {
-            drawYellowDiskFirst(coordinatesForHaloDisk, diameterForHaloDisk, coordinatesForYellowDisk, diameterForYellowDisk);
-        }
-
-        ctx.setFill(Color.WHITE);
-        ctx.fillOval(coordinatesForWhiteDisk.getX(), coordinatesForWhiteDisk.getY(), diameterForWhiteDisk, diameterForWhiteDisk);
+        //Dessin des disques (halo, disque jaune et disque blanc) dans l'ordre donné par SkyStyle.
+        SkyStyle.forEachSunDisk(diameter, (diskDiameter, argb) -> drawDisks(center.getX(), center.getY(), fxColor(argb), diskDiameter));
 
     }
 
@@ -207,7 +228,8 @@ public final class SkyCanvasPainter {
     public void drawPlanets(ObservedSky sky, StereographicProjection projection, Transform transform) {
         List < Planet > planets = sky.planets();
 
-        double[] transformedPlanetCoordinates = tabTransformation(sky.planetsPositions(), transform);
+        transformedPlanets = tabTransformation(sky.planetsPositions(), transformedPlanets, transform);
+        double[] transformedPlanetCoordinates = transformedPlanets;
 
         //Itération sur l'ensemble des planètes et on obtient les coordonnées asssociées.
         int i = 0;
@@ -218,7 +240,7 @@ public final class SkyCanvasPainter {
             i++;
             double diameter = diameterTransformationForOthers(transform, planet, projection);
 
-            drawDisks(x, y, Color.LIGHTGRAY, diameter);
+            drawDisks(x, y, PLANET_COLOR, diameter);
 
         }
 
@@ -245,8 +267,8 @@ public final class SkyCanvasPainter {
 
         double diameter = Math.abs(projectedDiameter.getX() * 2.0);
 
-        ctx.setStroke(Color.RED);
-        ctx.setLineWidth(2);
+        ctx.setStroke(HORIZON_COLOR);
+        ctx.setLineWidth(SkyStyle.HORIZON_LINE_WIDTH);
         ctx.strokeOval(projectedCoordinates.getX() - (diameter / 2.0), projectedCoordinates.getY() - (diameter / 2.0), diameter, diameter);
 
         //Dessin des points cardinaux
@@ -255,7 +277,7 @@ public final class SkyCanvasPainter {
 
             CartesianCoordinates southCoordinates = projection.apply(HorizontalCoordinates.ofDeg(45 * i, -0.5));
             Point2D projectedSouthCoordinates = transform.transform(southCoordinates.x(), southCoordinates.y());
-            ctx.setFill(Color.RED);
+            ctx.setFill(HORIZON_COLOR);
             ctx.setTextBaseline(VPos.TOP);
             ctx.fillText(HorizontalCoordinates.ofDeg(45 * i, 0).azOctantName("N", "E", "S", "O"), projectedSouthCoordinates.getX(), projectedSouthCoordinates.getY());
         }
@@ -271,7 +293,8 @@ public final class SkyCanvasPainter {
 
     public void drawUFOs (ObservedSky sky, Transform transform, DateTimeBean dateTimeBean) {
         List <UFO> ufos = sky.ufos();
-        double[] transformedCoordinates = tabTransformation(sky.ufoPositions(), transform);
+        transformedUFOs = tabTransformation(sky.ufoPositions(), transformedUFOs, transform);
+        double[] transformedCoordinates = transformedUFOs;
         int i =0;
         for (UFO ufo: ufos) {
 
@@ -280,6 +303,9 @@ public final class SkyCanvasPainter {
             double y = transformedCoordinates[i];
             i++;
 
+            // Ovni hors du champ de vue (voir ObservedSky).
+            if (Double.isNaN(x)) continue;
+
 
             if (dateTimeBean.getZonedDateTime().isAfter(ufo.apparition()) && dateTimeBean.getZonedDateTime().isBefore(ufo.disparition())) {
 
@@ -303,7 +329,7 @@ public final class SkyCanvasPainter {
         Moon moon = sky.moon();
         double diameter = diameterTransformationForSunMoon(transform, moon, projection);
         Point2D coordinatesForCanvas = coordinatesTransformation(sky.moonPosition().x(), sky.moonPosition().y(), transform, diameter);
-        ctx.setFill(Color.WHITE);
+        ctx.setFill(WHITE);
 
         ctx.fillOval(coordinatesForCanvas.getX(), coordinatesForCanvas.getY(), diameter, diameter);
 
@@ -312,7 +338,8 @@ public final class SkyCanvasPainter {
 
     public void drawSatellites (ObservedSky sky, Transform transform) {
         List <ArtificialSatellite> satellites = sky.artificialSatellites();
-        double[] transformedCoordinates = tabTransformation(sky.satellitePositions(), transform);
+        transformedSatellites = tabTransformation(sky.satellitePositions(), transformedSatellites, transform);
+        double[] transformedCoordinates = transformedSatellites;
 
         int i = 0;
         for (ArtificialSatellite satellite : satellites) {
@@ -320,6 +347,10 @@ public final class SkyCanvasPainter {
             i++;
             double y = transformedCoordinates [i];
             i++;
+
+            // Satellite hors du champ de vue (voir ObservedSky).
+            if (Double.isNaN(x)) continue;
+
             drawDisks(x , y , Color.GOLD, 2);
             ctx.setFill(Color.GREEN);
             ctx.setFont(Font.font("Courier New", FontWeight.LIGHT, 12));
@@ -384,11 +415,12 @@ public final class SkyCanvasPainter {
     }
 
     private double diameterTransformationForOthers(Transform transform, CelestialObject object, StereographicProjection projection) {
+        return diameterTransformation(transform, object.magnitude(), projection);
+    }
 
-        Point2D projectedDiameter = transform.deltaTransform(object.magnitudeTransformation(object.magnitude(), projection), 0);
-        double diameter = projectedDiameter.getX();
-
-        return diameter;
+    // La transformation d'un vecteur horizontal (d, 0) a pour abscisse mxx * d : le calcul ne crée aucun objet Point2D.
+    private double diameterTransformation(Transform transform, double magnitude, StereographicProjection projection) {
+        return transform.getMxx() * CelestialObject.diameterForMagnitude(magnitude, projection);
     }
 
     private double diameterTransformationForSunMoon(Transform transform, CelestialObject object, StereographicProjection projection) {
@@ -400,14 +432,34 @@ public final class SkyCanvasPainter {
 
     }
 
-    private double[] tabTransformation(double[] celestialPositions, Transform transform) {
-        double[] transformedCelestCoordinates = new double[celestialPositions.length];
+    // Méthodes transformant les positions dans le tableau target s'il est assez grand (dans un nouveau tableau sinon),
+    // retourné afin d'être réutilisé au dessin suivant.
+    private double[] tabTransformation(double[] celestialPositions, double[] target, Transform transform) {
+        double[] transformedCelestCoordinates = reusable(target, celestialPositions.length);
         transform.transform2DPoints(celestialPositions, 0, transformedCelestCoordinates, 0, celestialPositions.length / 2);
         return transformedCelestCoordinates;
 
 
     }
 
+    // Seules les positions d'index donnés sont transformées, sans objet intermédiaire ; les autres cases du résultat ne sont pas significatives.
+    private double[] tabTransformation(double[] celestialPositions, int[] indices, double[] target, Transform transform) {
+        double[] transformedCelestCoordinates = reusable(target, celestialPositions.length);
+        double mxx = transform.getMxx(), mxy = transform.getMxy(), tx = transform.getTx();
+        double myx = transform.getMyx(), myy = transform.getMyy(), ty = transform.getTy();
+        for (int i : indices) {
+            double x = celestialPositions[2 * i];
+            double y = celestialPositions[2 * i + 1];
+            transformedCelestCoordinates[2 * i] = mxx * x + mxy * y + tx;
+            transformedCelestCoordinates[2 * i + 1] = myx * x + myy * y + ty;
+        }
+        return transformedCelestCoordinates;
+    }
+
+    private static double[] reusable(double[] target, int length) {
+        return (target.length >= length) ? target : new double[length];
+    }
+
     private Color skyColour (ObservedSky sky)  {
         HorizontalCoordinates sunHorizontalCoordinates = sky.equatorialToHorizontalConversion().apply(sky.eclipticToEquatorialConversion().apply(sky.sun().eclipticPos()));
         double alt = sunHorizontalCoordinates.altDeg();
@@ -453,33 +505,29 @@ public final class SkyCanvasPainter {
      **/
 
 
-    private void drawHaloDiskFirst(Point2D coordinatesForHaloDisk, double diameterForHaloDisk, Point2D coordinatesForYellowDisk, double diameterForYellowDisk) {
-        ctx.setFill(Color.YELLOW.deriveColor(1, 1, 1, 0.25));
-        ctx.fillOval(coordinatesForHaloDisk.getX(), coordinatesForHaloDisk.getY(), diameterForHaloDisk, diameterForHaloDisk);
-
-
-        ctx.setFill(Color.YELLOW);
-        ctx.fillOval(coordinatesForYellowDisk.getX(), coordinatesForYellowDisk.getY(), diameterForYellowDisk, diameterForYellowDisk);
+    // Rastérise les étoiles dans l'image en mémoire, puis la copie sur le canevas par-dessus ce qui y est déjà dessiné.
+    private void drawRasterStars(int[] visibleStars, double[] transformedStarCoordinates, IntBuffer colorBuckets) {
+        int width = (int) Math.ceil(canvas.getWidth());
+        int height = (int) Math.ceil(canvas.getHeight());
+        if (width == 0 || height == 0) return;
 
+        starRasterizer.reset(width, height);
+        starRasterizer.drawStars(visibleStars, transformedStarCoordinates, starDiameters, colorBuckets);
 
+        if (starImage == null || starImage.getWidth() != width || starImage.getHeight() != height)
+            starImage = new WritableImage(width, height);
+        starImage.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), starRasterizer.pixels(), 0, width);
+        ctx.drawImage(starImage, 0, 0);
     }
 
-    private void drawYellowDiskFirst(Point2D coordinatesForHaloDisk, double diameterForHaloDisk, Point2D coordinatesForYellowDisk, double diameterForYellowDisk) {
-
-        ctx.setFill(Color.YELLOW);
-        ctx.fillOval(coordinatesForYellowDisk.getX(), coordinatesForYellowDisk.getY(), diameterForYellowDisk, diameterForYellowDisk);
-
-        ctx.setFill(Color.YELLOW.deriveColor(1, 1, 1, 0.25));
-        ctx.fillOval(coordinatesForHaloDisk.getX(), coordinatesForHaloDisk.getY(), diameterForHaloDisk, diameterForHaloDisk);
-
-
-    }
-
-
     private void drawDisks(double x, double y, Color color, double diameter) {
-        Point2D coordinatesForCanvas = new Point2D(x - (diameter / 2.0), y - (diameter / 2.0));
         ctx.setFill(color);
-        ctx.fillOval(coordinatesForCanvas.getX(), coordinatesForCanvas.getY(), diameter, diameter);
+        ctx.fillOval(x - (diameter / 2.0), y - (diameter / 2.0), diameter, diameter);
+    }
+
+    // Couleur JavaFX correspondant à la couleur ARGB (non prémultipliée) donnée.
+    private static Color fxColor(int argb) {
+        return Color.rgb((argb >> 16) & 0xFF, (argb >> 8) & 0xFF, argb & 0xFF, (argb >>> 24) / 255.0);
     }
 
 }
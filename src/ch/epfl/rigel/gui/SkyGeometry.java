@@ -0,0 +1,57 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.math.Angle;
+
+/**
+ * Géométrie de la vue du ciel commune à SkyCanvasManager (JavaFX) et SkyImageRenderer (sans interface graphique) : rayon
+ * de la zone visible autour du centre de projection et magnitude limite des étoiles dessinées, en fonction de la taille de
+ * l'image et du champ de vue.
+ */
+
+final class SkyGeometry {
+
+    /**
+     * Champ de vue horizontal le plus large (en degrés) permis par SkyCanvasManager.
+     */
+    static final double WIDEST_FIELD_OF_VIEW_DEG = 150;
+    /**
+     * Marge ajoutée au rayon de la zone visible, afin que les disques des étoiles situées juste au bord de l'image soient dessinés.
+     */
+    private static final double VISIBLE_RADIUS_MARGIN = Angle.ofDeg(1);
+    /**
+     * Magnitude limite des étoiles dessinées avec le champ de vue le plus large ; elle augmente de 5 log10(grossissement)
+     * lorsque l'on zoome, comme la magnitude limite d'un instrument avec son grossissement.
+     */
+    private static final double WIDEST_FIELD_LIMITING_MAGNITUDE = 6.5;
+
+    private SkyGeometry() {
+    }
+
+    /**
+     * Calcule le rayon angulaire (autour du centre de projection) du cercle passant par les coins d'une image de taille
+     * donnée : la demi-largeur de l'image correspond à la moitié du champ de vue, soit tan(champ / 4) dans le plan de la
+     * projection.
+     *
+     * @param width          largeur de l'image
+     * @param height         hauteur de l'image
+     * @param fieldOfViewDeg champ de vue horizontal, en degrés
+     * @return le rayon angulaire de la zone visible, marge comprise, au plus π.
+     */
+    static double visibleRadius(double width, double height, double fieldOfViewDeg) {
+        if (width <= 0) return Math.PI;
+        double fieldOfView = Angle.ofDeg(fieldOfViewDeg);
+        double halfDiagonalOverHalfWidth = Math.hypot(width, height) / width;
+        return Math.min(Math.PI, 2 * Math.atan(Math.tan(fieldOfView / 4) * halfDiagonalOverHalfWidth) + VISIBLE_RADIUS_MARGIN);
+    }
+
+    /**
+     * Calcule la magnitude limite des étoiles à dessiner pour le champ de vue donné : les champs larges ne montrent que
+     * les étoiles brillantes, et zoomer fait apparaître progressivement les plus faibles.
+     *
+     * @param fieldOfViewDeg champ de vue horizontal, en degrés
+     * @return la magnitude limite.
+     */
+    static double limitingMagnitude(double fieldOfViewDeg) {
+        return WIDEST_FIELD_LIMITING_MAGNITUDE + 5 * Math.log10(WIDEST_FIELD_OF_VIEW_DEG / fieldOfViewDeg);
+    }
+}
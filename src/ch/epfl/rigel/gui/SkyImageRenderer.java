@@ -0,0 +1,274 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.Preconditions;
+import ch.epfl.rigel.astronomy.*;
+import ch.epfl.rigel.coordinates.CartesianCoordinates;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import ch.epfl.rigel.math.Angle;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Peintre du ciel sans interface graphique : dessine le ciel observé (étoiles et astérismes, planètes, Soleil, Lune,
+ * horizon et points cardinaux) dans une BufferedImage, sans démarrer JavaFX, et l'enregistre au format PNG.
+ * Le ciel est celui d'ObservedSky, projeté et dessiné comme par SkyCanvasManager et SkyCanvasPainter (dont la géométrie et
+ * l'apparence communes sont définies par SkyGeometry et SkyStyle) : les disques sont
+ * composés par StarRasterizer directement dans le tableau de pixels de l'image, les traits et les textes par Java2D.
+ * Un peintre peut dessiner plusieurs images à la fois, chacune dans son propre tableau (voir renderAll).
+ */
+
+public final class SkyImageRenderer {
+
+    private final StarCatalogue catalogue;
+    private final ArtificialSatelliteCatalogue satelliteCatalogue = new ArtificialSatelliteCatalogue(List.of());
+    private final UFOCatalogue ufoCatalogue = new UFOCatalogue(List.of());
+
+    /**
+     * Construit un peintre du ciel sans interface graphique.
+     *
+     * @param catalogue catalogue des étoiles et des astérismes à dessiner
+     */
+    public SkyImageRenderer(StarCatalogue catalogue) {
+        this.catalogue = Objects.requireNonNull(catalogue);
+    }
+
+    /**
+     * Dessine le ciel décrit par la vue donnée.
+     *
+     * @param view la vue à dessiner
+     * @return l'image du ciel, de type TYPE_INT_ARGB_PRE.
+     */
+    public BufferedImage render(View view) {
+        int width = view.width, height = view.height;
+        StereographicProjection projection = new StereographicProjection(view.center);
+        ObservedSky sky = new ObservedSky(view.when, view.where, projection, catalogue, satelliteCatalogue, ufoCatalogue,
+                SkyGeometry.visibleRadius(width, height, view.fieldOfViewDeg), SkyGeometry.limitingMagnitude(view.fieldOfViewDeg));
+
+        // Transformation du plan de la projection vers l'image, comme celle de SkyCanvasManager.
+        double scale = width / projection.applyToAngle(Angle.ofDeg(view.fieldOfViewDeg));
+        double tx = width / 2.0, ty = height / 2.0;
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        StarRasterizer rasterizer = new StarRasterizer();
+        rasterizer.wrap(((DataBufferInt) image.getRaster().getDataBuffer()).getData(), width, height);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setColor(Color.BLACK);
+            graphics.fillRect(0, 0, width, height);
+
+            drawStars(sky, projection, scale, tx, ty, graphics, rasterizer);
+            drawPlanets(sky, projection, scale, tx, ty, rasterizer);
+            drawSun(sky, projection, scale, tx, ty, rasterizer);
+            drawMoon(sky, projection, scale, tx, ty, rasterizer);
+            drawHorizon(projection, scale, tx, ty, graphics);
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Dessine le ciel décrit par la vue donnée, et l'enregistre au format PNG dans le fichier de la vue.
+     *
+     * @param view la vue à dessiner, dont le fichier ne doit pas être nul
+     * @throws IOException              en cas d'erreur d'écriture
+     * @throws IllegalArgumentException si la vue n'a pas de fichier
+     */
+    public void renderToFile(View view) throws IOException {
+        Preconditions.checkArgument(view.output != null);
+        if (!ImageIO.write(render(view), "png", view.output.toFile()))
+            throw new IOException("no PNG writer available");
+    }
+
+    /**
+     * Dessine et enregistre au format PNG les vues données, en parallèle sur le nombre de fils d'exécution donné.
+     *
+     * @param views   les vues à dessiner, dont aucun fichier ne doit être nul
+     * @param threads nombre de fils d'exécution
+     * @throws IOException              si l'écriture de l'une des images échoue
+     * @throws IllegalArgumentException si le nombre de fils n'est pas strictement positif, ou si l'une des vues n'a pas de
+     *                                  fichier (aucune image n'est alors dessinée)
+     */
+    public void renderAll(List < View > views, int threads) throws IOException {
+        Preconditions.checkArgument(threads > 0);
+        for (View view : views) Preconditions.checkArgument(view.output != null);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "rigel-render");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List < Future < ? > > results = new ArrayList <>(views.size());
+            for (View view : views) {
+                results.add(executor.submit(() -> {
+                    renderToFile(view);
+                    return null;
+                }));
+            }
+            for (Future < ? > result : results) result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof UncheckedIOException) throw ((UncheckedIOException) cause).getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Dessine les astérismes, puis les étoiles visibles.
+    private static void drawStars(ObservedSky sky, StereographicProjection projection, double scale, double tx, double ty,
+                                  Graphics2D graphics, StarRasterizer rasterizer) {
+        int[] visibleStars = sky.visibleStarIndices();
+        double[] planePositions = sky.starPositions();
+        double[] positions = new double[planePositions.length];
+        for (int i : visibleStars) {
+            positions[2 * i] = scale * planePositions[2 * i] + tx;
+            positions[2 * i + 1] = -scale * planePositions[2 * i + 1] + ty;
+        }
+
+        FloatBuffer magnitudes = sky.starMagnitudes();
+        IntBuffer colorBuckets = sky.starColorBuckets();
+        double[] diameters = new double[magnitudes.limit()];
+        for (int i : visibleStars) diameters[i] = scale * CelestialObject.diameterForMagnitude(magnitudes.get(i), projection);
+
+        // Comme SkyCanvasPainter, les traits retenus par SkyStyle sont dessinés en un seul chemin.
+        Path2D.Double lines = new Path2D.Double();
+        IntBuffer segments = sky.asterismSegments();
+        for (int k = 0; k < segments.limit(); k += 2) {
+            int from = segments.get(k), to = segments.get(k + 1);
+            double fromX = SkyStyle.asterismEndpoint(positions[2 * from], diameters[from]);
+            double fromY = SkyStyle.asterismEndpoint(positions[2 * from + 1], diameters[from]);
+            double toX = SkyStyle.asterismEndpoint(positions[2 * to], diameters[to]);
+            double toY = SkyStyle.asterismEndpoint(positions[2 * to + 1], diameters[to]);
+            if (SkyStyle.isAsterismLineVisible(fromX, fromY, toX, toY, rasterizer.width(), rasterizer.height())) {
+                lines.moveTo(fromX, fromY);
+                lines.lineTo(toX, toY);
+            }
+        }
+        graphics.setColor(new Color(SkyStyle.ASTERISM_COLOR, true));
+        graphics.setStroke(new BasicStroke((float) SkyStyle.ASTERISM_LINE_WIDTH));
+        graphics.draw(lines);
+
+        rasterizer.drawStars(visibleStars, positions, diameters, colorBuckets);
+    }
+
+    private static void drawPlanets(ObservedSky sky, StereographicProjection projection, double scale, double tx, double ty,
+                                    StarRasterizer rasterizer) {
+        List < Planet > planets = sky.planets();
+        double[] positions = sky.planetsPositions();
+        for (int i = 0; i < planets.size(); i++) {
+            double diameter = scale * CelestialObject.diameterForMagnitude(planets.get(i).magnitude(), projection);
+            rasterizer.fillDisk(scale * positions[2 * i] + tx, -scale * positions[2 * i + 1] + ty, diameter, SkyStyle.PLANET_COLOR);
+        }
+    }
+
+    private static void drawSun(ObservedSky sky, StereographicProjection projection, double scale, double tx, double ty,
+                                StarRasterizer rasterizer) {
+        CartesianCoordinates position = sky.sunPosition();
+        double x = scale * position.x() + tx, y = -scale * position.y() + ty;
+        double diameter = scale * projection.applyToAngle(sky.sun().angularSize());
+        SkyStyle.forEachSunDisk(diameter, (diskDiameter, argb) -> rasterizer.fillDisk(x, y, diskDiameter, argb));
+    }
+
+    private static void drawMoon(ObservedSky sky, StereographicProjection projection, double scale, double tx, double ty,
+                                 StarRasterizer rasterizer) {
+        CartesianCoordinates position = sky.moonPosition();
+        double diameter = scale * projection.applyToAngle(sky.moon().angularSize());
+        rasterizer.fillDisk(scale * position.x() + tx, -scale * position.y() + ty, diameter, SkyStyle.WHITE);
+    }
+
+    private static void drawHorizon(StereographicProjection projection, double scale, double tx, double ty, Graphics2D graphics) {
+        CartesianCoordinates center = projection.circleCenterForParallel(HorizontalCoordinates.of(0, 0));
+        double diameter = Math.abs(2 * scale * projection.circleRadiusForParallel(HorizontalCoordinates.of(0, 0)));
+        double x = scale * center.x() + tx, y = -scale * center.y() + ty;
+
+        graphics.setColor(new Color(SkyStyle.HORIZON_COLOR, true));
+        graphics.setStroke(new BasicStroke((float) SkyStyle.HORIZON_LINE_WIDTH));
+        graphics.draw(new Ellipse2D.Double(x - diameter / 2, y - diameter / 2, diameter, diameter));
+
+        // Points cardinaux et intercardinaux, dont le haut du texte est juste sous l'horizon.
+        int ascent = graphics.getFontMetrics().getAscent();
+        for (int i = 0; i < 8; i++) {
+            CartesianCoordinates label = projection.apply(HorizontalCoordinates.ofDeg(45 * i, -0.5));
+            graphics.drawString(HorizontalCoordinates.ofDeg(45 * i, 0).azOctantName("N", "E", "S", "O"),
+                    (float) (scale * label.x() + tx), (float) (-scale * label.y() + ty + ascent));
+        }
+    }
+
+    /**
+     * Vue du ciel à dessiner : instant et lieu d'observation, centre et champ de vue, taille de l'image et fichier dans
+     * lequel l'enregistrer.
+     */
+    public static final class View {
+        private final ZonedDateTime when;
+        private final GeographicCoordinates where;
+        private final HorizontalCoordinates center;
+        private final double fieldOfViewDeg;
+        private final int width;
+        private final int height;
+        private final Path output;
+
+        /**
+         * Construit une vue du ciel.
+         *
+         * @param when           instant d'observation
+         * @param where          lieu d'observation
+         * @param center         centre de la vue
+         * @param fieldOfViewDeg champ de vue horizontal, en degrés
+         * @param width          largeur de l'image, en pixels
+         * @param height         hauteur de l'image, en pixels
+         * @param output         fichier PNG dans lequel enregistrer l'image, nul si la vue n'est destinée qu'à render (il ne
+         *                       doit pas l'être pour renderToFile et renderAll)
+         * @throws IllegalArgumentException si le champ de vue n'est pas compris entre 0 (exclu) et 360 (exclu), ou si
+         *                                  l'une des dimensions n'est pas strictement positive
+         */
+        public View(ZonedDateTime when, GeographicCoordinates where, HorizontalCoordinates center, double fieldOfViewDeg,
+                    int width, int height, Path output) {
+            Preconditions.checkArgument(0 < fieldOfViewDeg && fieldOfViewDeg < 360);
+            Preconditions.checkArgument(width > 0 && height > 0);
+            this.when = Objects.requireNonNull(when);
+            this.where = Objects.requireNonNull(where);
+            this.center = Objects.requireNonNull(center);
+            this.fieldOfViewDeg = fieldOfViewDeg;
+            this.width = width;
+            this.height = height;
+            this.output = output;
+        }
+
+        /**
+         * @return le fichier PNG dans lequel enregistrer l'image, ou null si la vue n'en a pas.
+         */
+        public Path output() {
+            return output;
+        }
+    }
+}
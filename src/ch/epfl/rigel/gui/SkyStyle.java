@@ -0,0 +1,86 @@
+package ch.epfl.rigel.gui;
+
+/**
+ * Apparence du ciel commune aux deux peintres, SkyCanvasPainter (JavaFX) et SkyImageRenderer (sans interface graphique) :
+ * couleurs des objets, épaisseurs des traits, disques composant le Soleil et règle de sélection des traits des astérismes.
+ * Les couleurs sont données au format ARGB non prémultiplié, afin d'être utilisables sans JavaFX ; SkyCanvasPainter en
+ * dérive ses couleurs JavaFX.
+ */
+
+final class SkyStyle {
+
+    /**
+     * Couleurs des planètes (gris clair), du halo du Soleil (jaune, opaque au quart), du disque jaune du Soleil, du disque
+     * blanc du Soleil et de la Lune, des astérismes (bleu) et de l'horizon et des points cardinaux (rouge).
+     */
+    static final int PLANET_COLOR = 0xFFD3D3D3;
+    static final int SUN_HALO_COLOR = 0x40FFFF00;
+    static final int SUN_COLOR = 0xFFFFFF00;
+    static final int WHITE = 0xFFFFFFFF;
+    static final int ASTERISM_COLOR = 0xFF0000FF;
+    static final int HORIZON_COLOR = 0xFFFF0000;
+
+    /**
+     * Épaisseurs (en pixels) des traits des astérismes et de l'horizon.
+     */
+    static final double ASTERISM_LINE_WIDTH = 1;
+    static final double HORIZON_LINE_WIDTH = 2;
+
+    private SkyStyle() {
+    }
+
+    /**
+     * Destinataire des disques composant un objet (voir forEachSunDisk).
+     */
+    interface DiskPainter {
+        /**
+         * Dessine un disque centré sur l'objet.
+         *
+         * @param diameter diamètre du disque, en pixels
+         * @param argb     couleur du disque, au format ARGB non prémultiplié
+         */
+        void fillDisk(double diameter, int argb);
+    }
+
+    /**
+     * Donne, dans l'ordre où ils doivent être dessinés, les disques composant le Soleil : le plus grand du halo
+     * (2,2 fois le diamètre du Soleil) et du disque jaune (2 pixels de plus que le Soleil), puis l'autre, puis le disque
+     * blanc du Soleil lui-même.
+     *
+     * @param diameter diamètre du Soleil, en pixels
+     * @param painter  destinataire des disques
+     */
+    static void forEachSunDisk(double diameter, DiskPainter painter) {
+        double haloDiameter = diameter * 2.2, yellowDiameter = diameter + 2;
+        if (haloDiameter > yellowDiameter) {
+            painter.fillDisk(haloDiameter, SUN_HALO_COLOR);
+            painter.fillDisk(yellowDiameter, SUN_COLOR);
+        } else {
+            painter.fillDisk(yellowDiameter, SUN_COLOR);
+            painter.fillDisk(haloDiameter, SUN_HALO_COLOR);
+        }
+        painter.fillDisk(diameter, WHITE);
+    }
+
+    /**
+     * Retourne l'abscisse (ou l'ordonnée) de l'extrémité d'un trait d'astérisme, décalée d'un demi-diamètre de l'étoile,
+     * comme le coin supérieur gauche de son disque.
+     *
+     * @param coordinate abscisse (ou ordonnée) du centre de l'étoile
+     * @param diameter   diamètre de l'étoile
+     * @return l'abscisse (ou l'ordonnée) de l'extrémité du trait.
+     */
+    static double asterismEndpoint(double coordinate, double diameter) {
+        return coordinate - diameter / 2;
+    }
+
+    /**
+     * Un trait d'astérisme n'est dessiné que si l'une de ses extrémités (voir asterismEndpoint) est dans l'image.
+     *
+     * @return vrai si le trait d'extrémités données doit être dessiné dans une image de la taille donnée.
+     */
+    static boolean isAsterismLineVisible(double fromX, double fromY, double toX, double toY, double width, double height) {
+        return (0 <= fromX && fromX <= width && 0 <= fromY && fromY <= height)
+                || (0 <= toX && toX <= width && 0 <= toY && toY <= height);
+    }
+}
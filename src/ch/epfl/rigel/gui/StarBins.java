@@ -0,0 +1,167 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.astronomy.Star;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Classement des étoiles visibles en groupes (bins) de même palier de couleur et de même classe de diamètre, afin que le
+ * peintre ne change de couleur de remplissage qu'une fois par groupe au lieu d'une fois par étoile.
+ * Le dessin reste identique au pixel près à celui des étoiles dans l'ordre du catalogue : deux étoiles dont les disques
+ * (anticrénelage compris) peuvent se chevaucher restent dessinées dans leur ordre d'origine. Pour cela, chaque étoile
+ * reçoit une couche, supérieure à celles de toutes les étoiles qui la précèdent et qu'elle peut chevaucher (calculées
+ * sur une grille de cellules de CELL_SIZE pixels) ; les couches sont dessinées l'une après l'autre, et ce n'est qu'au sein
+ * d'une couche, dont les disques sont disjoints, que les étoiles sont regroupées. Les étoiles entièrement hors du canevas,
+ * qui ne changeraient aucun pixel, sont ignorées.
+ * Les tableaux sont réutilisés d'un classement à l'autre.
+ */
+
+final class StarBins {
+
+    /**
+     * Nombre de classes de diamètre : les diamètres de 0 à 1 pixel, de 1 à 2 pixels, etc., jusqu'à 7 pixels et plus.
+     */
+    static final int DIAMETER_CLASSES = 8;
+
+    private static final int CELL_SIZE = 4;
+    // Marge (en pixels) ajoutée autour d'un disque pour tenir compte des pixels partiellement couverts.
+    private static final double MARGIN = 1;
+
+    private int[] cells = new int[0];
+    private int[] layers = new int[0];
+    private int[] keys = new int[0];
+    private int[] order = new int[0];
+    private int[] sorted = new int[0];
+    private int[] counts = new int[0];
+    private int[] stars = new int[0];
+    private int[] binBuckets = new int[0];
+    private int[] binEnds = new int[0];
+    private int binCount;
+
+    /**
+     * Classe les étoiles d'index donnés.
+     *
+     * @param visibleStars index, dans l'ordre de dessin d'origine, des étoiles à dessiner
+     * @param positions    positions des étoiles sur le canevas (x à l'index 2i, y à l'index 2i + 1 pour l'étoile i)
+     * @param diameters    diamètres des étoiles sur le canevas, à l'index de l'étoile
+     * @param colorBuckets paliers de couleur des étoiles, à l'index de l'étoile
+     * @param width        largeur du canevas
+     * @param height       hauteur du canevas
+     */
+    void classify(int[] visibleStars, double[] positions, double[] diameters, IntBuffer colorBuckets, double width, double height) {
+        int columns = Math.max(1, (int) Math.ceil(width / CELL_SIZE));
+        int rows = Math.max(1, (int) Math.ceil(height / CELL_SIZE));
+        cells = reusable(cells, columns * rows);
+        Arrays.fill(cells, 0, columns * rows, 0);
+        layers = reusable(layers, visibleStars.length);
+        keys = reusable(keys, visibleStars.length);
+        order = reusable(order, visibleStars.length);
+        stars = reusable(stars, visibleStars.length);
+
+        // Couche de chaque étoile (-1 pour les étoiles hors du canevas) ; une cellule contient 1 + la plus haute couche
+        // des disques la touchant.
+        int layerCount = 0;
+        for (int k = 0; k < visibleStars.length; k++) {
+            int i = visibleStars[k];
+            double radius = diameters[i] / 2 + MARGIN;
+            double minX = positions[2 * i] - radius, maxX = positions[2 * i] + radius;
+            double minY = positions[2 * i + 1] - radius, maxY = positions[2 * i + 1] + radius;
+            if (!(maxX >= 0 && minX <= width && maxY >= 0 && minY <= height)) {
+                layers[k] = -1;
+                continue;
+            }
+            int c0 = clamp((int) Math.floor(minX / CELL_SIZE), columns), c1 = clamp((int) Math.floor(maxX / CELL_SIZE), columns);
+            int r0 = clamp((int) Math.floor(minY / CELL_SIZE), rows), r1 = clamp((int) Math.floor(maxY / CELL_SIZE), rows);
+            int layer = 0;
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) layer = Math.max(layer, cells[r * columns + c]);
+            }
+            for (int r = r0; r <= r1; r++) Arrays.fill(cells, r * columns + c0, r * columns + c1 + 1, layer + 1);
+            layers[k] = layer;
+            layerCount = Math.max(layerCount, layer + 1);
+        }
+
+        // Tri par dénombrement stable selon le groupe (palier, classe de diamètre), puis selon la couche : les étoiles sont
+        // ainsi ordonnées par couche puis par groupe, et restent dans leur ordre d'origine au sein d'un groupe.
+        int drawn = 0;
+        for (int k = 0; k < visibleStars.length; k++) {
+            if (layers[k] < 0) continue;
+            int i = visibleStars[k];
+            int diameterClass = (int) Math.min(Math.max(diameters[i], 0), DIAMETER_CLASSES - 1);
+            keys[k] = colorBuckets.get(i) * DIAMETER_CLASSES + diameterClass;
+            order[drawn++] = k;
+        }
+        sorted = reusable(sorted, drawn);
+        countingSort(order, sorted, drawn, keys, Star.COLOR_BUCKET_COUNT * DIAMETER_CLASSES);
+        countingSort(sorted, order, drawn, layers, layerCount);
+
+        binBuckets = reusable(binBuckets, drawn);
+        binEnds = reusable(binEnds, drawn);
+        binCount = 0;
+        for (int p = 0; p < drawn; p++) {
+            int k = order[p];
+            stars[p] = visibleStars[k];
+            if (p > 0 && (layers[k] != layers[order[p - 1]] || keys[k] != keys[order[p - 1]])) binEnds[binCount++] = p;
+            binBuckets[binCount] = keys[k] / DIAMETER_CLASSES;
+        }
+        if (drawn > 0) binEnds[binCount++] = drawn;
+    }
+
+    /**
+     * @return le nombre de groupes du dernier classement.
+     */
+    int binCount() {
+        return binCount;
+    }
+
+    /**
+     * @param bin index du groupe
+     * @return le palier de couleur des étoiles du groupe.
+     */
+    int bucket(int bin) {
+        return binBuckets[bin];
+    }
+
+    /**
+     * @param bin index du groupe
+     * @return la position, dans l'ordre de dessin, de la première étoile du groupe.
+     */
+    int start(int bin) {
+        return (bin == 0) ? 0 : binEnds[bin - 1];
+    }
+
+    /**
+     * @param bin index du groupe
+     * @return la position, dans l'ordre de dessin, suivant la dernière étoile du groupe.
+     */
+    int end(int bin) {
+        return binEnds[bin];
+    }
+
+    /**
+     * @param position position dans l'ordre de dessin
+     * @return l'index de l'étoile à dessiner à cette position.
+     */
+    int star(int position) {
+        return stars[position];
+    }
+
+    // Copie dans target les length premiers éléments de source, triés (de manière stable) selon keyOf[élément], compris
+    // entre 0 et keyCount - 1.
+    private void countingSort(int[] source, int[] target, int length, int[] keyOf, int keyCount) {
+        counts = reusable(counts, keyCount + 1);
+        Arrays.fill(counts, 0, keyCount + 1, 0);
+        for (int p = 0; p < length; p++) counts[keyOf[source[p]] + 1]++;
+        for (int key = 0; key < keyCount; key++) counts[key + 1] += counts[key];
+        for (int p = 0; p < length; p++) target[counts[keyOf[source[p]]]++] = source[p];
+    }
+
+    private static int clamp(int value, int length) {
+        return Math.max(0, Math.min(length - 1, value));
+    }
+
+    private static int[] reusable(int[] target, int length) {
+        return (target.length >= length) ? target : new int[length];
+    }
+}
@@ -0,0 +1,220 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.Preconditions;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Rastériseur de disques dans une image en mémoire : les pixels sont des entiers ARGB prémultipliés (format IntArgbPre de
+ * JavaFX, TYPE_INT_ARGB_PRE de java.awt), et chaque disque y est composé (opérateur « over ») à partir d'un masque de
+ * couverture anticrénelé. Les masques des disques de diamètre inférieur ou égal à MAX_SPRITE_DIAMETER sont calculés une fois
+ * pour toutes, pour chaque quart de pixel de diamètre et chaque quart de pixel de décalage du centre ; la couverture des
+ * disques plus grands, rares, est calculée à la volée.
+ * Les disques sont composés dans l'ordre des appels : le résultat ne dépend donc pas de leur regroupement.
+ * Un rastériseur n'est pas sûr pour les fils d'exécution, mais les masques sont partagés par tous.
+ */
+
+final class StarRasterizer {
+
+    /**
+     * Diamètre maximal (en pixels) des disques dont les masques sont précalculés.
+     */
+    static final int MAX_SPRITE_DIAMETER = 8;
+
+    // Subdivisions d'un pixel pour le diamètre et le centre des masques, et échantillons par côté de pixel pour le calcul de
+    // leur couverture.
+    private static final int STEPS = 4;
+    private static final int SAMPLES = 8;
+
+    // Demi-côté des masques : un masque couvre 2 * SPRITE_HALF + 1 pixels de côté, centrés sur le pixel du centre du disque.
+    private static final int SPRITE_HALF = MAX_SPRITE_DIAMETER / 2 + 1;
+    private static final int SPRITE_SIZE = 2 * SPRITE_HALF + 1;
+
+    // Masques (couvertures de 0 à 255), indexés par diamètre (en quarts de pixel), puis par décalage du centre en x et en y.
+    private static final byte[][] SPRITES = computeSprites();
+
+    // Bornes (comprises, relativement au pixel du centre, identiques en x et en y) des pixels non nuls de chaque masque.
+    private static final int[] SPRITE_MIN = new int[SPRITES.length];
+    private static final int[] SPRITE_MAX = new int[SPRITES.length];
+
+    static {
+        for (int s = 0; s < SPRITES.length; s++) {
+            int min = SPRITE_HALF, max = -SPRITE_HALF - 1;
+            for (int p = 0; p < SPRITE_SIZE * SPRITE_SIZE; p++) {
+                if (SPRITES[s][p] != 0) {
+                    min = Math.min(min, Math.min(p % SPRITE_SIZE, p / SPRITE_SIZE) - SPRITE_HALF);
+                    max = Math.max(max, Math.max(p % SPRITE_SIZE, p / SPRITE_SIZE) - SPRITE_HALF);
+                }
+            }
+            SPRITE_MIN[s] = min;
+            SPRITE_MAX[s] = max;
+        }
+    }
+
+    private int width;
+    private int height;
+    private int[] pixels = new int[0];
+
+    /**
+     * Prépare une image transparente de la taille donnée, en réutilisant si possible le tableau de la précédente.
+     *
+     * @param width  largeur de l'image, en pixels
+     * @param height hauteur de l'image, en pixels
+     * @throws IllegalArgumentException si l'une des dimensions est négative
+     */
+    void reset(int width, int height) {
+        Preconditions.checkArgument(width >= 0 && height >= 0);
+        this.width = width;
+        this.height = height;
+        if (pixels.length < width * height) pixels = new int[width * height];
+        Arrays.fill(pixels, 0, width * height, 0);
+    }
+
+    /**
+     * Dessine désormais dans le tableau de pixels donné (ARGB prémultipliés, ligne par ligne), sans l'effacer ; permet par
+     * exemple de dessiner directement dans le tableau d'une BufferedImage de type TYPE_INT_ARGB_PRE.
+     *
+     * @param pixels tableau des pixels
+     * @param width  largeur de l'image, en pixels
+     * @param height hauteur de l'image, en pixels
+     * @throws IllegalArgumentException si l'une des dimensions est négative, ou si le tableau est trop petit
+     */
+    void wrap(int[] pixels, int width, int height) {
+        Preconditions.checkArgument(width >= 0 && height >= 0 && pixels.length >= width * height);
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+    }
+
+    /**
+     * Compose les étoiles d'index donnés, dans l'ordre donné, avec la couleur de leur palier.
+     *
+     * @param visibleStars index des étoiles à dessiner
+     * @param positions    positions des étoiles dans l'image (x à l'index 2i, y à l'index 2i + 1 pour l'étoile i)
+     * @param diameters    diamètres des étoiles dans l'image, à l'index de l'étoile
+     * @param colorBuckets paliers de couleur des étoiles, à l'index de l'étoile
+     */
+    void drawStars(int[] visibleStars, double[] positions, double[] diameters, IntBuffer colorBuckets) {
+        for (int i : visibleStars)
+            fillDisk(positions[2 * i], positions[2 * i + 1], diameters[i], BlackBodyArgb.argbForBucket(colorBuckets.get(i)));
+    }
+
+    /**
+     * Compose un disque anticrénelé. Le pixel (i, j) de l'image couvre le carré [i, i + 1[ × [j, j + 1[.
+     *
+     * @param x        abscisse du centre
+     * @param y        ordonnée du centre
+     * @param diameter diamètre
+     * @param argb     couleur, au format ARGB non prémultiplié
+     */
+    void fillDisk(double x, double y, double diameter, int argb) {
+        double radius = diameter / 2;
+        if (!(diameter > 0) || x + radius < 0 || y + radius < 0 || x - radius > width || y - radius > height) return;
+
+        if (diameter <= MAX_SPRITE_DIAMETER) {
+            // Centre arrondi au quart de pixel, et masque correspondant.
+            long qx = Math.round(x * STEPS), qy = Math.round(y * STEPS);
+            int cx = (int) Math.floorDiv(qx, STEPS), cy = (int) Math.floorDiv(qy, STEPS);
+            int sprite = spriteIndex((int) Math.round(diameter * STEPS), Math.floorMod(qx, STEPS), Math.floorMod(qy, STEPS));
+            byte[] coverages = SPRITES[sprite];
+            int x0 = Math.max(0, cx + SPRITE_MIN[sprite]), x1 = Math.min(width - 1, cx + SPRITE_MAX[sprite]);
+            int y0 = Math.max(0, cy + SPRITE_MIN[sprite]), y1 = Math.min(height - 1, cy + SPRITE_MAX[sprite]);
+            for (int py = y0; py <= y1; py++) {
+                int row = (py - cy + SPRITE_HALF) * SPRITE_SIZE - cx + SPRITE_HALF;
+                for (int px = x0; px <= x1; px++) {
+                    int coverage = coverages[row + px] & 0xFF;
+                    if (coverage != 0) blend(py * width + px, argb, coverage);
+                }
+            }
+        } else {
+            // Couverture approchée par la distance au bord du disque, pour les grands disques.
+            int x0 = Math.max(0, (int) Math.floor(x - radius)), x1 = Math.min(width - 1, (int) Math.floor(x + radius));
+            int y0 = Math.max(0, (int) Math.floor(y - radius)), y1 = Math.min(height - 1, (int) Math.floor(y + radius));
+            for (int py = y0; py <= y1; py++) {
+                for (int px = x0; px <= x1; px++) {
+                    double distance = Math.hypot(px + 0.5 - x, py + 0.5 - y);
+                    int coverage = (int) Math.round(255 * Math.max(0, Math.min(1, radius + 0.5 - distance)));
+                    if (coverage != 0) blend(py * width + px, argb, coverage);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return la largeur de l'image.
+     */
+    int width() {
+        return width;
+    }
+
+    /**
+     * @return la hauteur de l'image.
+     */
+    int height() {
+        return height;
+    }
+
+    /**
+     * @return le tableau des pixels de l'image (ARGB prémultipliés, ligne par ligne), qui peut être plus grand que l'image
+     * et n'est valable que jusqu'au prochain appel à reset.
+     */
+    int[] pixels() {
+        return pixels;
+    }
+
+    // Compose la couleur donnée, de couverture donnée, sur le pixel d'index donné.
+    private void blend(int index, int argb, int coverage) {
+        int alpha = scale(argb >>> 24, coverage);
+        if (alpha == 255) {
+            pixels[index] = argb;
+            return;
+        }
+        int inverse = 255 - alpha;
+        int destination = pixels[index];
+        int a = alpha + scale(destination >>> 24, inverse);
+        int r = scale((argb >> 16) & 0xFF, alpha) + scale((destination >> 16) & 0xFF, inverse);
+        int g = scale((argb >> 8) & 0xFF, alpha) + scale((destination >> 8) & 0xFF, inverse);
+        int b = scale(argb & 0xFF, alpha) + scale(destination & 0xFF, inverse);
+        pixels[index] = (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    // Retourne value * factor / 255, arrondi, pour value et factor compris entre 0 et 255, sans division.
+    private static int scale(int value, int factor) {
+        int t = value * factor + 128;
+        return (t + (t >> 8)) >> 8;
+    }
+
+    private static int spriteIndex(int quarterDiameter, int offsetX, int offsetY) {
+        return (quarterDiameter * STEPS + offsetX) * STEPS + offsetY;
+    }
+
+    // Calcule la couverture de chaque pixel de chaque masque par SAMPLES × SAMPLES échantillons.
+    private static byte[][] computeSprites() {
+        byte[][] sprites = new byte[(MAX_SPRITE_DIAMETER * STEPS + 1) * STEPS * STEPS][];
+        for (int d = 0; d <= MAX_SPRITE_DIAMETER * STEPS; d++) {
+            double radius = d / (2.0 * STEPS);
+            for (int ox = 0; ox < STEPS; ox++) {
+                for (int oy = 0; oy < STEPS; oy++) {
+                    // Centre du disque, dans le repère du masque dont le pixel (0, 0) couvre [0, 1[ × [0, 1[.
+                    double centerX = SPRITE_HALF + (double) ox / STEPS, centerY = SPRITE_HALF + (double) oy / STEPS;
+                    byte[] sprite = new byte[SPRITE_SIZE * SPRITE_SIZE];
+                    for (int py = 0; py < SPRITE_SIZE; py++) {
+                        for (int px = 0; px < SPRITE_SIZE; px++) {
+                            int inside = 0;
+                            for (int sy = 0; sy < SAMPLES; sy++) {
+                                for (int sx = 0; sx < SAMPLES; sx++) {
+                                    double dx = px + (sx + 0.5) / SAMPLES - centerX, dy = py + (sy + 0.5) / SAMPLES - centerY;
+                                    if (dx * dx + dy * dy <= radius * radius) inside++;
+                                }
+                            }
+                            sprite[py * SPRITE_SIZE + px] = (byte) ((inside * 255 + SAMPLES * SAMPLES / 2) / (SAMPLES * SAMPLES));
+                        }
+                    }
+                    sprites[spriteIndex(d, ox, oy)] = sprite;
+                }
+            }
+        }
+        return sprites;
+    }
+}
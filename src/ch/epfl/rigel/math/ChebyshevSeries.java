@@ -0,0 +1,100 @@
+package ch.epfl.rigel.math;
+
+import ch.epfl.rigel.Preconditions;
+
+import static java.lang.Math.*;
+
+/**
+ * Représente une fonction approchée sur un intervalle par une série de polynômes de Tchebychev, c.-à-d. une somme
+ * c0 T0(u) + c1 T1(u) + ... où u est la variable ramenée à l'intervalle [-1, 1].
+ * Contrairement à Polynomial, dont les coefficients sont ceux des puissances de la variable, une telle série reste bien
+ * conditionnée pour des degrés élevés, et son erreur d'approximation peut être estimée à partir de ses derniers coefficients.
+ */
+
+public final class ChebyshevSeries {
+
+    private final double start;
+    private final double end;
+    private final double[] coefficients;
+
+    private ChebyshevSeries(double start, double end, double[] coefficients) {
+        this.start = start;
+        this.end = end;
+        this.coefficients = coefficients;
+    }
+
+    /**
+     * Retourne les nœuds de Tchebychev de l'intervalle donné, par ordre croissant, auxquels la fonction doit être
+     * échantillonnée pour être approchée par fit.
+     *
+     * @param start borne inférieure de l'intervalle
+     * @param end   borne supérieure de l'intervalle
+     * @param count nombre de nœuds, égal au degré de la série plus un
+     * @return les nœuds
+     * @throws IllegalArgumentException si l'intervalle est vide ou si le nombre de nœuds n'est pas strictement positif
+     */
+    public static double[] nodes(double start, double end, int count) {
+        Preconditions.checkArgument(start < end && count > 0);
+        double[] nodes = new double[count];
+        for (int k = 0; k < count; k++) {
+            double u = -cos(PI * (k + 0.5) / count);
+            nodes[k] = (start + end) / 2 + u * (end - start) / 2;
+        }
+        return nodes;
+    }
+
+    /**
+     * Construit la série interpolant la fonction dont on donne les valeurs aux nœuds de l'intervalle (voir nodes).
+     *
+     * @param start   borne inférieure de l'intervalle
+     * @param end     borne supérieure de l'intervalle
+     * @param samples valeurs de la fonction aux nœuds, par ordre croissant des nœuds
+     * @return la série de degré samples.length - 1
+     * @throws IllegalArgumentException si l'intervalle est vide ou s'il n'y a aucune valeur
+     */
+    public static ChebyshevSeries fit(double start, double end, double[] samples) {
+        Preconditions.checkArgument(start < end && samples.length > 0);
+        int count = samples.length;
+        double[] coefficients = new double[count];
+        for (int k = 0; k < count; k++) {
+            // Valeurs des polynômes de Tchebychev au k-ème nœud u, par la récurrence Tj+1(u) = 2u Tj(u) - Tj-1(u).
+            double u = -cos(PI * (k + 0.5) / count);
+            double previous = 1, current = u;
+            coefficients[0] += samples[k];
+            for (int j = 1; j < count; j++) {
+                coefficients[j] += samples[k] * current;
+                double next = 2 * u * current - previous;
+                previous = current;
+                current = next;
+            }
+        }
+        for (int j = 0; j < count; j++) coefficients[j] *= ((j == 0) ? 1.0 : 2.0) / count;
+        return new ChebyshevSeries(start, end, coefficients);
+    }
+
+    /**
+     * Calcule la valeur de la série (par l'algorithme de Clenshaw).
+     *
+     * @param x valeur de l'intervalle de la série pour laquelle on souhaite calculer la série
+     * @return la valeur de la série en x.
+     */
+    public double at(double x) {
+        double u = (2 * x - start - end) / (end - start);
+        double b1 = 0, b2 = 0;
+        for (int j = coefficients.length - 1; j >= 1; j--) {
+            double b0 = 2 * u * b1 - b2 + coefficients[j];
+            b2 = b1;
+            b1 = b0;
+        }
+        return u * b1 - b2 + coefficients[0];
+    }
+
+    /**
+     * @return une estimation de l'erreur d'approximation de la série, la somme des valeurs absolues de ses deux derniers
+     * coefficients (les coefficients d'une fonction régulière décroissant rapidement).
+     */
+    public double errorBound() {
+        int n = coefficients.length;
+        return abs(coefficients[n - 1]) + ((n > 1) ? abs(coefficients[n - 2]) : 0);
+    }
+}
@@ -0,0 +1,104 @@
+package ch.epfl.rigel;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvTokenizerTest {
+
+    private static final String HYG_CATALOGUE_NAME =
+            "/hygdata_v3.csv";
+
+    private static CsvTokenizer tokenizer(String content) {
+        return new CsvTokenizer(new ByteArrayInputStream(content.getBytes(US_ASCII)));
+    }
+
+    @Test
+    void nextLineFindsFieldsOfEachLine() throws IOException {
+        CsvTokenizer in = tokenizer("a,bc,,d\r\n\nlast,line");
+
+        assertTrue(in.nextLine());
+        assertEquals(4, in.fieldCount());
+        assertEquals("a", in.string(0));
+        assertEquals("bc", in.string(1));
+        assertTrue(in.isEmpty(2));
+        assertEquals("d", in.string(3));
+        assertTrue(in.isEmpty(10));
+
+        assertTrue(in.nextLine());
+        assertEquals(1, in.fieldCount());
+        assertTrue(in.isEmpty(0));
+
+        assertTrue(in.nextLine());
+        assertEquals("line", in.string(1));
+        assertTrue(in.fieldEquals(0, "last"));
+        assertFalse(in.fieldEquals(0, "las"));
+
+        assertFalse(in.nextLine());
+    }
+
+    @Test
+    void nextLineWorksAcrossBufferRefills() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) content.append(i).append(",").append(i * 0.5).append('\n');
+
+        CsvTokenizer in = tokenizer(content.toString());
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(in.nextLine());
+            assertEquals(i, in.parseInt(0));
+            assertEquals(i * 0.5, in.parseDouble(1));
+        }
+        assertFalse(in.nextLine());
+    }
+
+    @Test
+    void parseDoubleMatchesDoubleParseDouble() throws IOException {
+        String[] values = {"0", "-0.0", "1.0454", "-1.0454", "12", "1e-05", "4.5E+3", "0.000911850889839031", "-26.7", ".5", "5."};
+        CsvTokenizer in = tokenizer(String.join("\n", values));
+        for (String value : values) {
+            assertTrue(in.nextLine());
+            double expected = Double.parseDouble(value);
+            assertEquals(expected, in.parseDouble(0), Math.ulp(expected));
+        }
+    }
+
+    @Test
+    void parseFailsOnInvalidNumbers() throws IOException {
+        CsvTokenizer in = tokenizer("abc,12a,,-");
+        in.nextLine();
+        assertThrows(NumberFormatException.class, () -> in.parseDouble(0));
+        assertThrows(NumberFormatException.class, () -> in.parseInt(1));
+        assertThrows(NumberFormatException.class, () -> in.parseInt(2));
+        assertThrows(NumberFormatException.class, () -> in.parseDouble(3));
+    }
+
+    @Test
+    void tokenizerFieldsMatchSplitOnHygDatabase() throws IOException {
+        byte[] csv;
+        try (InputStream hygStream = getClass().getResourceAsStream(HYG_CATALOGUE_NAME)) {
+            csv = hygStream.readAllBytes();
+        }
+
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(csv), US_ASCII));
+             CsvTokenizer in = new CsvTokenizer(new ByteArrayInputStream(csv))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                assertTrue(in.nextLine());
+                String[] fields = line.split(",", -1);
+                assertEquals(fields.length, in.fieldCount());
+                for (int i = 0; i < fields.length; i++) {
+                    assertEquals(fields[i], in.string(i));
+                    assertEquals(fields[i].isEmpty(), in.isEmpty(i));
+                }
+            }
+            assertFalse(in.nextLine());
+        }
+    }
+}
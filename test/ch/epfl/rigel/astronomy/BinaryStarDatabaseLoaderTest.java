@@ -0,0 +1,124 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BinaryStarDatabaseLoaderTest {
+
+    private static final String HYG_CATALOGUE_NAME =
+            "/hygdata_v3.csv";
+
+    @Test
+    void snapshotRoundTripKeepsEveryColumn() throws IOException {
+        List < Star > stars = List.of(
+                new Star(24436, "Rigel", EquatorialCoordinates.of(1.3724, -0.1431), 0.18f, -0.03f),
+                new Star(0, "? Ori", EquatorialCoordinates.of(0, 0), 0f, 0f),
+                new Star(27989, "Bételgeuse", EquatorialCoordinates.of(1.5497, 0.1293), 0.45f, 1.5f));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryStarDatabaseWriter.write(stars, out);
+
+        StarCatalogue.Builder builder = new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(out.toByteArray()), BinaryStarDatabaseLoader.INSTANCE);
+
+        assertEquals(stars.size(), builder.stars().size());
+        for (int i = 0; i < stars.size(); i++) {
+            Star expected = stars.get(i);
+            Star actual = builder.stars().get(i);
+            assertEquals(expected.hipparcosId(), actual.hipparcosId());
+            assertEquals(expected.name(), actual.name());
+            assertEquals(expected.equatorialPos().ra(), actual.equatorialPos().ra());
+            assertEquals(expected.equatorialPos().dec(), actual.equatorialPos().dec());
+            assertEquals(expected.magnitude(), actual.magnitude());
+            assertEquals(expected.colorTemperature(), actual.colorTemperature());
+        }
+        // Les étoiles, construites à la demande, sont conservées.
+        assertSame(builder.stars().get(2), builder.stars().get(2));
+        assertSame(builder.stars().get(0), builder.build().stars().get(0));
+    }
+
+    @Test
+    void starsAddedAfterSnapshotAreAppended() throws IOException {
+        List < Star > stars = List.of(
+                new Star(24436, "Rigel", EquatorialCoordinates.of(1.3724, -0.1431), 0.18f, -0.03f),
+                new Star(27989, "Bételgeuse", EquatorialCoordinates.of(1.5497, 0.1293), 0.45f, 1.5f));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryStarDatabaseWriter.write(stars.subList(0, 1), out);
+
+        Asterism asterism = new Asterism(stars);
+        StarCatalogue catalogue = new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(out.toByteArray()), BinaryStarDatabaseLoader.INSTANCE)
+                .addStar(stars.get(1))
+                .addAsterism(asterism)
+                .build();
+        assertEquals(2, catalogue.stars().size());
+        assertEquals("Rigel", catalogue.stars().get(0).name());
+        assertEquals(List.of(0, 1), catalogue.asterismIndices(asterism));
+    }
+
+    @Test
+    void mappedCatalogueBuildsStarsOnDemand() throws IOException {
+        List < Star > stars = List.of(
+                new Star(24436, "Rigel", EquatorialCoordinates.of(1.3724, -0.1431), 0.18f, -0.03f),
+                new Star(27989, "Bételgeuse", EquatorialCoordinates.of(1.5497, 0.1293), 0.45f, 1.5f));
+
+        Path snapshot = Files.createTempFile("stars", ".bin");
+        try (OutputStream out = Files.newOutputStream(snapshot)) {
+            BinaryStarDatabaseWriter.write(stars, out);
+        }
+
+        StarCatalogue catalogue = StarCatalogue.mapped(snapshot);
+        assertEquals(2, catalogue.stars().size());
+        assertEquals(1.5497, catalogue.data().ra(1));
+        assertEquals(0.45f, catalogue.data().magnitude(1));
+        assertEquals("Bételgeuse", catalogue.stars().get(1).name());
+        assertEquals(24436, catalogue.stars().get(0).hipparcosId());
+        assertTrue(catalogue.asterisms().isEmpty());
+        Files.delete(snapshot);
+    }
+
+    @Test
+    void loaderRejectsUnknownFormat() {
+        byte[] garbage = new byte[64];
+        assertThrows(IOException.class, () -> BinaryStarDatabaseLoader.INSTANCE.load(new ByteArrayInputStream(garbage), new StarCatalogue.Builder()));
+    }
+
+    @Test
+    void snapshotOfHygCatalogueKeepsEveryStar() throws IOException {
+        StarCatalogue.Builder reference;
+        try (InputStream hygStream = getClass().getResourceAsStream(HYG_CATALOGUE_NAME)) {
+            reference = new StarCatalogue.Builder().loadFrom(hygStream, HygDatabaseLoader.INSTANCE);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryStarDatabaseWriter.write(reference.stars(), out);
+
+        StarCatalogue.Builder loaded = new StarCatalogue.Builder()
+                .loadFrom(new ByteArrayInputStream(out.toByteArray()), BinaryStarDatabaseLoader.INSTANCE);
+
+        assertEquals(reference.stars().size(), loaded.stars().size());
+        for (int i = 0; i < reference.stars().size(); i++) {
+            Star expected = reference.stars().get(i);
+            Star actual = loaded.stars().get(i);
+            assertEquals(expected.hipparcosId(), actual.hipparcosId());
+            assertEquals(expected.name(), actual.name());
+            assertEquals(expected.equatorialPos().ra(), actual.equatorialPos().ra());
+            assertEquals(expected.equatorialPos().dec(), actual.equatorialPos().dec());
+            assertEquals(expected.magnitude(), actual.magnitude());
+            assertEquals(expected.colorIndex(), actual.colorIndex());
+        }
+    }
+}
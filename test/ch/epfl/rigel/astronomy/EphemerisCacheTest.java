@@ -0,0 +1,102 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import ch.epfl.rigel.math.Angle;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EphemerisCacheTest {
+
+    // Écart angulaire (approché) entre les positions des deux objets.
+    private static double separation(CelestialObject expected, CelestialObject actual) {
+        double deltaRa = Math.abs(expected.equatorialPos().ra() - actual.equatorialPos().ra());
+        deltaRa = Math.min(deltaRa, Angle.TAU - deltaRa) * Math.cos(expected.equatorialPos().dec());
+        return Math.max(deltaRa, Math.abs(expected.equatorialPos().dec() - actual.equatorialPos().dec()));
+    }
+
+    @Test
+    void cachedBodiesAreWithinToleranceOfModels() {
+        SplittableRandom rng = TestRandomizer.newRandom();
+        EphemerisCache cache = new EphemerisCache();
+        for (int i = 0; i < 2_000; i++) {
+            double days = rng.nextDouble(-20_000, 20_000);
+            EclipticToEquatorialConversion conversion = EclipticToEquatorialConversion.ofDaysSinceJ2010(days);
+
+            // La première demande est satisfaite par les modèles, la deuxième par les séries.
+            cache.sun(days);
+            cache.moon(days);
+            cache.planets(days);
+
+            Sun sun = SunModel.SUN.at(days, conversion);
+            Sun cachedSun = cache.sun(days);
+            assertTrue(separation(sun, cachedSun) < EphemerisCache.POSITION_TOLERANCE);
+            assertEquals(sun.eclipticPos().lon(), cachedSun.eclipticPos().lon(), 1e-9);
+            assertEquals(sun.meanAnomaly(), cachedSun.meanAnomaly());
+
+            Moon moon = MoonModel.MOON.at(days, conversion);
+            Moon cachedMoon = cache.moon(days);
+            assertTrue(separation(moon, cachedMoon) < EphemerisCache.POSITION_TOLERANCE);
+            assertEquals(moon.phase(), cachedMoon.phase(), 1e-6);
+            assertEquals(moon.angularSize(), cachedMoon.angularSize(), 1e-8);
+
+            List < Planet > cachedPlanets = cache.planets(days);
+            int index = 0;
+            for (PlanetModel model : PlanetModel.ALL) {
+                if (model == PlanetModel.EARTH) continue;
+                Planet planet = model.at(days, conversion);
+                Planet cachedPlanet = cachedPlanets.get(index++);
+                assertEquals(planet.name(), cachedPlanet.name());
+                assertTrue(separation(planet, cachedPlanet) < EphemerisCache.POSITION_TOLERANCE);
+                assertEquals(Math.min(6, planet.magnitude()), Math.min(6, cachedPlanet.magnitude()), EphemerisCache.MAGNITUDE_TOLERANCE);
+            }
+        }
+    }
+
+    @Test
+    void leastRecentlyUsedSegmentsAreEvicted() {
+        EphemerisCache cache = new EphemerisCache(2);
+        cache.sun(0);
+        cache.sun(0);
+        assertEquals(1, cache.fittedSegments());
+        cache.sun(1);
+        assertEquals(1, cache.fittedSegments());
+
+        // Le segment du Soleil contenant le jour 0 est évincé par ceux contenant les jours 100 et 200.
+        for (double days : new double[]{100, 100, 200, 200}) cache.sun(days);
+        assertEquals(3, cache.fittedSegments());
+        assertEquals(2, cache.size());
+        cache.sun(0);
+        cache.sun(0);
+        assertEquals(4, cache.fittedSegments());
+    }
+
+    @Test
+    void segmentsExceedingToleranceUseModels() {
+        // Au jour 5, Mercure approche de sa conjonction inférieure : l'erreur estimée de la série de son éclat dépasse
+        // MAGNITUDE_TOLERANCE, et le segment est abandonné au profit du modèle.
+        EphemerisCache cache = new EphemerisCache();
+        Planet mercury = PlanetModel.MERCURY.at(5, EclipticToEquatorialConversion.ofDaysSinceJ2010(5));
+        cache.planet(PlanetModel.MERCURY, 5);
+        for (int i = 0; i < 2; i++) {
+            Planet cachedMercury = cache.planet(PlanetModel.MERCURY, 5);
+            assertEquals(mercury.equatorialPos().ra(), cachedMercury.equatorialPos().ra());
+            assertEquals(mercury.magnitude(), cachedMercury.magnitude());
+        }
+        assertEquals(1, cache.fittedSegments());
+    }
+
+    @Test
+    void constructorFailsOnNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new EphemerisCache(0));
+    }
+
+    @Test
+    void planetFailsOnEarth() {
+        assertThrows(IllegalArgumentException.class, () -> new EphemerisCache().planet(PlanetModel.EARTH, 0));
+    }
+}
@@ -0,0 +1,52 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EphemerisContextTest {
+
+    private static final ZonedDateTime WHEN = ZonedDateTime.of(2020, 3, 20, 21, 0, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    void contextGivesSameBodiesAsModels() {
+        double days = Epoch.J2010.daysUntil(WHEN);
+        EclipticToEquatorialConversion conversion = new EclipticToEquatorialConversion(WHEN);
+        EphemerisContext context = new EphemerisContext(WHEN);
+
+        List < Planet > planets = context.planets();
+        List < PlanetModel > models = new ArrayList <>(PlanetModel.ALL);
+        models.remove(PlanetModel.EARTH);
+        assertEquals(models.size(), planets.size());
+        for (int i = 0; i < models.size(); i++) {
+            Planet expected = models.get(i).at(days, conversion);
+            assertEquals(expected.info(), planets.get(i).info());
+            assertEquals(expected.equatorialPos().ra(), planets.get(i).equatorialPos().ra());
+            assertEquals(expected.equatorialPos().dec(), planets.get(i).equatorialPos().dec());
+            assertEquals(expected.magnitude(), planets.get(i).magnitude());
+        }
+
+        Sun sun = SunModel.SUN.at(days, conversion);
+        assertEquals(sun.equatorialPos().ra(), context.sun().equatorialPos().ra());
+        assertEquals(MoonModel.MOON.at(days, conversion).equatorialPos().dec(), context.moon().equatorialPos().dec());
+    }
+
+    @Test
+    void evaluateAllKeepsOrderOfInstants() {
+        List < ZonedDateTime > instants = new ArrayList <>();
+        for (int i = 0; i < 1_000; i++) instants.add(WHEN.plusHours(i));
+
+        List < Moon > moons = EphemerisContext.evaluateAll(instants, EphemerisContext::moon);
+        assertEquals(instants.size(), moons.size());
+        for (int i = 0; i < instants.size(); i++) {
+            Moon expected = new EphemerisContext(instants.get(i)).moon();
+            assertEquals(expected.equatorialPos().ra(), moons.get(i).equatorialPos().ra());
+        }
+    }
+}
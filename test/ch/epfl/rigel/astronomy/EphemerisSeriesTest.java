@@ -0,0 +1,40 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EclipticToEquatorialConversion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EphemerisSeriesTest {
+
+    @Test
+    void atAllGivesSameValuesAsAt() {
+        // Une minute d'écart entre deux instants, sur un peu plus d'une semaine.
+        double[] days = new double[12_000];
+        for (int i = 0; i < days.length; i++) days[i] = -1_000 + i / 1440d;
+
+        List < CelestialObjectModel < ? extends CelestialObject > > models = new ArrayList <>(List.of(SunModel.SUN, MoonModel.MOON));
+        for (PlanetModel model : PlanetModel.ALL) if (model != PlanetModel.EARTH) models.add(model);
+
+        for (CelestialObjectModel < ? extends CelestialObject > model : models) {
+            EphemerisSeries series = model.atAll(days);
+            assertEquals(days.length, series.size());
+            for (int i = 0; i < days.length; i += 7) {
+                CelestialObject expected = model.at(days[i], EclipticToEquatorialConversion.ofDaysSinceJ2010(days[i]));
+                assertEquals(expected.equatorialPos().ra(), series.rightAscensions()[i], 1e-8);
+                assertEquals(expected.equatorialPos().dec(), series.declinations()[i], 1e-8);
+                assertEquals(expected.angularSize(), series.angularSizes()[i], 1e-7);
+                assertEquals(expected.magnitude(), series.magnitudes()[i], 1e-5);
+            }
+        }
+    }
+
+    @Test
+    void atAllFailsOnSeriesOfWrongSize() {
+        assertThrows(IllegalArgumentException.class, () -> SunModel.SUN.atAll(new double[3], new EphemerisSeries(2)));
+        assertThrows(IllegalArgumentException.class, () -> new EphemerisSeries(-1));
+    }
+}
@@ -2,6 +2,7 @@ package ch.epfl.rigel.astronomy;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -47,6 +48,25 @@ public class HygDatabaseLoaderTest {
         }
     }
 
+    @Test
+    void parallelLoaderKeepsFileOrder() throws IOException {
+        try (InputStream hygStream = getClass().getResourceAsStream(HYG_CATALOGUE_NAME)) {
+            byte[] hyg = hygStream.readAllBytes();
+
+            StarCatalogue.Builder sequential = new StarCatalogue.Builder()
+                    .loadFrom(new ByteArrayInputStream(hyg), HygDatabaseLoader.INSTANCE);
+            StarCatalogue.Builder parallel = new StarCatalogue.Builder()
+                    .loadFrom(new ByteArrayInputStream(hyg), HygDatabaseLoader.PARALLEL);
 
+            assertEquals(sequential.stars().size(), parallel.stars().size());
+            for (int i = 0; i < sequential.stars().size(); i++) {
+                Star expected = sequential.stars().get(i);
+                Star actual = parallel.stars().get(i);
+                assertEquals(expected.hipparcosId(), actual.hipparcosId());
+                assertEquals(expected.name(), actual.name());
+                assertEquals(expected.equatorialPos().ra(), actual.equatorialPos().ra());
+            }
+        }
+    }
 
 }
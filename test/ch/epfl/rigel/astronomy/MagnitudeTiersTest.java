@@ -0,0 +1,49 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MagnitudeTiersTest {
+
+    private static List < Star > randomStars(SplittableRandom rng, int count) {
+        List < Star > stars = new ArrayList <>();
+        EquatorialCoordinates position = EquatorialCoordinates.of(0, 0);
+        for (int i = 0; i < count; i++) stars.add(new Star(i, "", position, (float) rng.nextDouble(-2, 12), 0));
+        return stars;
+    }
+
+    @Test
+    void starsAreSortedByMagnitude() {
+        List < Star > stars = randomStars(TestRandomizer.newRandom(), 10_000);
+        int[] byMagnitude = new StarCatalogue(stars, List.of()).magnitudeTiers().byMagnitude();
+
+        assertEquals(stars.size(), byMagnitude.length);
+        boolean[] seen = new boolean[stars.size()];
+        for (int k = 0; k < byMagnitude.length; k++) {
+            assertFalse(seen[byMagnitude[k]]);
+            seen[byMagnitude[k]] = true;
+            if (k > 0) assertTrue(stars.get(byMagnitude[k - 1]).magnitude() <= stars.get(byMagnitude[k]).magnitude());
+        }
+    }
+
+    @Test
+    void activeCountIncludesWholeTiers() {
+        List < Star > stars = randomStars(TestRandomizer.newRandom(), 10_000);
+        MagnitudeTiers tiers = new StarCatalogue(stars, List.of()).magnitudeTiers();
+
+        for (double limit : new double[]{-5, -0.5, 0, 4.2, 6.99, 11.5, 20}) {
+            long expected = stars.stream().filter(s -> s.magnitude() < Math.floor(limit) + 1).count();
+            assertEquals(expected, tiers.activeCount(limit));
+        }
+        // Les paliers ne changent qu'aux valeurs entières de la magnitude limite.
+        assertEquals(tiers.activeCount(6), tiers.activeCount(6.9));
+        assertEquals(stars.size(), tiers.activeCount(Double.POSITIVE_INFINITY));
+    }
+}
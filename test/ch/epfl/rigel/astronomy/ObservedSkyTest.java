@@ -0,0 +1,195 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import ch.epfl.test.TestRandomizer;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ObservedSkyTest {
+
+    private static final ZonedDateTime WHEN = ZonedDateTime.of(2020, 3, 20, 21, 0, 0, 0, ZoneOffset.UTC);
+    private static final GeographicCoordinates EPFL = GeographicCoordinates.ofDeg(6.57, 46.52);
+
+    private static ObservedSky sky(StereographicProjection projection, StarCatalogue catalogue, double visibleRadius) {
+        return new ObservedSky(WHEN, EPFL, projection, catalogue, new ArtificialSatelliteCatalogue(List.of()),
+                new UFOCatalogue(List.of()), visibleRadius);
+    }
+
+    @Test
+    void culledSkyProjectsEveryStarInViewLikeFullSky() {
+        SplittableRandom rng = TestRandomizer.newRandom();
+        List < Star > stars = new ArrayList <>();
+        for (int i = 0; i < 50_000; i++) {
+            EquatorialCoordinates position = EquatorialCoordinates.of(rng.nextDouble(0, 2 * Math.PI), Math.asin(rng.nextDouble(-1, 1)));
+            stars.add(new Star(i, "", position, (float) rng.nextDouble(-1, 7), 0));
+        }
+        Asterism asterism = new Asterism(List.of(stars.get(5), stars.get(1_000), stars.get(40_000)));
+        StarCatalogue catalogue = new StarCatalogue(stars, List.of(asterism));
+        StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 40));
+        double[] full = sky(projection, catalogue, Math.PI).starPositions();
+
+        for (double radius : new double[]{0.2, 0.8, 2}) {
+            ObservedSky culled = sky(projection, catalogue, radius);
+            double[] positions = culled.starPositions();
+            int[] visible = culled.visibleStarIndices();
+
+            // Toutes les étoiles dont la projection est à l'intérieur du cône projeté doivent être visibles et à la même position.
+            double projectedRadius = Math.tan(radius / 2) * 0.999;
+            for (int i = 0; i < stars.size(); i++) {
+                if (Math.hypot(full[2 * i], full[2 * i + 1]) <= projectedRadius) {
+                    assertTrue(Arrays.binarySearch(visible, i) >= 0);
+                    assertEquals(full[2 * i], positions[2 * i]);
+                    assertEquals(full[2 * i + 1], positions[2 * i + 1]);
+                }
+            }
+
+            for (int index : catalogue.asterismIndices(asterism)) {
+                assertTrue(Arrays.binarySearch(visible, index) >= 0);
+                assertEquals(full[2 * index], positions[2 * index]);
+            }
+            for (int i = 1; i < visible.length; i++) assertTrue(visible[i - 1] < visible[i]);
+        }
+    }
+
+    @Test
+    void limitingMagnitudeKeepsOnlyActiveTiersAndAsterisms() {
+        SplittableRandom rng = TestRandomizer.newRandom();
+        List < Star > stars = new ArrayList <>();
+        for (int i = 0; i < 20_000; i++) {
+            EquatorialCoordinates position = EquatorialCoordinates.of(rng.nextDouble(0, 2 * Math.PI), Math.asin(rng.nextDouble(-1, 1)));
+            stars.add(new Star(i, "", position, (float) rng.nextDouble(-1, 10), 0));
+        }
+        Asterism asterism = new Asterism(List.of(stars.get(5), stars.get(1_000)));
+        StarCatalogue catalogue = new StarCatalogue(stars, List.of(asterism));
+        StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 40));
+        double[] full = sky(projection, catalogue, Math.PI).starPositions();
+
+        for (double radius : new double[]{0.3, Math.PI}) {
+            ObservedSky culled = new ObservedSky(WHEN, EPFL, projection, catalogue, new ArtificialSatelliteCatalogue(List.of()),
+                    new UFOCatalogue(List.of()), radius, 4.5);
+            int[] visible = culled.visibleStarIndices();
+            for (int index : visible) {
+                assertTrue(stars.get(index).magnitude() < 5 || catalogue.asterismIndices(asterism).contains(index));
+                assertEquals(full[2 * index], culled.starPositions()[2 * index]);
+            }
+            for (int index : catalogue.asterismIndices(asterism)) assertTrue(Arrays.binarySearch(visible, index) >= 0);
+        }
+    }
+
+    @Test
+    void updateReusesPreviousSkyAndMatchesNewSky() {
+        SplittableRandom rng = TestRandomizer.newRandom();
+        List < Star > stars = new ArrayList <>();
+        for (int i = 0; i < 20_000; i++) {
+            EquatorialCoordinates position = EquatorialCoordinates.of(rng.nextDouble(0, 2 * Math.PI), Math.asin(rng.nextDouble(-1, 1)));
+            stars.add(new Star(i, "", position, (float) rng.nextDouble(-1, 10), 0));
+        }
+        StarCatalogue catalogue = new StarCatalogue(stars, List.of());
+        ArtificialSatelliteCatalogue satellites = new ArtificialSatelliteCatalogue(List.of());
+        UFOCatalogue ufos = new UFOCatalogue(List.of());
+        StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 40));
+        ObservedSky sky = new ObservedSky(WHEN, EPFL, projection, catalogue, satellites, ufos, 0.7, 8);
+        double[] firstBuffer = sky.starPositions();
+
+        // Changement du seul centre de projection : les modèles sont réutilisés, les positions recalculées.
+        Sun sun = sky.sun();
+        StereographicProjection otherProjection = new StereographicProjection(HorizontalCoordinates.ofDeg(200, 30));
+        sky = sky.update(WHEN, EPFL, otherProjection, 0.7, 8);
+        assertSame(sun, sky.sun());
+        double[] secondBuffer = sky.starPositions();
+        assertNotSame(firstBuffer, secondBuffer);
+        assertSameVisibleStars(new ObservedSky(WHEN, EPFL, otherProjection, catalogue, satellites, ufos, 0.7, 8), sky);
+
+        // Petits pas de temps : la sélection des étoiles est réutilisée, seule la rotation sidérale change leurs positions.
+        for (int step = 1; step <= 10; step++) {
+            ZonedDateTime when = WHEN.plusSeconds(20 * step);
+            int[] visible = sky.visibleStarIndices();
+            sky = sky.update(when, EPFL, otherProjection, 0.7, 8);
+            assertSame(visible, sky.visibleStarIndices());
+            assertSame((step % 2 == 1) ? firstBuffer : secondBuffer, sky.starPositions());
+            assertSameVisibleStars(new ObservedSky(when, EPFL, otherProjection, catalogue, satellites, ufos, 0.7, 8), sky);
+        }
+
+        // Grand pas de temps : tout est recalculé.
+        ZonedDateTime later = WHEN.plusHours(3);
+        sky = sky.update(later, EPFL, otherProjection, 0.7, 8);
+        ObservedSky expected = new ObservedSky(later, EPFL, otherProjection, catalogue, satellites, ufos, 0.7, 8);
+        assertEquals(expected.moonPosition().x(), sky.moonPosition().x());
+        assertSameVisibleStars(expected, sky);
+    }
+
+    // Les étoiles visibles du ciel expected doivent être projetées à la même position dans actual, et seules les étoiles
+    // visibles de actual doivent avoir une position.
+    private static void assertSameVisibleStars(ObservedSky expected, ObservedSky actual) {
+        double[] expectedPositions = expected.starPositions();
+        double[] actualPositions = actual.starPositions();
+        for (int index : expected.visibleStarIndices()) {
+            if (Arrays.binarySearch(actual.visibleStarIndices(), index) < 0) continue;
+            assertEquals(expectedPositions[2 * index], actualPositions[2 * index]);
+            assertEquals(expectedPositions[2 * index + 1], actualPositions[2 * index + 1]);
+        }
+        long projected = 0;
+        for (int i = 0; i < actualPositions.length; i += 2) if (!Double.isNaN(actualPositions[i])) projected++;
+        assertEquals(actual.visibleStarIndices().length, projected);
+    }
+
+    @Test
+    void steadyStateUpdatesAllocateNoPositionArrays() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+
+        SplittableRandom rng = TestRandomizer.newRandom();
+        List < Star > stars = new ArrayList <>();
+        for (int i = 0; i < 50_000; i++) {
+            EquatorialCoordinates position = EquatorialCoordinates.of(rng.nextDouble(0, 2 * Math.PI), Math.asin(rng.nextDouble(-1, 1)));
+            stars.add(new Star(i, "", position, (float) rng.nextDouble(-1, 10), 0));
+        }
+        StarCatalogue catalogue = new StarCatalogue(stars, List.of());
+        StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 40));
+        ObservedSky sky = new ObservedSky(WHEN, EPFL, projection, catalogue, new ArtificialSatelliteCatalogue(List.of()),
+                new UFOCatalogue(List.of()), 0.9, 8);
+        double[][] buffers = new double[2][];
+
+        // Animation d'une seconde par image : après la chauffe, les deux tableaux des étoiles sont utilisés en alternance.
+        int frame = 0;
+        for (; frame < 2_000; frame++) sky = sky.update(WHEN.plusSeconds(frame), EPFL, projection, 0.9, 8);
+        buffers[0] = sky.starPositions();
+        sky = sky.update(WHEN.plusSeconds(frame++), EPFL, projection, 0.9, 8);
+        buffers[1] = sky.starPositions();
+        assertNotSame(buffers[0], buffers[1]);
+
+        int frames = 100;
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < frames; i++, frame++) {
+            sky = sky.update(WHEN.plusSeconds(frame), EPFL, projection, 0.9, 8);
+            assertSame(buffers[i % 2], sky.starPositions());
+        }
+        long bytesPerFrame = (threads.getThreadAllocatedBytes(threadId) - allocatedBefore) / frames;
+
+        // Le tableau des positions des étoiles occupe à lui seul 800 ko ; seuls quelques petits objets (environ 2 ko par
+        // image) sont encore alloués.
+        assertTrue(bytesPerFrame < 4 * 1024, bytesPerFrame + " octets alloués par image");
+    }
+
+    @Test
+    void constructorFailsOnNegativeVisibleRadius() {
+        StarCatalogue catalogue = new StarCatalogue(List.of(), List.of());
+        StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 40));
+        assertThrows(IllegalArgumentException.class, () -> sky(projection, catalogue, -1));
+    }
+}
@@ -7,11 +7,14 @@ import ch.epfl.rigel.math.Angle;
 import org.junit.jupiter.api.Test;
 
 import java.time.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static ch.epfl.rigel.astronomy.PlanetModel.*;
 import static java.lang.Math.toRadians;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class PlanetModelTest {
     private static final ZonedDateTime ZDT_2003_11_22_MIDNIGHT_UTC = ZonedDateTime.of(
@@ -174,4 +177,37 @@ class PlanetModelTest {
         assertEquals(1.110831618309021, mag3, 1e-8);
         assertEquals(-2.154392957687378, mag4, 1e-8);
     }
+
+    @Test
+    void concurrentEvaluationGivesSameResultsAsSequential() {
+        List < PlanetModel > planets = new ArrayList <>(ALL);
+        planets.remove(EARTH);
+        int planetCount = planets.size();
+        // 10 000 instants répartis sur la même période d'environ 110 ans, soit 70 000 évaluations (environ 1 Mo de résultats).
+        int instants = 10_000;
+        var eclToEqu = new EclipticToEquatorialConversion(ZDT_2003_11_22_MIDNIGHT_UTC);
+
+        // Chaque instant évalue toutes les planètes, en commençant par une planète différente pour mélanger les appels.
+        double[] ra = new double[instants * planetCount];
+        double[] magnitudes = new double[instants * planetCount];
+        IntStream.range(0, instants).parallel().forEach(i -> {
+            double days = -20_000 + i * 4.0;
+            for (int k = 0; k < planetCount; k++) {
+                int p = (i + k) % planetCount;
+                Planet planet = planets.get(p).at(days, eclToEqu);
+                ra[i * planetCount + p] = planet.equatorialPos().ra();
+                magnitudes[i * planetCount + p] = planet.magnitude();
+            }
+        });
+
+        for (int i = 0; i < instants; i++) {
+            double days = -20_000 + i * 4.0;
+            for (int p = 0; p < planetCount; p++) {
+                Planet planet = planets.get(p).at(days, eclToEqu);
+                assertEquals(planet.equatorialPos().ra(), ra[i * planetCount + p]);
+                assertEquals(planet.magnitude(), magnitudes[i * planetCount + p]);
+            }
+        }
+        for (double value : ra) assertTrue(value >= 0 && value < Angle.TAU);
+    }
 }
@@ -0,0 +1,75 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PositionGridTest {
+
+    // Positions aléatoires, dont certaines sur une grille grossière afin de produire des égalités de distance.
+    private static double[] randomPositions(SplittableRandom rng, int count) {
+        double[] positions = new double[2 * count];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = rng.nextInt(4) == 0 ? Math.round(rng.nextDouble(-1, 1) * 10) / 10.0 : rng.nextDouble(-1, 1);
+        }
+        return positions;
+    }
+
+    @Test
+    void nearestMatchesLinearScan() {
+        SplittableRandom rng = TestRandomizer.newRandom();
+        for (int count : new int[]{0, 1, 2, 10, 1_000, 20_000}) {
+            double[] positions = randomPositions(rng, count);
+            if (count > 3) {
+                positions[6] = Double.NaN;
+                positions[2] = 1e300;
+            }
+            PositionGrid grid = new PositionGrid(positions);
+
+            for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+                double x = Math.round(rng.nextDouble(-1, 1) * 10) / 10.0;
+                double y = rng.nextDouble(-1, 1);
+                double maxDistance = rng.nextDouble(0, 0.5);
+                assertEquals(PositionGrid.nearestByScan(positions, x, y, maxDistance), grid.nearest(x, y, maxDistance));
+            }
+            assertEquals(PositionGrid.nearestByScan(positions, 0, 0, 10), grid.nearest(0, 0, 10));
+        }
+    }
+
+    @Test
+    void nearestIsStrictlyWithinMaxDistance() {
+        PositionGrid grid = new PositionGrid(new double[]{0, 0, 1, 0, -1, 0});
+        assertEquals(-1, grid.nearest(0.5, 0, 0.5));
+        // Les positions 0 et 1 sont toutes deux à 0,5 du point : la plus petite est retenue.
+        assertEquals(0, grid.nearest(0.5, 0, 0.50001));
+        assertEquals(1, grid.nearest(0.6, 0, 0.5));
+        assertEquals(0, grid.nearest(0, 0, 0.1));
+        assertEquals(-1, grid.nearest(0, 0, 0));
+    }
+
+    @Test
+    void nearestMatchesLinearScanAsPositionsGrow() {
+        SplittableRandom rng = TestRandomizer.newRandom();
+        for (int count = 10_000; count <= 1_000_000; count *= 10) {
+            double[] positions = new double[2 * count];
+            for (int i = 0; i < count; i++) {
+                // Répartition uniforme sur la sphère, projetée stéréographiquement depuis le pôle.
+                double z = rng.nextDouble(-1, 1);
+                double angle = rng.nextDouble(0, 2 * Math.PI);
+                double radius = Math.sqrt(1 - z * z) / (1 + z);
+                positions[2 * i] = radius * Math.cos(angle);
+                positions[2 * i + 1] = radius * Math.sin(angle);
+            }
+            PositionGrid grid = new PositionGrid(positions);
+
+            for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+                double x = rng.nextDouble(-1, 1), y = rng.nextDouble(-1, 1);
+                double maxDistance = rng.nextDouble(0, 0.02);
+                assertEquals(PositionGrid.nearestByScan(positions, x, y, maxDistance), grid.nearest(x, y, maxDistance));
+            }
+        }
+    }
+}
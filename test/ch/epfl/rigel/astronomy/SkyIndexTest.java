@@ -0,0 +1,76 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SkyIndexTest {
+
+    private static EquatorialCoordinates randomPosition(SplittableRandom rng) {
+        return EquatorialCoordinates.of(rng.nextDouble(0, 2 * Math.PI), Math.asin(rng.nextDouble(-1, 1)));
+    }
+
+    private static double angle(EquatorialCoordinates a, EquatorialCoordinates b) {
+        double cos = Math.sin(a.dec()) * Math.sin(b.dec()) + Math.cos(a.dec()) * Math.cos(b.dec()) * Math.cos(a.ra() - b.ra());
+        return Math.acos(Math.max(-1, Math.min(1, cos)));
+    }
+
+    @Test
+    void cellsHaveEqualAreasAndAreNested() {
+        SplittableRandom rng = TestRandomizer.newRandom();
+        int order = 3;
+        int[] counts = new int[12 << (2 * order)];
+        int samples = 1_000_000;
+        for (int i = 0; i < samples; i++) {
+            EquatorialCoordinates position = randomPosition(rng);
+            int cell = SkyIndex.cellOf(order, position.ra(), position.dec());
+            assertEquals(SkyIndex.cellOf(order - 1, position.ra(), position.dec()), cell >> 2);
+            counts[cell]++;
+        }
+        double mean = (double) samples / counts.length;
+        for (int count : counts) assertEquals(mean, count, 0.2 * mean);
+    }
+
+    @Test
+    void coneSearchMatchesLinearScan() {
+        SplittableRandom rng = TestRandomizer.newRandom();
+        for (int count : new int[]{0, 1, 100, 20_000}) {
+            List < Star > stars = new ArrayList <>();
+            for (int i = 0; i < count; i++) stars.add(new Star(i, "", randomPosition(rng), 0, 0));
+            StarCatalogue catalogue = new StarCatalogue(stars, List.of());
+
+            for (int i = 0; i < 200; i++) {
+                EquatorialCoordinates center = randomPosition(rng);
+                double radius = rng.nextDouble(0, (i % 4 == 0) ? Math.PI : 0.3);
+                int[] expected = IntStream.range(0, count)
+                        .filter(j -> angle(center, stars.get(j).equatorialPos()) <= radius)
+                        .toArray();
+                int[] actual = catalogue.starIndicesWithin(center, radius);
+                // Les étoiles à une distance égale au rayon (aux erreurs d'arrondi près) peuvent être comptées ou non.
+                for (int j : expected) {
+                    if (angle(center, stars.get(j).equatorialPos()) < radius - 1e-9)
+                        assertTrue(contains(actual, j));
+                }
+                for (int j : actual) assertTrue(angle(center, stars.get(j).equatorialPos()) <= radius + 1e-9);
+                assertTrue(IntStream.range(1, actual.length).allMatch(k -> actual[k - 1] < actual[k]));
+            }
+        }
+    }
+
+    @Test
+    void coneSearchRejectsNegativeRadius() {
+        StarCatalogue catalogue = new StarCatalogue(List.of(), List.of());
+        assertThrows(IllegalArgumentException.class, () -> catalogue.starIndicesWithin(EquatorialCoordinates.of(0, 0), -1));
+    }
+
+    private static boolean contains(int[] values, int value) {
+        return IntStream.of(values).anyMatch(v -> v == value);
+    }
+}
@@ -0,0 +1,61 @@
+package ch.epfl.rigel.astronomy;
+
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mesure du temps de construction d'un catalogue de 10 000 à 10 millions d'étoiles synthétiques, hors des tests unitaires
+ * (les temps dépendent de la machine) : une construction linéaire prend à peu près le même temps par étoile quelle que soit
+ * la taille du catalogue. Les tailles qui ne tiennent pas dans le tas sont ignorées (augmenter -Xmx pour les mesurer).
+ */
+
+public final class StarCatalogueScalingBenchmark {
+
+    // Estimation grossière de la mémoire occupée par une étoile (objet Star, coordonnées et référence dans les listes).
+    private static final long BYTES_PER_STAR = 160;
+
+    private static List < Star > syntheticStars(int count) {
+        List < Star > stars = new ArrayList <>(count);
+        EquatorialCoordinates position = EquatorialCoordinates.of(0, 0);
+        for (int i = 0; i < count; i++) {
+            stars.add(new Star(i + 1, "", position, 0, 0));
+        }
+        return stars;
+    }
+
+    private static List < Asterism > syntheticAsterisms(List < Star > stars) {
+        List < Asterism > asterisms = new ArrayList <>();
+        int step = Math.max(1, stars.size() / 1000);
+        for (int i = 0; i + 2 * step < stars.size(); i += 3 * step) {
+            asterisms.add(new Asterism(List.of(stars.get(i), stars.get(i + step), stars.get(i + 2 * step))));
+        }
+        return asterisms;
+    }
+
+    public static void main(String[] args) {
+        long maxMemory = Runtime.getRuntime().maxMemory();
+
+        for (int count = 10_000; count <= 10_000_000; count *= 10) {
+            if (count * BYTES_PER_STAR * 2 > maxMemory) {
+                System.out.printf("%,d étoiles : ignoré (mémoire insuffisante)%n", count);
+                continue;
+            }
+
+            List < Star > stars = syntheticStars(count);
+            List < Asterism > asterisms = syntheticAsterisms(stars);
+
+            // Une construction de chauffe, puis la meilleure de trois constructions mesurées.
+            new StarCatalogue(stars, asterisms);
+            long time = Long.MAX_VALUE;
+            for (int i = 0; i < 3; i++) {
+                long start = System.nanoTime();
+                new StarCatalogue(stars, asterisms);
+                time = Math.min(time, System.nanoTime() - start);
+            }
+
+            System.out.printf("%,d étoiles : %.1f ms (%.1f ns par étoile)%n", count, time / 1e6, (double) time / count);
+        }
+    }
+}
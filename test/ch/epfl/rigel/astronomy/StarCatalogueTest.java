@@ -1,14 +1,22 @@
 package ch.epfl.rigel.astronomy;
 
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ReadOnlyBufferException;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class StarCatalogueTest {
 
@@ -85,4 +93,90 @@ public class StarCatalogueTest {
         }
     }
 
+    @Test
+    void columnsMatchStarsAndAreReadOnly() throws IOException {
+        try (InputStream hygStream = getClass()
+                .getResourceAsStream(HYG_CATALOGUE_NAME)) {
+            StarCatalogue catalogue = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE)
+                    .build();
+
+            List<Star> stars = catalogue.stars();
+            DoubleBuffer ra = catalogue.raColumn();
+            DoubleBuffer dec = catalogue.decColumn();
+            FloatBuffer magnitudes = catalogue.magnitudeColumn();
+            IntBuffer colorTemperatures = catalogue.colorTemperatureColumn();
+            IntBuffer colorBuckets = catalogue.colorBucketColumn();
+            IntBuffer hipparcosIds = catalogue.hipparcosIdColumn();
+
+            assertEquals(stars.size(), ra.limit());
+            for (int i = 0; i < stars.size(); i++) {
+                Star star = stars.get(i);
+                assertEquals(star.equatorialPos().ra(), ra.get(i));
+                assertEquals(star.equatorialPos().dec(), dec.get(i));
+                assertEquals(star.magnitude(), magnitudes.get(i));
+                assertEquals(star.colorTemperature(), colorTemperatures.get(i));
+                assertEquals(star.colorBucket(), colorBuckets.get(i));
+                assertEquals(star.hipparcosId(), hipparcosIds.get(i));
+            }
+
+            assertTrue(ra.isReadOnly());
+            assertThrows(ReadOnlyBufferException.class, () -> magnitudes.put(0, 0f));
+            assertSame(stars, catalogue.stars());
+        }
+    }
+
+    @Test
+    void asterismSegmentsJoinConsecutiveStarsOfEachAsterism() throws IOException {
+        try (InputStream hygStream = getClass()
+                .getResourceAsStream(HYG_CATALOGUE_NAME)) {
+            InputStream asterismStream = getClass()
+                    .getResourceAsStream(ASTERISM_CATALOGUE_NAME);
+            StarCatalogue catalogue = new StarCatalogue.Builder()
+                    .loadFrom(hygStream, HygDatabaseLoader.INSTANCE).loadFrom(asterismStream, AsterismLoader.INSTANCE)
+                    .build();
+
+            // Chaque segment doit apparaître autant de fois que dans les listes d'index des astérismes.
+            List<Long> expected = new ArrayList<>();
+            for (Asterism asterism : catalogue.asterisms()) {
+                List<Integer> indices = catalogue.asterismIndices(asterism);
+                for (int j = 1; j < indices.size(); j++) expected.add(((long) indices.get(j - 1) << 32) | indices.get(j));
+            }
+            IntBuffer segments = catalogue.asterismSegments();
+            List<Long> actual = new ArrayList<>();
+            for (int k = 0; k < segments.limit(); k += 2) actual.add(((long) segments.get(k) << 32) | segments.get(k + 1));
+
+            expected.sort(null);
+            actual.sort(null);
+            assertEquals(expected, actual);
+            assertTrue(segments.isReadOnly());
+        }
+    }
+
+    @Test
+    void catalogueWithoutAsterismsHasNoSegments() {
+        assertEquals(0, new StarCatalogue(List.of(), List.of()).asterismSegments().limit());
+    }
+
+    @Test
+    void constructorFailsOnAsterismStarOnlySharingHipparcosId() {
+        Star rigel = new Star(24436, "Rigel", EquatorialCoordinates.of(1.3724, -0.1431), 0.18f, -0.03f);
+        Star impostor = new Star(24436, "Rigel", EquatorialCoordinates.of(1.3724, -0.1431), 0.5f, -0.03f);
+        Star copy = new Star(24436, "Rigel", EquatorialCoordinates.of(1.3724, -0.1431), 0.18f, -0.03f);
+
+        assertThrows(IllegalArgumentException.class, () -> new StarCatalogue(List.of(rigel), List.of(new Asterism(List.of(impostor)))));
+        Asterism asterism = new Asterism(List.of(copy));
+        assertEquals(List.of(0), new StarCatalogue(List.of(rigel), List.of(asterism)).asterismIndices(asterism));
+    }
+
+    @Test
+    void asterismIndicesAreFoundInLargeCatalogue() {
+        List<Star> stars = new ArrayList<>();
+        EquatorialCoordinates position = EquatorialCoordinates.of(0, 0);
+        for (int i = 0; i < 100_000; i++) stars.add(new Star(i + 1, "", position, 0, 0));
+        Asterism asterism = new Asterism(List.of(stars.get(99_999), stars.get(0), stars.get(54_321)));
+
+        StarCatalogue catalogue = new StarCatalogue(stars, List.of(asterism));
+        assertEquals(List.of(99_999, 0, 54_321), catalogue.asterismIndices(asterism));
+    }
 }
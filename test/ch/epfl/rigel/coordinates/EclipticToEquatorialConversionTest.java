@@ -1,12 +1,12 @@
 package ch.epfl.rigel.coordinates;
 
+import ch.epfl.rigel.astronomy.Epoch;
 import ch.epfl.rigel.math.Angle;
 import org.junit.jupiter.api.Test;
 
 import java.time.*;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 
 class EclipticToEquatorialConversionTest {
     // Convert an angle given in HMS to hours (not available in Angle).
@@ -93,4 +93,25 @@ class EclipticToEquatorialConversionTest {
             new EclipticToEquatorialConversion(ZDT_SEMESTER_START).hashCode();
         });
     }
+
+    @Test
+    void ofDaysSinceJ2010WorksLikeConstructor() {
+        var days = Epoch.J2010.daysUntil(ZDT_SEMESTER_START);
+        var expected = new EclipticToEquatorialConversion(ZDT_SEMESTER_START);
+        var actual = EclipticToEquatorialConversion.ofDaysSinceJ2010(days);
+        for (double lon = 0; lon < Angle.TAU; lon += 0.1) {
+            var ecl = EclipticCoordinates.of(lon, 0.3);
+            assertEquals(expected.apply(ecl).ra(), actual.apply(ecl).ra(), 1e-12);
+            assertEquals(expected.apply(ecl).dec(), actual.apply(ecl).dec(), 1e-12);
+            assertEquals(expected.apply(ecl).ra(), actual.rightAscension(lon, 0.3), 1e-12);
+        }
+    }
+
+    @Test
+    void atReusesConversionOnlyWhileObliquityIsUnchanged() {
+        var days = Epoch.J2010.daysUntil(ZDT_SEMESTER_START);
+        var c = EclipticToEquatorialConversion.ofDaysSinceJ2010(days);
+        assertSame(c, c.at(days + 1d / 24));
+        assertNotSame(c, c.at(days + 365));
+    }
 }
@@ -0,0 +1,58 @@
+package ch.epfl.rigel.coordinates;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Mesure, hors des tests unitaires (les temps dépendent de la machine), du temps de projection de 120 000 étoiles une à
+ * une, en lot à partir des ascensions droites et déclinaisons, et en lot à partir des vecteurs unitaires. L'égalité des
+ * résultats des trois manières est vérifiée par StereographicProjectionTest.
+ */
+
+public final class StereographicProjectionBenchmark {
+
+    public static void main(String[] args) {
+        var conversion = new EquatorialToHorizontalConversion(ZonedDateTime.of(2020, 3, 20, 21, 0, 0, 0, ZoneOffset.UTC), GeographicCoordinates.ofDeg(6.57, 46.52));
+        var proj = new StereographicProjection(HorizontalCoordinates.ofDeg(277, -23));
+        var rng = new SplittableRandom(2020);
+
+        int count = 120_000;
+        double[] ra = new double[count];
+        double[] dec = new double[count];
+        double[] x = new double[count];
+        double[] y = new double[count];
+        double[] z = new double[count];
+        for (int j = 0; j < count; j++) {
+            ra[j] = rng.nextDouble(0, 2 * Math.PI);
+            dec[j] = Math.asin(rng.nextDouble(-1, 1));
+            x[j] = Math.cos(dec[j]) * Math.cos(ra[j]);
+            y[j] = Math.cos(dec[j]) * Math.sin(ra[j]);
+            z[j] = Math.sin(dec[j]);
+        }
+        double[] outXY = new double[2 * count];
+
+        // Meilleur temps de chaque manière de projeter, sur dix itérations (les premières servant de chauffe).
+        long perStarTime = Long.MAX_VALUE, batchTime = Long.MAX_VALUE, unitVectorTime = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            long start = System.nanoTime();
+            for (int j = 0; j < count; j++) {
+                var xy = proj.apply(conversion.apply(EquatorialCoordinates.of(ra[j], dec[j])));
+                outXY[2 * j] = xy.x();
+                outXY[2 * j + 1] = xy.y();
+            }
+            perStarTime = Math.min(perStarTime, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            proj.projectAll(conversion, ra, dec, outXY);
+            batchTime = Math.min(batchTime, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            proj.projectAll(conversion, x, y, z, outXY);
+            unitVectorTime = Math.min(unitVectorTime, System.nanoTime() - start);
+        }
+
+        System.out.printf("%,d étoiles : une à une %.2f ms, en lot %.2f ms, vecteurs unitaires %.2f ms%n",
+                count, perStarTime / 1e6, batchTime / 1e6, unitVectorTime / 1e6);
+    }
+}
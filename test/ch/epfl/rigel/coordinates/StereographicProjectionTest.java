@@ -3,6 +3,10 @@ package ch.epfl.rigel.coordinates;
 import ch.epfl.test.TestRandomizer;
 import org.junit.jupiter.api.Test;
 
+import java.nio.DoubleBuffer;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class StereographicProjectionTest {
@@ -181,4 +185,55 @@ class StereographicProjectionTest {
             new StereographicProjection(HorizontalCoordinates.of(0, 0)).hashCode();
         });
     }
+
+    @Test
+    void projectAllMatchesConversionThenApply() {
+        var rng = TestRandomizer.newRandom();
+        var when = ZonedDateTime.of(2020, 3, 20, 21, 0, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < 20; i++) {
+            var conversion = new EquatorialToHorizontalConversion(when.plusHours(i),
+                    GeographicCoordinates.ofDeg(rng.nextDouble(-180, 180), rng.nextDouble(-89, 89)));
+            var proj = new StereographicProjection(HorizontalCoordinates.ofDeg(rng.nextDouble(0, 360), rng.nextDouble(-90, 90)));
+
+            int count = 500;
+            double[] ra = new double[count];
+            double[] dec = new double[count];
+            for (int j = 0; j < count; j++) {
+                ra[j] = rng.nextDouble(0, 2 * Math.PI);
+                dec[j] = rng.nextDouble(-Math.PI / 2, Math.PI / 2);
+            }
+
+            double[] outXY = new double[2 * count];
+            proj.projectAll(conversion, ra, dec, outXY);
+            double[] bufferXY = new double[2 * count];
+            proj.projectAll(conversion, DoubleBuffer.wrap(ra), DoubleBuffer.wrap(dec), bufferXY);
+
+            for (int j = 0; j < count; j++) {
+                var expected = proj.apply(conversion.apply(EquatorialCoordinates.of(ra[j], dec[j])));
+                assertEquals(expected.x(), outXY[2 * j], 1e-9 * Math.max(1, Math.abs(expected.x())));
+                assertEquals(expected.y(), outXY[2 * j + 1], 1e-9 * Math.max(1, Math.abs(expected.y())));
+            }
+            assertArrayEquals(outXY, bufferXY);
+
+            double[] x = new double[count];
+            double[] y = new double[count];
+            double[] z = new double[count];
+            for (int j = 0; j < count; j++) {
+                x[j] = Math.cos(dec[j]) * Math.cos(ra[j]);
+                y[j] = Math.cos(dec[j]) * Math.sin(ra[j]);
+                z[j] = Math.sin(dec[j]);
+            }
+            double[] unitXY = new double[2 * count];
+            proj.projectAll(conversion, x, y, z, unitXY);
+            assertArrayEquals(outXY, unitXY, 1e-12);
+        }
+    }
+
+    @Test
+    void projectAllRejectsMismatchedArrays() {
+        var conversion = new EquatorialToHorizontalConversion(ZonedDateTime.now(), GeographicCoordinates.ofDeg(0, 0));
+        var proj = new StereographicProjection(HorizontalCoordinates.of(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> proj.projectAll(conversion, new double[2], new double[3], new double[6]));
+        assertThrows(IllegalArgumentException.class, () -> proj.projectAll(conversion, new double[2], new double[2], new double[3]));
+    }
 }
@@ -1,12 +1,20 @@
 package ch.epfl.rigel.gui;
 
 
+import ch.epfl.rigel.astronomy.Star;
+import ch.epfl.rigel.math.MathematicalCalculus;
 import javafx.scene.paint.Color;
 import org.junit.jupiter.api.Test;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 
+import static java.nio.charset.StandardCharsets.US_ASCII;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class BlackBodyColorTest {
@@ -32,6 +40,57 @@ public class BlackBodyColorTest {
         assertThrows(IllegalArgumentException.class, () -> BlackBodyColor.colorForTemperature(40001));
     }
 
+    @Test
+    void colorForBucketMatchesColorForTemperature() {
+        for (int temperature = 1000; temperature <= 40000; temperature += 7) {
+            int bucket = Star.colorBucket(temperature);
+            assertEquals(MathematicalCalculus.roundToNearestHundred(temperature), 1000 + 100 * bucket);
+            assertSame(BlackBodyColor.colorForTemperature(temperature), BlackBodyColor.colorForBucket(bucket));
+        }
+        assertEquals(0, Star.colorBucket(1000));
+        assertEquals(Star.COLOR_BUCKET_COUNT - 1, Star.colorBucket(40000));
+    }
 
-}
+    @Test
+    void everyBucketMapsToTheColorOfTheFile() throws IOException {
+        // Lecture indépendante du fichier : chaque ligne « 10deg » donne la couleur attendue pour le palier de sa température.
+        Color[] expected = new Color[Star.COLOR_BUCKET_COUNT];
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                BlackBodyColorTest.class.getResourceAsStream("/bbr_color.txt"), US_ASCII))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.charAt(0) != '#' && line.substring(10, 15).equals("10deg")) {
+                    int bucket = Star.colorBucket(Integer.parseInt(line.substring(1, 6).trim()));
+                    assertNull(expected[bucket]);
+                    expected[bucket] = Color.web(line.substring(80, 87));
+                }
+            }
+        }
+
+        for (int bucket = 0; bucket < Star.COLOR_BUCKET_COUNT; bucket++) {
+            assertNotNull(expected[bucket], "palier " + bucket);
+            assertEquals(expected[bucket], BlackBodyColor.colorForBucket(bucket), "palier " + bucket);
+            assertEquals(expected[bucket], BlackBodyColor.colorForTemperature(1000 + 100 * bucket), "palier " + bucket);
+        }
+
+        assertEquals(Color.web("#ff3800"), BlackBodyColor.colorForBucket(Star.colorBucket(1000)));
+        assertEquals(Color.web("#9bbcff"), BlackBodyColor.colorForBucket(Star.colorBucket(40000)));
+        assertEquals(Color.web("#9bbcff"), BlackBodyColor.colorForBucket(Star.COLOR_BUCKET_COUNT - 1));
+    }
 
+
+    @Test
+    void argbTableMatchesJavaFXColors() {
+        for (int bucket = 0; bucket < Star.COLOR_BUCKET_COUNT; bucket++) {
+            Color color = BlackBodyColor.colorForBucket(bucket);
+            int argb = BlackBodyArgb.argbForBucket(bucket);
+            assertEquals(0xFF, argb >>> 24);
+            assertEquals(Color.rgb((argb >> 16) & 0xFF, (argb >> 8) & 0xFF, argb & 0xFF), color);
+        }
+        assertEquals(0xFF9BBCFF, BlackBodyArgb.parseHexColor("#9bbcff"));
+        assertThrows(IllegalArgumentException.class, () -> BlackBodyArgb.parseHexColor("9bbcff"));
+        assertThrows(IllegalArgumentException.class, () -> BlackBodyArgb.parseHexColor("#9bbcfg"));
+    }
+
+
+}
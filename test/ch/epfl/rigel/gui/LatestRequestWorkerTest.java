@@ -0,0 +1,111 @@
+package ch.epfl.rigel.gui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatestRequestWorkerTest {
+
+    // Exécuteur n'exécutant ses tâches qu'à la demande, afin de dérouler pas à pas les deux fils.
+    private static final class StepExecutor implements Executor {
+        private final Queue < Runnable > tasks = new ArrayDeque <>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runNext() {
+            assertFalse(tasks.isEmpty());
+            tasks.remove().run();
+        }
+
+        int size() {
+            return tasks.size();
+        }
+    }
+
+    @Test
+    void requestsDuringComputationAreCoalescedIntoTheLatest() {
+        StepExecutor worker = new StepExecutor(), publisher = new StepExecutor();
+        List < Integer > computed = new ArrayList <>();
+        List < String > published = new ArrayList <>();
+        LatestRequestWorker < Integer, String > requests = new LatestRequestWorker <>(worker, publisher,
+                request -> {
+                    computed.add(request);
+                    return "sky " + request;
+                },
+                (request, result) -> published.add(request + ":" + result));
+
+        requests.request(1);
+        assertTrue(requests.isComputing());
+        requests.request(2);
+        requests.request(3);
+        assertEquals(1, worker.size());
+
+        worker.runNext();
+        assertEquals(List.of(1), computed);
+        assertTrue(published.isEmpty());
+        publisher.runNext();
+        assertEquals(List.of("1:sky 1"), published);
+
+        // La demande 2 a été remplacée par la 3, lancée dès la publication du premier résultat.
+        assertTrue(requests.isComputing());
+        worker.runNext();
+        publisher.runNext();
+        assertEquals(List.of(1, 3), computed);
+        assertEquals(List.of("1:sky 1", "3:sky 3"), published);
+        assertFalse(requests.isComputing());
+        assertEquals(0, worker.size());
+        assertEquals(0, publisher.size());
+    }
+
+    @Test
+    void failedComputationIsReportedAndPendingRequestIsComputed() {
+        StepExecutor worker = new StepExecutor(), publisher = new StepExecutor();
+        List < String > published = new ArrayList <>();
+        LatestRequestWorker < Integer, String > requests = new LatestRequestWorker <>(worker, publisher,
+                request -> {
+                    if (request < 0) throw new IllegalStateException("request " + request);
+                    return "sky " + request;
+                },
+                (request, result) -> published.add(result));
+
+        Thread thread = Thread.currentThread();
+        Thread.UncaughtExceptionHandler previousHandler = thread.getUncaughtExceptionHandler();
+        List < Throwable > reported = new ArrayList <>();
+        thread.setUncaughtExceptionHandler((t, e) -> reported.add(e));
+        try {
+            requests.request(-1);
+            requests.request(2);
+            worker.runNext();
+            publisher.runNext();
+            assertEquals(1, reported.size());
+            assertEquals("request -1", reported.get(0).getMessage());
+            assertTrue(published.isEmpty());
+
+            // La demande en attente est traitée comme après un calcul réussi.
+            assertTrue(requests.isComputing());
+            worker.runNext();
+            publisher.runNext();
+            assertEquals(List.of("sky 2"), published);
+
+            // Sans demande en attente, un échec laisse le calcul prêt pour la demande suivante.
+            requests.request(-3);
+            worker.runNext();
+            publisher.runNext();
+            assertEquals(2, reported.size());
+            assertFalse(requests.isComputing());
+            requests.request(4);
+            assertEquals(1, worker.size());
+        } finally {
+            thread.setUncaughtExceptionHandler(previousHandler);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ch.epfl.rigel.gui;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RedrawSchedulerTest {
+
+    @Test
+    void requestsBetweenTwoPulsesGiveOnePaint() {
+        int[] paints = new int[1], starts = new int[1], stops = new int[1];
+        RedrawScheduler scheduler = new RedrawScheduler(() -> paints[0]++, () -> starts[0]++, () -> stops[0]++);
+
+        int requests = 25;
+        for (int i = 0; i < requests; i++) scheduler.requestRedraw();
+        assertEquals(0, paints[0]);
+        assertEquals(1, starts[0]);
+
+        scheduler.handle(0);
+        assertEquals(1, paints[0]);
+        assertEquals(1, stops[0]);
+        assertEquals(requests, scheduler.requestedFrames());
+        assertEquals(1, scheduler.paintedFrames());
+
+        // Une impulsion sans demande ne dessine rien ; une nouvelle demande redémarre les impulsions.
+        scheduler.handle(1);
+        assertEquals(1, paints[0]);
+        scheduler.requestRedraw();
+        assertEquals(2, starts[0]);
+        scheduler.handle(2);
+        assertEquals(2, paints[0]);
+        assertEquals(requests + 1, scheduler.requestedFrames());
+        assertEquals(2, scheduler.paintedFrames());
+    }
+}
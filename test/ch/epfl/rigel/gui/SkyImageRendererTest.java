@@ -0,0 +1,152 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.astronomy.Asterism;
+import ch.epfl.rigel.astronomy.Star;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SkyImageRendererTest {
+
+    private static final ZonedDateTime WHEN = ZonedDateTime.of(2020, 3, 20, 21, 0, 0, 0, ZoneOffset.UTC);
+    private static final GeographicCoordinates EPFL = GeographicCoordinates.ofDeg(6.57, 46.52);
+
+    private static StarCatalogue randomCatalogue() {
+        SplittableRandom rng = TestRandomizer.newRandom();
+        List < Star > stars = new ArrayList <>();
+        for (int i = 0; i < 20_000; i++) {
+            EquatorialCoordinates position = EquatorialCoordinates.of(rng.nextDouble(0, 2 * Math.PI), Math.asin(rng.nextDouble(-1, 1)));
+            stars.add(new Star(i, "", position, (float) rng.nextDouble(-1, 8), (float) rng.nextDouble(-0.5, 2)));
+        }
+        return new StarCatalogue(stars, List.of(new Asterism(List.of(stars.get(1), stars.get(2), stars.get(3)))));
+    }
+
+    @Test
+    void renderDrawsTheSky() {
+        SkyImageRenderer renderer = new SkyImageRenderer(randomCatalogue());
+        BufferedImage image = renderer.render(new SkyImageRenderer.View(WHEN, EPFL, HorizontalCoordinates.ofDeg(180, 20), 100, 320, 200, null));
+        assertEquals(320, image.getWidth());
+        assertEquals(200, image.getHeight());
+
+        int lit = 0;
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int argb = image.getRGB(x, y);
+                assertEquals(0xFF, argb >>> 24);
+                if ((argb & 0xFFFFFF) != 0) lit++;
+            }
+        }
+        assertTrue(lit > 100);
+    }
+
+    @Test
+    void renderLoadsNoJavaFXClass() throws Exception {
+        // Le peintre est rechargé par un chargeur de classes refusant toute classe de JavaFX : l'une d'elles manquerait alors
+        // au rendu (NoClassDefFoundError), quelle que soit la manière dont JavaFX est présent dans l'environnement des tests.
+        ClassLoader loader = new NoJavaFXClassLoader(SkyImageRendererTest.class.getClassLoader());
+        assertThrows(ClassNotFoundException.class, () -> loader.loadClass("javafx.scene.paint.Color"));
+        Runnable rendering = (Runnable) loader.loadClass(HeadlessRendering.class.getName()).getConstructor().newInstance();
+        assertNotSame(HeadlessRendering.class, rendering.getClass());
+        rendering.run();
+    }
+
+    @Test
+    void renderAllWritesTheSameImagesOnEveryThread() throws IOException {
+        SkyImageRenderer renderer = new SkyImageRenderer(randomCatalogue());
+        Path directory = Files.createTempDirectory("rigel");
+        List < SkyImageRenderer.View > views = new ArrayList <>();
+        for (int i = 0; i < 8; i++) {
+            views.add(new SkyImageRenderer.View(WHEN.plusMinutes(30 * i), EPFL, HorizontalCoordinates.ofDeg(45 * i, 30), 120,
+                    200, 150, directory.resolve("sky-" + i + ".png")));
+        }
+        renderer.renderAll(views, 4);
+
+        for (SkyImageRenderer.View view : views) {
+            BufferedImage written = ImageIO.read(view.output().toFile());
+            BufferedImage expected = renderer.render(view);
+            for (int y = 0; y < expected.getHeight(); y++) {
+                for (int x = 0; x < expected.getWidth(); x++) assertEquals(expected.getRGB(x, y), written.getRGB(x, y));
+            }
+            Files.delete(view.output());
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void viewFailsOnInvalidParameters() {
+        HorizontalCoordinates center = HorizontalCoordinates.ofDeg(180, 20);
+        assertThrows(IllegalArgumentException.class, () -> new SkyImageRenderer.View(WHEN, EPFL, center, 0, 100, 100, null));
+        assertThrows(IllegalArgumentException.class, () -> new SkyImageRenderer.View(WHEN, EPFL, center, 100, 0, 100, null));
+        assertThrows(IllegalArgumentException.class, () -> new SkyImageRenderer(randomCatalogue()).renderAll(List.of(), 0));
+    }
+
+    @Test
+    void renderToFileFailsOnViewWithoutOutput() {
+        SkyImageRenderer renderer = new SkyImageRenderer(randomCatalogue());
+        SkyImageRenderer.View view = new SkyImageRenderer.View(WHEN, EPFL, HorizontalCoordinates.ofDeg(180, 20), 100, 32, 20, null);
+        assertThrows(IllegalArgumentException.class, () -> renderer.renderToFile(view));
+        assertThrows(IllegalArgumentException.class, () -> renderer.renderAll(List.of(view), 1));
+    }
+
+    /**
+     * Rendu d'une vue, exécuté avec les classes chargées par NoJavaFXClassLoader.
+     */
+    public static final class HeadlessRendering implements Runnable {
+        @Override
+        public void run() {
+            BufferedImage image = new SkyImageRenderer(randomCatalogue()).render(
+                    new SkyImageRenderer.View(WHEN, EPFL, HorizontalCoordinates.ofDeg(180, 20), 100, 160, 100, null));
+            assertEquals(160, image.getWidth());
+        }
+    }
+
+    /**
+     * Chargeur définissant lui-même les classes du projet (celles du peintre en dépendent donc pour charger les leurs), et
+     * refusant les classes de JavaFX ; les autres classes sont celles de son parent.
+     */
+    private static final class NoJavaFXClassLoader extends ClassLoader {
+
+        private NoJavaFXClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class < ? > loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.startsWith("javafx."))
+                throw new ClassNotFoundException(name);
+            if (!name.startsWith("ch.epfl."))
+                return super.loadClass(name, resolve);
+            synchronized (getClassLoadingLock(name)) {
+                Class < ? > loaded = findLoadedClass(name);
+                if (loaded == null) {
+                    try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        if (in == null)
+                            throw new ClassNotFoundException(name);
+                        byte[] bytes = in.readAllBytes();
+                        loaded = defineClass(name, bytes, 0, bytes.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                return loaded;
+            }
+        }
+    }
+}
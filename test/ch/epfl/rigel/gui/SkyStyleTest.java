@@ -0,0 +1,44 @@
+package ch.epfl.rigel.gui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SkyStyleTest {
+
+    @Test
+    void sunDisksAreDrawnLargestFirstThenWhite() {
+        List < Double > diameters = new ArrayList <>();
+        List < Integer > colors = new ArrayList <>();
+        SkyStyle.forEachSunDisk(10, (diameter, argb) -> {
+            diameters.add(diameter);
+            colors.add(argb);
+        });
+        assertEquals(List.of(22.0, 12.0, 10.0), diameters);
+        assertEquals(List.of(SkyStyle.SUN_HALO_COLOR, SkyStyle.SUN_COLOR, SkyStyle.WHITE), colors);
+
+        // Pour un tout petit Soleil, le disque jaune est plus grand que le halo, et dessiné en premier.
+        diameters.clear();
+        colors.clear();
+        SkyStyle.forEachSunDisk(1, (diameter, argb) -> {
+            diameters.add(diameter);
+            colors.add(argb);
+        });
+        assertEquals(List.of(3.0, 2.2, 1.0), diameters);
+        assertEquals(List.of(SkyStyle.SUN_COLOR, SkyStyle.SUN_HALO_COLOR, SkyStyle.WHITE), colors);
+    }
+
+    @Test
+    void asterismLineIsVisibleIfOneEndpointIsInside() {
+        assertTrue(SkyStyle.isAsterismLineVisible(-10, -10, 5, 5, 100, 100));
+        assertTrue(SkyStyle.isAsterismLineVisible(100, 100, 200, 200, 100, 100));
+        // Un trait traversant l'image dont les deux extrémités sont hors de l'image n'est pas dessiné.
+        assertFalse(SkyStyle.isAsterismLineVisible(-10, 50, 110, 50, 100, 100));
+        assertEquals(4, SkyStyle.asterismEndpoint(5, 2));
+    }
+}
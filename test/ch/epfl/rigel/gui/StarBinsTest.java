@@ -0,0 +1,77 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StarBinsTest {
+
+    private static final double WIDTH = 800;
+    private static final double HEIGHT = 600;
+
+    @Test
+    void binsKeepOverlappingStarsInOrderAndDrawEachStarOnce() {
+        SplittableRandom rng = TestRandomizer.newRandom();
+        int count = 40_000;
+        double[] positions = new double[2 * count];
+        double[] diameters = new double[count];
+        int[] buckets = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[2 * i] = rng.nextDouble(-100, WIDTH + 100);
+            positions[2 * i + 1] = rng.nextDouble(-100, HEIGHT + 100);
+            diameters[i] = rng.nextDouble() * rng.nextDouble() * 9;
+            buckets[i] = rng.nextInt(100, 160);
+        }
+        int[] visibleStars = new int[count / 2];
+        for (int k = 0; k < visibleStars.length; k++) visibleStars[k] = 2 * k;
+
+        StarBins bins = new StarBins();
+        bins.classify(visibleStars, positions, diameters, IntBuffer.wrap(buckets), WIDTH, HEIGHT);
+
+        // Rang de dessin de chaque étoile, et couleur de chaque groupe.
+        int[] rank = new int[count];
+        Arrays.fill(rank, -1);
+        int position = 0;
+        for (int bin = 0; bin < bins.binCount(); bin++) {
+            assertEquals(position, bins.start(bin));
+            for (; position < bins.end(bin); position++) {
+                int i = bins.star(position);
+                assertEquals(-1, rank[i]);
+                assertEquals(buckets[i], bins.bucket(bin));
+                rank[i] = position;
+            }
+        }
+        assertTrue(bins.binCount() < position / 2);
+
+        // Seules les étoiles entièrement hors du canevas ne sont pas dessinées.
+        for (int i : visibleStars) {
+            double radius = diameters[i] / 2 + 1;
+            boolean onCanvas = positions[2 * i] + radius >= 0 && positions[2 * i] - radius <= WIDTH
+                    && positions[2 * i + 1] + radius >= 0 && positions[2 * i + 1] - radius <= HEIGHT;
+            assertEquals(onCanvas, rank[i] >= 0);
+        }
+
+        // Deux étoiles pouvant se chevaucher sont dessinées dans l'ordre d'origine.
+        for (int a = 0; a < visibleStars.length; a += 11) {
+            for (int b = a + 1; b < visibleStars.length; b++) {
+                int i = visibleStars[a], j = visibleStars[b];
+                if (rank[i] < 0 || rank[j] < 0) continue;
+                double reach = diameters[i] / 2 + diameters[j] / 2 + 2;
+                if (Math.abs(positions[2 * i] - positions[2 * j]) <= reach && Math.abs(positions[2 * i + 1] - positions[2 * j + 1]) <= reach)
+                    assertTrue(rank[i] < rank[j]);
+            }
+        }
+    }
+
+    @Test
+    void classifyHandlesNoVisibleStars() {
+        StarBins bins = new StarBins();
+        bins.classify(new int[0], new double[0], new double[0], IntBuffer.allocate(0), WIDTH, HEIGHT);
+        assertEquals(0, bins.binCount());
+    }
+}
@@ -0,0 +1,74 @@
+package ch.epfl.rigel.gui;
+
+import ch.epfl.rigel.astronomy.ArtificialSatelliteCatalogue;
+import ch.epfl.rigel.astronomy.ObservedSky;
+import ch.epfl.rigel.astronomy.Star;
+import ch.epfl.rigel.astronomy.StarCatalogue;
+import ch.epfl.rigel.astronomy.UFOCatalogue;
+import ch.epfl.rigel.coordinates.EquatorialCoordinates;
+import ch.epfl.rigel.coordinates.GeographicCoordinates;
+import ch.epfl.rigel.coordinates.HorizontalCoordinates;
+import ch.epfl.rigel.coordinates.StereographicProjection;
+import ch.epfl.rigel.math.Angle;
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.transform.Affine;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure, hors des tests unitaires (les temps dépendent de la machine et de la carte graphique), du temps de dessin de
+ * 100 000 étoiles avec le contexte graphique du canevas puis avec StarRasterizer, rendu compris : le canevas est
+ * photographié (snapshot) à chaque image. Nécessite un écran pour démarrer la plateforme JavaFX.
+ */
+
+public final class StarRasterizerBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        CompletableFuture < Void > started = new CompletableFuture <>();
+        Platform.startup(() -> started.complete(null));
+        started.get(10, TimeUnit.SECONDS);
+
+        SplittableRandom rng = new SplittableRandom(2020);
+        List < Star > stars = new ArrayList <>();
+        for (int i = 0; i < 100_000; i++) {
+            EquatorialCoordinates position = EquatorialCoordinates.of(rng.nextDouble(0, 2 * Math.PI), Math.asin(rng.nextDouble(-1, 1)));
+            stars.add(new Star(i, "", position, (float) rng.nextDouble(-1, 9), (float) rng.nextDouble(-0.5, 2)));
+        }
+        StarCatalogue catalogue = new StarCatalogue(stars, List.of());
+        StereographicProjection projection = new StereographicProjection(HorizontalCoordinates.ofDeg(180, 40));
+        ObservedSky sky = new ObservedSky(ZonedDateTime.of(2020, 3, 20, 21, 0, 0, 0, ZoneOffset.UTC), GeographicCoordinates.ofDeg(6.57, 46.52),
+                projection, catalogue, new ArtificialSatelliteCatalogue(List.of()), new UFOCatalogue(List.of()));
+
+        int width = 1600, height = 1000, frames = 20;
+        double scale = width / projection.applyToAngle(Angle.ofDeg(100));
+        Affine transform = new Affine(scale, 0, width / 2.0, 0, -scale, height / 2.0);
+
+        long[] nanos = CompletableFuture.supplyAsync(() -> {
+            Canvas canvas = new Canvas(width, height);
+            SkyCanvasPainter painter = new SkyCanvasPainter(canvas, new DateTimeBean());
+            long[] result = new long[2];
+            for (int backend = 0; backend < 2; backend++) {
+                painter.setRasterStars(backend == 1);
+                for (int frame = -5; frame < frames; frame++) {
+                    long start = System.nanoTime();
+                    painter.clear(sky, false);
+                    painter.drawStars(sky, projection, transform);
+                    canvas.snapshot(null, null);
+                    if (frame >= 0) result[backend] += System.nanoTime() - start;
+                }
+            }
+            return result;
+        }, Platform::runLater).get(5, TimeUnit.MINUTES);
+
+        System.out.printf("%,d étoiles visibles : %.1f ms par image avec le contexte graphique, %.1f ms par image rastérisées%n",
+                sky.visibleStarIndices().length, nanos[0] / 1e6 / frames, nanos[1] / 1e6 / frames);
+        Platform.exit();
+    }
+}
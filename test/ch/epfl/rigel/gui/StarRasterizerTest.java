@@ -0,0 +1,41 @@
+package ch.epfl.rigel.gui;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StarRasterizerTest {
+
+    @Test
+    void diskCoverageMatchesDiskArea() {
+        StarRasterizer rasterizer = new StarRasterizer();
+        for (double diameter : new double[]{1, 2.5, 5, 8, 12, 30}) {
+            rasterizer.reset(64, 64);
+            rasterizer.fillDisk(31.3, 30.8, diameter, 0xFFFFFFFF);
+            double area = 0;
+            for (int i = 0; i < 64 * 64; i++) area += (rasterizer.pixels()[i] >>> 24) / 255.0;
+            assertEquals(Math.PI * diameter * diameter / 4, area, 0.05 * Math.PI * diameter * diameter / 4 + 0.1);
+        }
+    }
+
+    @Test
+    void disksAreClippedAndComposedInOrder() {
+        StarRasterizer rasterizer = new StarRasterizer();
+        rasterizer.reset(10, 10);
+        rasterizer.fillDisk(-5, -5, 3, 0xFFFF0000);
+        for (int i = 0; i < 100; i++) assertEquals(0, rasterizer.pixels()[i]);
+
+        // Un disque opaque recouvre le précédent ; un disque à moitié transparent se compose avec lui.
+        rasterizer.fillDisk(5, 5, 8, 0xFF0000FF);
+        assertEquals(0xFF0000FF, rasterizer.pixels()[4 * 10 + 4]);
+        rasterizer.fillDisk(5, 5, 8, 0x80FF0000);
+        assertEquals(0xFF80007F, rasterizer.pixels()[4 * 10 + 4]);
+        rasterizer.fillDisk(5, 5, 40, 0xFF00FF00);
+        for (int i = 0; i < 100; i++) assertEquals(0xFF00FF00, rasterizer.pixels()[i]);
+    }
+
+    @Test
+    void resetFailsOnNegativeSize() {
+        assertThrows(IllegalArgumentException.class, () -> new StarRasterizer().reset(-1, 10));
+    }
+}
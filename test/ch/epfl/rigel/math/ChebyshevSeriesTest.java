@@ -0,0 +1,49 @@
+package ch.epfl.rigel.math;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChebyshevSeriesTest {
+    @Test
+    void nodesAreIncreasingAndInsideInterval() {
+        double[] nodes = ChebyshevSeries.nodes(2, 5, 11);
+        assertEquals(11, nodes.length);
+        for (int k = 0; k < nodes.length; k++) {
+            assertTrue(2 < nodes[k] && nodes[k] < 5);
+            if (k > 0) assertTrue(nodes[k - 1] < nodes[k]);
+        }
+    }
+
+    @Test
+    void fitIsExactForPolynomialsOfLowerDegree() {
+        Polynomial p = Polynomial.of(0.5, -3, 2, 7);
+        double[] nodes = ChebyshevSeries.nodes(-4, 6, 6);
+        double[] samples = new double[nodes.length];
+        for (int k = 0; k < nodes.length; k++) samples[k] = p.at(nodes[k]);
+        ChebyshevSeries series = ChebyshevSeries.fit(-4, 6, samples);
+
+        for (double x = -4; x <= 6; x += 0.25) assertEquals(p.at(x), series.at(x), 1e-9);
+        assertEquals(0, series.errorBound(), 1e-9);
+    }
+
+    @Test
+    void errorBoundEstimatesApproximationError() {
+        double[] nodes = ChebyshevSeries.nodes(0, 3, 9);
+        double[] samples = new double[nodes.length];
+        for (int k = 0; k < nodes.length; k++) samples[k] = Math.sin(nodes[k]);
+        ChebyshevSeries series = ChebyshevSeries.fit(0, 3, samples);
+
+        double maxError = 0;
+        for (double x = 0; x <= 3; x += 0.001) maxError = Math.max(maxError, Math.abs(Math.sin(x) - series.at(x)));
+        assertTrue(maxError < 1e-6);
+        assertTrue(maxError <= series.errorBound());
+    }
+
+    @Test
+    void fitFailsOnEmptyIntervalOrSamples() {
+        assertThrows(IllegalArgumentException.class, () -> ChebyshevSeries.fit(1, 1, new double[]{1}));
+        assertThrows(IllegalArgumentException.class, () -> ChebyshevSeries.fit(0, 1, new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> ChebyshevSeries.nodes(2, 1, 3));
+    }
+}